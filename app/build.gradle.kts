@@ -39,6 +39,17 @@ android {
     buildFeatures {
         compose = true
     }
+    testOptions {
+        // 本地单元测试中 android.util.Log 等框架方法返回默认值, 无需模拟器
+        unitTests.isReturnDefaultValues = true
+    }
+    sourceSets {
+        // JMH基准测试、语料与模拟/回放合成后端, 随本地单元测试一起编译(不进入发布包), 由 benchmark 等任务运行
+        getByName("test") {
+            java.srcDir("src/benchmark/java")
+            resources.srcDir("src/benchmark/resources")
+        }
+    }
 }
 
 dependencies {
@@ -55,6 +66,8 @@ dependencies {
     implementation(libs.androidx.compose.material3)
     implementation(libs.androidx.media3.exoplayer)
     testImplementation(libs.junit)
+    testImplementation(libs.jmh.core)
+    testAnnotationProcessor(libs.jmh.generator.annprocess)
     androidTestImplementation(libs.androidx.junit)
     androidTestImplementation(libs.androidx.espresso.core)
     androidTestImplementation(platform(libs.androidx.compose.bom))
@@ -70,4 +83,204 @@ dependencies {
     
     // OkHttp for network requests
     implementation(libs.okhttp)
-}
\ No newline at end of file
+}
+
+/**
+ * 运行 JMH 基准测试(src/benchmark), 报告每次操作耗时(ns/op)与分配字节数(gc.alloc.rate.norm, B/op),
+ * 结果同时写入 build/reports/benchmark/results.json 以便比较不同版本
+ * 用法: ./gradlew :app:benchmark [-Pbenchmark.include=Segmentation] [-Pbenchmark.args="-f 1 -i 3"]
+ */
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Runs the JMH benchmarks for text segmentation, locale resolution and audio delivery"
+    useUnitTestClasspath()
+    mainClass.set("org.openjdk.jmh.Main")
+    val resultFile = layout.buildDirectory.file("reports/benchmark/results.json")
+    val include = providers.gradleProperty("benchmark.include").orElse(".*Benchmark.*")
+    val extraArgs = providers.gradleProperty("benchmark.args").orElse("")
+    argumentProviders.add(CommandLineArgumentProvider {
+        listOf(include.get(), "-prof", "gc", "-rf", "json", "-rff", resultFile.get().asFile.absolutePath) +
+                extraArgs.get().split(" ").filter { it.isNotBlank() }
+    })
+    doFirst { resultFile.get().asFile.parentFile.mkdirs() }
+}
+
+/**
+ * 以模拟后端驱动系统TTS服务, 统计短/中/长文本的首包音频耗时、实时率、输出间隔与总耗时分布,
+ * 结果写入 build/reports/benchmark/latency.json
+ * 用法: ./gradlew :app:latencyHarness [-Pharness.args="--rtt-ms=120 --ms-per-char=30 --iterations=50"]
+ * 参数说明见 LatencyHarness
+ */
+tasks.register<JavaExec>("latencyHarness") {
+    group = "verification"
+    description = "Measures time-to-first-audio and related latencies of TTSService against the fake backend"
+    useUnitTestClasspath()
+    mainClass.set("com.github.lonepheasantwarrior.volcenginetts.tts.LatencyHarness")
+    val resultFile = layout.buildDirectory.file("reports/benchmark/latency.json")
+    val harnessArgs = providers.gradleProperty("harness.args").orElse("")
+    argumentProviders.add(CommandLineArgumentProvider {
+        harnessArgs.get().split(" ").filter { it.isNotBlank() } + "--out=${resultFile.get().asFile.absolutePath}"
+    })
+}
+
+/**
+ * 以随机或录制的读屏事件序列交替调用 onSynthesizeText/onStop, 检查死锁、音频串流与资源占用,
+ * 并统计停止至下一段音频的延迟分布, 结果写入 build/reports/benchmark/storm.json
+ * 用法: ./gradlew :app:screenReaderStorm [-Pstorm.args="--trace=talkback_swipe --rtt-ms=120"]
+ * 参数说明见 ScreenReaderStorm
+ */
+tasks.register<JavaExec>("screenReaderStorm") {
+    group = "verification"
+    description = "Replays screen-reader style synthesize/stop storms against TTSService with the fake backend"
+    useUnitTestClasspath()
+    mainClass.set("com.github.lonepheasantwarrior.volcenginetts.tts.ScreenReaderStorm")
+    val resultFile = layout.buildDirectory.file("reports/benchmark/storm.json")
+    val stormArgs = providers.gradleProperty("storm.args").orElse("")
+    argumentProviders.add(CommandLineArgumentProvider {
+        stormArgs.get().split(" ").filter { it.isNotBlank() } + "--out=${resultFile.get().asFile.absolutePath}"
+    })
+}
+
+/**
+ * 使用本地单元测试的类路径(含 src/benchmark 与返回默认值的 android.jar)运行
+ */
+fun JavaExec.useUnitTestClasspath() {
+    dependsOn("compileDebugUnitTestJavaWithJavac", "processDebugUnitTestJavaRes")
+    classpath(project.provider { project.tasks.named<Test>("testDebugUnitTest").get().classpath })
+}
+
+/**
+ * 将 speaker_type.xml 中的 speaker_list 编译为不可变的 SpeakerCatalog 类
+ * 运行时按音色ID、场景直接查表, 无需读取资源和拆分字符串
+ */
+abstract class GenerateSpeakerCatalogTask : DefaultTask() {
+    @get:InputFile
+    @get:PathSensitive(PathSensitivity.RELATIVE)
+    abstract val speakerXml: RegularFileProperty
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val outputFile = outputDirectory.file(
+            "com/github/lonepheasantwarrior/volcenginetts/common/SpeakerCatalog.java"
+        ).get().asFile
+        outputFile.parentFile.mkdirs()
+        outputFile.writeText(renderSpeakerCatalog(speakerXml.get().asFile), Charsets.UTF_8)
+    }
+}
+
+/**
+ * 生成 SpeakerCatalog 源码, speaker_list 每项格式为 "场景|名称|音色ID"
+ */
+fun renderSpeakerCatalog(speakerXml: File): String {
+    val document = javax.xml.parsers.DocumentBuilderFactory.newInstance()
+        .newDocumentBuilder().parse(speakerXml)
+    val arrays = document.getElementsByTagName("array")
+    val speakerList = (0 until arrays.length).map { arrays.item(it) as org.w3c.dom.Element }
+        .firstOrNull { it.getAttribute("name") == "speaker_list" }
+        ?: throw GradleException("$speakerXml 中未找到 speaker_list")
+    val items = speakerList.getElementsByTagName("item")
+    val speakers = (0 until items.length).map { index ->
+        val parts = items.item(index).textContent.trim().split("|").map { it.trim() }
+        if (parts.size < 3 || parts.any { it.isEmpty() }) {
+            throw GradleException("speaker_list 条目格式错误: ${items.item(index).textContent}")
+        }
+        parts
+    }
+    speakers.groupBy { it[2] }.filterValues { it.size > 1 }.keys.firstOrNull()?.let {
+        throw GradleException("speaker_list 中音色ID重复: $it")
+    }
+
+    fun literal(value: String) = "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+    val scenes = speakers.map { it[0] }.distinct()
+    return buildString {
+        appendLine("package com.github.lonepheasantwarrior.volcenginetts.common;")
+        appendLine()
+        appendLine("import java.util.List;")
+        appendLine("import java.util.Map;")
+        appendLine()
+        appendLine("/**")
+        appendLine(" * 声音目录, 由 speaker_type.xml 在构建时生成, 请勿手动修改")
+        appendLine(" */")
+        appendLine("public final class SpeakerCatalog {")
+        appendLine("    /**")
+        appendLine("     * 声音信息")
+        appendLine("     */")
+        appendLine("    public static final class Speaker {")
+        appendLine("        public final String scene;")
+        appendLine("        public final String name;")
+        appendLine("        public final String id;")
+        appendLine()
+        appendLine("        public Speaker(String scene, String name, String id) {")
+        appendLine("            this.scene = scene;")
+        appendLine("            this.name = name;")
+        appendLine("            this.id = id;")
+        appendLine("        }")
+        appendLine()
+        appendLine("        @Override")
+        appendLine("        public String toString() {")
+        appendLine("            return scene + \"|\" + name + \"|\" + id;")
+        appendLine("        }")
+        appendLine("    }")
+        appendLine()
+        appendLine("    private static final List<Speaker> SPEAKERS = List.of(")
+        appendLine(speakers.joinToString(",\n") { (scene, name, id) ->
+            "            new Speaker(${literal(scene)}, ${literal(name)}, ${literal(id)})"
+        })
+        appendLine("    );")
+        appendLine()
+        appendLine("    private static final Map<String, Speaker> BY_ID = Map.ofEntries(")
+        appendLine(speakers.indices.joinToString(",\n") { index ->
+            "            Map.entry(${literal(speakers[index][2])}, SPEAKERS.get($index))"
+        })
+        appendLine("    );")
+        appendLine()
+        appendLine("    private static final Map<String, List<Speaker>> BY_SCENE = Map.ofEntries(")
+        appendLine(scenes.joinToString(",\n") { scene ->
+            val members = speakers.indices.filter { speakers[it][0] == scene }
+                .joinToString(", ") { "SPEAKERS.get($it)" }
+            "            Map.entry(${literal(scene)}, List.of($members))"
+        })
+        appendLine("    );")
+        appendLine()
+        appendLine("    private SpeakerCatalog() {")
+        appendLine("    }")
+        appendLine()
+        appendLine("    /**")
+        appendLine("     * 全部声音(按 speaker_list 中的顺序)")
+        appendLine("     */")
+        appendLine("    public static List<Speaker> getSpeakers() {")
+        appendLine("        return SPEAKERS;")
+        appendLine("    }")
+        appendLine()
+        appendLine("    /**")
+        appendLine("     * 按音色ID查找声音, 不存在时返回null")
+        appendLine("     */")
+        appendLine("    public static Speaker findById(String id) {")
+        appendLine("        return id == null ? null : BY_ID.get(id);")
+        appendLine("    }")
+        appendLine()
+        appendLine("    /**")
+        appendLine("     * 指定场景下的声音, 场景不存在时返回空列表")
+        appendLine("     */")
+        appendLine("    public static List<Speaker> getByScene(String scene) {")
+        appendLine("        List<Speaker> speakers = scene == null ? null : BY_SCENE.get(scene);")
+        appendLine("        return speakers == null ? List.of() : speakers;")
+        appendLine("    }")
+        appendLine("}")
+    }
+}
+
+val generateSpeakerCatalog = tasks.register<GenerateSpeakerCatalogTask>("generateSpeakerCatalog") {
+    speakerXml.set(layout.projectDirectory.file("src/main/res/values/speaker_type.xml"))
+}
+
+androidComponents {
+    onVariants { variant ->
+        variant.sources.java?.addGeneratedSourceDirectory(
+            generateSpeakerCatalog, GenerateSpeakerCatalogTask::outputDirectory
+        )
+    }
+}
@@ -0,0 +1,185 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import kotlin.math.PI
+import kotlin.math.max
+import kotlin.math.sin
+import kotlin.random.Random
+
+/**
+ * 本地模拟合成后端
+ * 不访问网络, 按火山引擎SDK的回调顺序(ENGINE_START -> SYNTHESIS_BEGIN -> AUDIO_DATA... -> AUDIO_DATA_END ->
+ * SYNTHESIS_END -> ENGINE_STOP)输出正弦波PCM, 延迟、抖动、分块大小与失败率均可配置;
+ * 随机数由[Config.seed]与引擎创建顺序确定, 相同配置下回调序列与时序可复现
+ */
+class FakeSynthesisBackend(private val config: Config = Config()) : SynthesisBackend {
+    /**
+     * 模拟参数
+     * @param sampleRate 输出PCM采样率(16位单声道)
+     * @param startLatencyMillis START指令至ENGINE_START回调的延迟
+     * @param firstChunkLatencyMillis SYNTHESIS指令至首个音频分块的延迟
+     * @param chunkIntervalMillis 相邻音频分块的间隔
+     * @param jitterMillis 每个延迟上叠加的随机抖动幅度(±)
+     * @param chunkSize 音频分块字节数
+     * @param bytesPerChar 每个字符产生的音频字节数
+     * @param failureRate 单次合成以ENGINE_ERROR结束的概率
+     * @param seed 随机数种子
+     * @param watermark 为true时每个样本值均为合成文本中首个字母或数字字符的编码(而非正弦波), 用于检查音频是否流入其他请求
+     * @param initFailures 最先创建的若干个引擎初始化失败(返回[ERR_FAKE_INIT_FAILURE])
+     */
+    data class Config @JvmOverloads constructor(
+        val sampleRate: Int = 24000,
+        val startLatencyMillis: Long = 20,
+        val firstChunkLatencyMillis: Long = 150,
+        val chunkIntervalMillis: Long = 20,
+        val jitterMillis: Long = 0,
+        val chunkSize: Int = 4800,
+        val bytesPerChar: Int = 9600,
+        val failureRate: Double = 0.0,
+        val seed: Long = 0,
+        val watermark: Boolean = false,
+        val initFailures: Int = 0
+    )
+
+    private val engineCount = AtomicLong()
+
+    override fun createEngine(): BackendEngine {
+        val index = engineCount.getAndIncrement()
+        return FakeEngine(config, Random(config.seed + index), index < config.initFailures)
+    }
+
+    /**
+     * 模拟引擎实例
+     */
+    private class FakeEngine(
+        private val config: Config,
+        private val random: Random,
+        private val failsInit: Boolean
+    ) : ScheduledBackendEngine("FakeSynthesisBackend-engine") {
+        // 上一次合成的回调全部发出的时间, 连续合成时后续合成在其后排队
+        private var busyUntilNanos = 0L
+        // 正弦波相位(采样序号), 使相邻分块的波形连续
+        private var sampleIndex = 0L
+
+        override val version: String = "fake-1.0"
+
+        override fun initEngine(): Int =
+            if (failsInit) ERR_FAKE_INIT_FAILURE else super.initEngine()
+
+        override fun onStart(gen: Long) {
+            busyUntilNanos = System.nanoTime()
+            sampleIndex = 0
+            schedule(gen, jitter(config.startLatencyMillis)) {
+                emit(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START, null)
+            }
+        }
+
+        /**
+         * 按当前文本选项计划本次合成的全部回调
+         */
+        override fun onSynthesis(gen: Long): Int {
+            val text = options[SpeechEngineDefines.PARAMS_KEY_TTS_TEXT_STRING] as? String ?: ""
+            val isNovel = options[SpeechEngineDefines.PARAMS_KEY_TTS_SCENARIO_STRING] ==
+                    SpeechEngineDefines.TTS_SCENARIO_TYPE_NOVEL
+            val withAudioData = options[SpeechEngineDefines.PARAMS_KEY_TTS_DATA_CALLBACK_MODE_INT] !=
+                    SpeechEngineDefines.TTS_DATA_CALLBACK_MODE_NONE
+            val withPlayer = options[SpeechEngineDefines.PARAMS_KEY_TTS_ENABLE_PLAYER_BOOL] == true
+
+            // 合成结果(是否失败、失败位置)在发送指令时即确定, 与回调线程的调度无关
+            val totalBytes = max(2, text.length * config.bytesPerChar) and 1.inv()
+            val chunkSize = max(2, config.chunkSize and 1.inv())
+            val chunkCount = (totalBytes + chunkSize - 1) / chunkSize
+            val failAtChunk = if (random.nextDouble() < config.failureRate) random.nextInt(chunkCount + 1) else -1
+
+            val now = System.nanoTime()
+            var delayMillis = max(0L, TimeUnit.NANOSECONDS.toMillis(busyUntilNanos - now))
+            schedule(gen, delayMillis) { emit(SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_BEGIN, null) }
+            delayMillis += jitter(config.firstChunkLatencyMillis)
+            for (chunk in 0 until chunkCount) {
+                if (chunk == failAtChunk) {
+                    break
+                }
+                val data = if (withAudioData) nextPcm(minOf(chunkSize, totalBytes - chunk * chunkSize), text) else null
+                schedule(gen, delayMillis) {
+                    if (data != null) {
+                        emit(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA, data)
+                    }
+                    if (chunk == 0 && withPlayer) {
+                        emit(SpeechEngineDefines.MESSAGE_TYPE_TTS_START_PLAYING, null)
+                    }
+                }
+                delayMillis += jitter(config.chunkIntervalMillis)
+            }
+            if (failAtChunk >= 0) {
+                schedule(gen, delayMillis) {
+                    if (finish(gen)) {
+                        emit(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_ERROR, errorJson(ERR_FAKE_FAILURE, "模拟合成失败"))
+                    }
+                }
+            } else {
+                schedule(gen, delayMillis) {
+                    if (withAudioData) {
+                        emit(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END, ByteArray(0))
+                    }
+                    emit(SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_END, null)
+                    if (withPlayer) {
+                        emit(SpeechEngineDefines.MESSAGE_TYPE_TTS_FINISH_PLAYING, null)
+                    }
+                    // 普通场景合成一句后引擎自行停止, 听书场景等待下一条合成指令
+                    if (!isNovel && finish(gen)) {
+                        emit(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP, null)
+                    }
+                }
+            }
+            busyUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(delayMillis)
+            return SpeechEngineDefines.ERR_NO_ERROR
+        }
+
+        private fun jitter(millis: Long): Long {
+            if (config.jitterMillis <= 0) {
+                return millis
+            }
+            return max(0L, millis + random.nextLong(-config.jitterMillis, config.jitterMillis + 1))
+        }
+
+        /**
+         * 生成下一段440Hz正弦波PCM(16位小端单声道); 启用水印时为合成文本首个字母或数字字符编码的常量样本
+         */
+        private fun nextPcm(size: Int, text: String): ByteArray {
+            val pcm = ByteArray(size)
+            val mark = text.firstOrNull { it.isLetterOrDigit() }?.code ?: 0
+            for (i in 0 until size / 2) {
+                val sample = if (config.watermark) mark
+                else (sin(2 * PI * TONE_HZ * sampleIndex++ / config.sampleRate) * TONE_AMPLITUDE).toInt()
+                pcm[i * 2] = sample.toByte()
+                pcm[i * 2 + 1] = (sample shr 8).toByte()
+            }
+            return pcm
+        }
+
+        private fun errorJson(code: Int, message: String): ByteArray =
+            "{\"err_code\":$code,\"err_msg\":\"$message\"}".toByteArray()
+    }
+
+    companion object {
+        /**
+         * 模拟合成失败时ENGINE_ERROR回调携带的错误码
+         */
+        const val ERR_FAKE_FAILURE = -10000
+
+        /**
+         * 引擎状态不允许执行该操作(未初始化、已销毁、未启动即合成等)
+         */
+        const val ERR_FAKE_INVALID_STATE = -10001
+
+        /**
+         * 模拟引擎初始化失败时返回的错误码
+         */
+        const val ERR_FAKE_INIT_FAILURE = -10002
+
+        private const val TONE_HZ = 440.0
+        private const val TONE_AMPLITUDE = 8000.0
+    }
+}
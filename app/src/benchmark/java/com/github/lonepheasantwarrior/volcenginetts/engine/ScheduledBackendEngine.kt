@@ -0,0 +1,168 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * 本地引擎(模拟、回放)基类
+ * 回调在引擎独占的线程中按计划时间依次发出; 管理引擎状态与选项, SYNC_STOP、STOP与销毁使尚未发出的回调全部作废,
+ * 引擎运行中时发出ENGINE_STOP. 子类只需在启动与收到合成指令时计划回调
+ * @param threadName 回调线程名称
+ */
+internal abstract class ScheduledBackendEngine(threadName: String) : BackendEngine {
+    protected val options = ConcurrentHashMap<String, Any>()
+    private val callbackExecutor: ScheduledExecutorService =
+        Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, threadName).apply { isDaemon = true }
+        }
+    @Volatile
+    private var listener: BackendEngine.Listener? = null
+    @Volatile
+    private var callbackThread: Thread? = null
+    // 每次停止递增, 计划中的回调仅在代数未变时发出
+    private val generation = AtomicLong()
+    private var isInitialized = false
+    private var isDestroyed = false
+    private var isRunning = false
+
+    @Synchronized
+    override fun initEngine(): Int {
+        if (isDestroyed) {
+            return FakeSynthesisBackend.ERR_FAKE_INVALID_STATE
+        }
+        isInitialized = true
+        return SpeechEngineDefines.ERR_NO_ERROR
+    }
+
+    override fun destroyEngine() {
+        synchronized(this) {
+            generation.incrementAndGet()
+            isDestroyed = true
+            isRunning = false
+        }
+        callbackExecutor.shutdownNow()
+    }
+
+    override fun setListener(listener: BackendEngine.Listener?) {
+        this.listener = listener
+    }
+
+    override fun sendDirective(directive: Int, params: String): Int {
+        return when (directive) {
+            SpeechEngineDefines.DIRECTIVE_START_ENGINE -> start()
+            SpeechEngineDefines.DIRECTIVE_SYNTHESIS -> synthesis()
+            SpeechEngineDefines.DIRECTIVE_SYNC_STOP_ENGINE -> stop(true)
+            SpeechEngineDefines.DIRECTIVE_STOP_ENGINE -> stop(false)
+            else -> FakeSynthesisBackend.ERR_FAKE_INVALID_STATE
+        }
+    }
+
+    override fun setOptionString(key: String, value: String) {
+        options[key] = value
+    }
+
+    override fun setOptionInt(key: String, value: Int) {
+        options[key] = value
+    }
+
+    override fun setOptionBoolean(key: String, value: Boolean) {
+        options[key] = value
+    }
+
+    /**
+     * 引擎启动, 计划ENGINE_START等回调(持有引擎锁)
+     * @param gen 本次启动的代数, 计划回调时传入
+     */
+    protected abstract fun onStart(gen: Long)
+
+    /**
+     * 收到合成指令(持有引擎锁, 引擎运行中)
+     * @return 指令返回值
+     */
+    protected abstract fun onSynthesis(gen: Long): Int
+
+    @Synchronized
+    private fun start(): Int {
+        if (!isInitialized || isDestroyed || isRunning) {
+            return FakeSynthesisBackend.ERR_FAKE_INVALID_STATE
+        }
+        isRunning = true
+        onStart(generation.get())
+        return SpeechEngineDefines.ERR_NO_ERROR
+    }
+
+    @Synchronized
+    private fun synthesis(): Int {
+        if (!isRunning) {
+            return FakeSynthesisBackend.ERR_FAKE_INVALID_STATE
+        }
+        return onSynthesis(generation.get())
+    }
+
+    /**
+     * 停止引擎, 作废尚未发出的回调; 引擎运行中时发出ENGINE_STOP
+     * @param isSync 是否等待正在发出的回调结束后再返回(SYNC_STOP语义)
+     */
+    private fun stop(isSync: Boolean): Int {
+        val wasRunning: Boolean
+        synchronized(this) {
+            if (isDestroyed) {
+                return FakeSynthesisBackend.ERR_FAKE_INVALID_STATE
+            }
+            generation.incrementAndGet()
+            wasRunning = isRunning
+            isRunning = false
+        }
+        if (!isSync) {
+            if (wasRunning) {
+                callbackExecutor.execute { emit(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP, null) }
+            }
+            return SpeechEngineDefines.ERR_NO_ERROR
+        }
+        // 在回调线程中调用时无需等待(等待自身会死锁)
+        if (Thread.currentThread() !== callbackThread) {
+            try {
+                callbackExecutor.submit {}.get()
+            } catch (e: Exception) {
+                return FakeSynthesisBackend.ERR_FAKE_INVALID_STATE
+            }
+        }
+        if (wasRunning) {
+            emit(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP, null)
+        }
+        return SpeechEngineDefines.ERR_NO_ERROR
+    }
+
+    /**
+     * 合成以错误或引擎自行停止结束
+     * @return 该次启动仍有效(未被停止)
+     */
+    @Synchronized
+    protected fun finish(gen: Long): Boolean {
+        if (generation.get() != gen) {
+            return false
+        }
+        isRunning = false
+        return true
+    }
+
+    /**
+     * 计划在回调线程中执行, 执行时代数已变化(引擎已停止或销毁)则跳过
+     */
+    protected fun schedule(gen: Long, delay: Long, unit: TimeUnit = TimeUnit.MILLISECONDS, action: () -> Unit) {
+        callbackExecutor.schedule({
+            callbackThread = Thread.currentThread()
+            if (generation.get() == gen) {
+                action()
+            }
+        }, delay, unit)
+    }
+
+    protected fun emit(type: Int, data: ByteArray?) {
+        listener?.onSpeechMessage(type, data, data?.size ?: 0)
+    }
+}
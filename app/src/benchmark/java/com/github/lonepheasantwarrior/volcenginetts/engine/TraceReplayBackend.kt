@@ -0,0 +1,51 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * 回调轨迹回放后端
+ * 按捕获模式录制的[CallbackTrace]重现SDK回调, 不访问网络: 每次启动引擎依次取用下一条轨迹(循环使用),
+ * 以原始或缩放后的时序发出其中的全部回调; 音频回调输出与录制长度相同的静音PCM, 控制类消息使用录制的原文.
+ * 轨迹时序已包含合成指令的往返耗时, SYNTHESIS指令仅返回成功; SYNC_STOP与STOP使尚未发出的回调作废
+ * @param traces 回放的轨迹
+ * @param timeScale 时间缩放系数, 1为原始时序, 0.5为两倍速, 0为不等待(仅保持回调顺序)
+ */
+class TraceReplayBackend(
+    private val traces: List<CallbackTrace>,
+    private val timeScale: Double = 1.0
+) : SynthesisBackend {
+    private val nextTrace = AtomicInteger()
+
+    init {
+        require(traces.isNotEmpty()) { "回放轨迹为空" }
+        require(timeScale >= 0) { "时间缩放系数不能为负数: $timeScale" }
+    }
+
+    override fun createEngine(): BackendEngine = ReplayEngine()
+
+    /**
+     * 已启动的引擎次数(即已取用的轨迹数)
+     */
+    val startCount: Int get() = nextTrace.get()
+
+    private inner class ReplayEngine : ScheduledBackendEngine("TraceReplayBackend-engine") {
+        override val version: String = "replay-1.0"
+
+        override fun onStart(gen: Long) {
+            val trace = traces[Math.floorMod(nextTrace.getAndIncrement(), traces.size)]
+            for (event in trace.events) {
+                schedule(gen, (event.offsetMicros * timeScale).toLong(), TimeUnit.MICROSECONDS) {
+                    val isTerminal = event.type == SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP ||
+                            event.type == SpeechEngineDefines.MESSAGE_TYPE_ENGINE_ERROR
+                    if (!isTerminal || finish(gen)) {
+                        emit(event.type, event.payload ?: ByteArray(event.length))
+                    }
+                }
+            }
+        }
+
+        override fun onSynthesis(gen: Long): Int = SpeechEngineDefines.ERR_NO_ERROR
+    }
+}
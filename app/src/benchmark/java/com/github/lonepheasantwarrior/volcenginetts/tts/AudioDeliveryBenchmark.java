@@ -0,0 +1,127 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.speech.tts.SynthesisCallback;
+import android.speech.tts.TextToSpeech;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 音频输出基准测试
+ * 每次操作模拟一个片段的完整音频路径: 引擎回调写入音频通道 -> 合成线程取出 -> 按最大缓冲区大小提供给系统回调;
+ * 参数为引擎单次回调的数据大小与系统回调允许的最大缓冲区大小
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioDeliveryBenchmark {
+    // 3秒 24000Hz 16位单声道PCM, 约为一个短句的音频长度
+    private static final int SEGMENT_BYTES = 24000 * 2 * 3;
+    // 同 R.integer.tts_audio_chunk_size 与 R.integer.tts_audio_pool_max_chunks
+    private static final int POOL_CHUNK_SIZE = 8192;
+    private static final int POOL_MAX_CHUNKS = 256;
+
+    @Param({"4800", "9600"})
+    public int callbackBytes;
+
+    @Param({"4096", "16384"})
+    public int maxBufferSize;
+
+    private AudioBufferPool bufferPool;
+    private byte[] payload;
+    private int channelCapacity;
+    private BlackholeCallback callback;
+
+    @Setup
+    public void setUp() {
+        bufferPool = new AudioBufferPool(POOL_CHUNK_SIZE, POOL_MAX_CHUNKS);
+        payload = new byte[callbackBytes];
+        int callbacks = (SEGMENT_BYTES + callbackBytes - 1) / callbackBytes;
+        int chunksPerCallback = (callbackBytes + POOL_CHUNK_SIZE - 1) / POOL_CHUNK_SIZE;
+        // 单线程先写后读, 通道须能容纳整个片段
+        channelCapacity = callbacks * chunksPerCallback;
+        callback = new BlackholeCallback(maxBufferSize);
+    }
+
+    @Benchmark
+    public void deliverSegment(Blackhole blackhole) throws InterruptedException {
+        callback.blackhole = blackhole;
+        AudioChannel channel = new AudioChannel(bufferPool, channelCapacity, AudioChannel.OverflowPolicy.BLOCK);
+        for (int produced = 0; produced < SEGMENT_BYTES; produced += payload.length) {
+            channel.onAudio(payload);
+        }
+        channel.onFinished(false, "");
+        channel.drainTo(chunk -> TTSService.deliverAudio(callback, chunk));
+    }
+
+    /**
+     * 将音频数据交给 Blackhole 的系统回调
+     */
+    private static final class BlackholeCallback implements SynthesisCallback {
+        private final int maxBufferSize;
+        private Blackhole blackhole;
+
+        BlackholeCallback(int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+        }
+
+        @Override
+        public int getMaxBufferSize() {
+            return maxBufferSize;
+        }
+
+        @Override
+        public int start(int sampleRateInHz, int audioFormat, int channelCount) {
+            return TextToSpeech.SUCCESS;
+        }
+
+        @Override
+        public int audioAvailable(byte[] buffer, int offset, int length) {
+            blackhole.consume(buffer);
+            blackhole.consume(length);
+            return TextToSpeech.SUCCESS;
+        }
+
+        @Override
+        public int done() {
+            return TextToSpeech.SUCCESS;
+        }
+
+        @Override
+        public void error() {
+        }
+
+        @Override
+        public void error(int errorCode) {
+        }
+
+        @Override
+        public boolean hasStarted() {
+            return true;
+        }
+
+        @Override
+        public boolean hasFinished() {
+            return false;
+        }
+
+        @Override
+        public void rangeStart(int markerInFrames, int start, int end) {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * 基准测试语料(src/benchmark/resources/corpus)
+ */
+public enum BenchmarkCorpus {
+    /**
+     * 中文小说(长段落、对白、全角标点)
+     */
+    ZH_NOVEL("zh_novel.txt", Locale.CHINA),
+    /**
+     * 英文新闻(半角标点、数字、引号)
+     */
+    EN_NEWS("en_news.txt", Locale.US),
+    /**
+     * 日文散文(假名与汉字混排)
+     */
+    JA("ja.txt", Locale.JAPAN),
+    /**
+     * 泰文(无空格分词)
+     */
+    TH("th.txt", new Locale("th", "TH")),
+    /**
+     * 含大量表情符号的聊天记录(代理对、零宽连接符组合)
+     */
+    EMOJI_CHAT("emoji_chat.txt", Locale.CHINA);
+
+    private final String fileName;
+    private final Locale locale;
+
+    BenchmarkCorpus(String fileName, Locale locale) {
+        this.fileName = fileName;
+        this.locale = locale;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * 读取语料全文
+     */
+    public String load() {
+        try (InputStream input = BenchmarkCorpus.class.getResourceAsStream("/corpus/" + fileName)) {
+            if (input == null) {
+                throw new IllegalStateException("语料不存在: " + fileName);
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            input.transferTo(output);
+            return output.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.os.Bundle;
+import android.speech.tts.SynthesisRequest;
+
+import java.util.Locale;
+
+/**
+ * 直接返回给定文本与参数的合成请求
+ * 本地单元测试环境中框架类的方法只返回默认值, 须覆盖服务读取的全部访问方法
+ */
+final class FakeSynthesisRequest extends SynthesisRequest {
+    private final String text;
+    private final Locale locale;
+    private final String voiceName;
+
+    FakeSynthesisRequest(String text, Locale locale) {
+        this(text, locale, null);
+    }
+
+    FakeSynthesisRequest(String text, Locale locale, String voiceName) {
+        super(text, new Bundle());
+        this.text = text;
+        this.locale = locale;
+        this.voiceName = voiceName;
+    }
+
+    @Override
+    public CharSequence getCharSequenceText() {
+        return text;
+    }
+
+    @Override
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String getVoiceName() {
+        return voiceName;
+    }
+
+    @Override
+    public String getLanguage() {
+        return locale.getLanguage();
+    }
+
+    @Override
+    public String getCountry() {
+        return locale.getCountry();
+    }
+
+    @Override
+    public String getVariant() {
+        return locale.getVariant();
+    }
+
+    @Override
+    public int getSpeechRate() {
+        return 100;
+    }
+
+    @Override
+    public int getPitch() {
+        return 100;
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.SharedPreferences;
+import android.speech.tts.SynthesisCallback;
+import android.speech.tts.SynthesisRequest;
+
+import com.github.lonepheasantwarrior.volcenginetts.TTSApplication;
+import com.github.lonepheasantwarrior.volcenginetts.common.TtsConfig;
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend;
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisBackend;
+import com.github.lonepheasantwarrior.volcenginetts.function.SettingsFunction;
+
+import java.io.File;
+
+/**
+ * 以模拟后端运行的系统TTS服务
+ * 使用{@link FakeSynthesisBackend}、内存中的设置与给定的缓存目录创建应用组件并绑定到服务,
+ * 合成请求经过与设备上相同的会话、引擎池、分段与音频通道路径, 不依赖设备、网络与凭证
+ */
+final class FakeTtsService {
+    /**
+     * 设置中使用的音色
+     */
+    static final String SPEAKER_ID = "zh_female_shuangkuaisisi_moon_bigtts";
+
+    private final TTSApplication application = new TTSApplication();
+    private final TTSService service = new TTSService();
+
+    /**
+     * @param backendConfig 模拟后端参数
+     * @param ttsConfig     合成配置
+     * @param cacheRoot     音频磁盘缓存所在目录
+     */
+    FakeTtsService(FakeSynthesisBackend.Config backendConfig, TtsConfig ttsConfig, File cacheRoot) {
+        this(new FakeSynthesisBackend(backendConfig), ttsConfig, cacheRoot);
+    }
+
+    /**
+     * @param backend   合成后端(通常为包装了{@link FakeSynthesisBackend}的统计或检查后端)
+     * @param ttsConfig 合成配置
+     * @param cacheRoot 音频磁盘缓存所在目录
+     */
+    FakeTtsService(SynthesisBackend backend, TtsConfig ttsConfig, File cacheRoot) {
+        SettingsFunction settingsFunction = new SettingsFunction(new PreferencesContext(new InMemorySharedPreferences()));
+        settingsFunction.saveSettings("fake-app-id", "fake-token", SPEAKER_ID, "volcano_tts", false);
+        application.initComponents(ttsConfig, backend, settingsFunction, cacheRoot);
+        service.attach(application);
+    }
+
+    /**
+     * 与 res/values 中相同的合成配置, 但不写入音频缓存(每次请求都经过引擎)
+     */
+    static TtsConfig defaultConfig() {
+        return defaultConfig(2);
+    }
+
+    /**
+     * @param maxParallelSegments 长文本最大并行合成片段数, 1 表示使用连续合成
+     */
+    static TtsConfig defaultConfig(int maxParallelSegments) {
+        return new TtsConfig(24000, "ws://localhost", "/fake", "LATENCY",
+                maxParallelSegments, Math.max(1, maxParallelSegments - 1), 2048 * 1024L, 8192, 64, "BLOCK", 256,
+                0, 0, 0, 0,
+                10_000, 10_000, 30_000, 500, 500, false);
+    }
+
+    /**
+     * 同步执行合成请求(系统框架在合成线程中调用)
+     */
+    void synthesize(SynthesisRequest request, SynthesisCallback callback) {
+        service.onSynthesizeText(request, callback);
+    }
+
+    /**
+     * 停止当前合成请求(系统框架在Binder线程中调用)
+     */
+    void stop() {
+        service.onStop();
+    }
+
+    TTSApplication getApplication() {
+        return application;
+    }
+
+    /**
+     * 仅提供SharedPreferences的Context
+     */
+    private static final class PreferencesContext extends ContextWrapper {
+        private final SharedPreferences preferences;
+
+        PreferencesContext(SharedPreferences preferences) {
+            super(null);
+            this.preferences = preferences;
+        }
+
+        @Override
+        public SharedPreferences getSharedPreferences(String name, int mode) {
+            return preferences;
+        }
+
+        @Override
+        public Context getApplicationContext() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * 首包音频延迟测试工具
+ * 以模拟后端驱动{@link TTSService#onSynthesizeText}, 对短、中、长文本分别统计首包音频耗时(TTFA)、实时率(RTF)、
+ * 相邻音频输出的最大间隔、按实时播放计算的欠载时长与总耗时, 以JSON输出各项的 p50/p95/p99.
+ * <p>
+ * 模拟后端时序: 启动引擎耗时1个RTT; 首个音频分块再经过1个RTT与该分块的合成时间; 其后每个分块间隔其合成时间.
+ * 参数(--名称=值): rtt-ms, ms-per-char, chunk-size, bytes-per-char, jitter-ms, failure-rate, seed,
+ * iterations, warmup, parallel-segments, max-buffer-size, out(输出文件, 缺省时输出到标准输出)
+ */
+public final class LatencyHarness {
+    /**
+     * 测试文本长度
+     */
+    enum TextSize {
+        SHORT(12),
+        MEDIUM(60),
+        LONG(400);
+
+        final int length;
+
+        TextSize(int length) {
+            this.length = length;
+        }
+    }
+
+    /**
+     * 测试参数
+     */
+    static final class Options {
+        long rttMillis = 80;
+        double msPerChar = 20;
+        int chunkSize = 4800;
+        int bytesPerChar = 9600;
+        long jitterMillis = 10;
+        double failureRate = 0;
+        long seed = 1;
+        int iterations = 30;
+        int warmup = 3;
+        int parallelSegments = 2;
+        int maxBufferSize = 8192;
+        String out = null;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("参数格式应为 --名称=值: " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name) {
+                    case "rtt-ms" -> options.rttMillis = Long.parseLong(value);
+                    case "ms-per-char" -> options.msPerChar = Double.parseDouble(value);
+                    case "chunk-size" -> options.chunkSize = Integer.parseInt(value);
+                    case "bytes-per-char" -> options.bytesPerChar = Integer.parseInt(value);
+                    case "jitter-ms" -> options.jitterMillis = Long.parseLong(value);
+                    case "failure-rate" -> options.failureRate = Double.parseDouble(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "iterations" -> options.iterations = Integer.parseInt(value);
+                    case "warmup" -> options.warmup = Integer.parseInt(value);
+                    case "parallel-segments" -> options.parallelSegments = Integer.parseInt(value);
+                    case "max-buffer-size" -> options.maxBufferSize = Integer.parseInt(value);
+                    case "out" -> options.out = value;
+                    default -> throw new IllegalArgumentException("未知参数: " + name);
+                }
+            }
+            return options;
+        }
+
+        /**
+         * 按RTT与合成速度换算的模拟后端参数
+         */
+        FakeSynthesisBackend.Config toBackendConfig() {
+            long chunkMillis = Math.round(msPerChar * chunkSize / bytesPerChar);
+            return new FakeSynthesisBackend.Config(24000, rttMillis, rttMillis + chunkMillis, chunkMillis,
+                    jitterMillis, chunkSize, bytesPerChar, failureRate, seed, false);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"rttMillis\":%d,\"msPerChar\":%.3f,\"chunkSize\":%d,"
+                            + "\"bytesPerChar\":%d,\"jitterMillis\":%d,\"failureRate\":%.3f,\"seed\":%d,"
+                            + "\"iterations\":%d,\"warmup\":%d,\"parallelSegments\":%d,\"maxBufferSize\":%d}",
+                    rttMillis, msPerChar, chunkSize, bytesPerChar, jitterMillis, failureRate, seed,
+                    iterations, warmup, parallelSegments, maxBufferSize);
+        }
+    }
+
+    /**
+     * 单个文本长度的测试结果, 时间单位均为毫秒
+     */
+    static final class Result {
+        final TextSize size;
+        final int errors;
+        final Percentiles ttfaMillis;
+        final Percentiles realTimeFactor;
+        final Percentiles maxGapMillis;
+        final Percentiles underrunMillis;
+        final Percentiles totalMillis;
+
+        Result(TextSize size, int errors, Percentiles ttfaMillis, Percentiles realTimeFactor,
+               Percentiles maxGapMillis, Percentiles underrunMillis, Percentiles totalMillis) {
+            this.size = size;
+            this.errors = errors;
+            this.ttfaMillis = ttfaMillis;
+            this.realTimeFactor = realTimeFactor;
+            this.maxGapMillis = maxGapMillis;
+            this.underrunMillis = underrunMillis;
+            this.totalMillis = totalMillis;
+        }
+
+        String toJson() {
+            return "{\"name\":\"" + size.name().toLowerCase(Locale.ROOT) + "\",\"textLength\":" + size.length
+                    + ",\"errors\":" + errors
+                    + ",\"ttfaMillis\":" + ttfaMillis.toJson()
+                    + ",\"realTimeFactor\":" + realTimeFactor.toJson()
+                    + ",\"maxGapMillis\":" + maxGapMillis.toJson()
+                    + ",\"underrunMillis\":" + underrunMillis.toJson()
+                    + ",\"totalMillis\":" + totalMillis.toJson() + "}";
+        }
+    }
+
+    private LatencyHarness() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = Options.parse(args);
+        String json = run(options);
+        if (options.out == null) {
+            System.out.println(json);
+        } else {
+            Path out = Path.of(options.out);
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, json, StandardCharsets.UTF_8);
+            System.out.println("结果已写入 " + out.toAbsolutePath());
+        }
+    }
+
+    /**
+     * 执行全部文本长度的测试
+     *
+     * @return JSON格式的参数与结果
+     */
+    static String run(Options options) throws IOException {
+        Path cacheRoot = Files.createTempDirectory("latency-harness");
+        try {
+            FakeTtsService service = new FakeTtsService(options.toBackendConfig(),
+                    FakeTtsService.defaultConfig(options.parallelSegments), cacheRoot.toFile());
+            String corpus = BenchmarkCorpus.ZH_NOVEL.load().replaceAll("\\s+", "");
+            StringBuilder json = new StringBuilder("{\"config\":").append(options.toJson()).append(",\"results\":[");
+            TextSize[] sizes = TextSize.values();
+            for (int i = 0; i < sizes.length; i++) {
+                String text = corpus.substring(0, Math.min(corpus.length(), sizes[i].length));
+                json.append(i == 0 ? "" : ",").append(measure(service, sizes[i], text, options).toJson());
+            }
+            return json.append("]}").toString();
+        } finally {
+            deleteRecursively(cacheRoot);
+        }
+    }
+
+    private static Result measure(FakeTtsService service, TextSize size, String text, Options options) {
+        for (int i = 0; i < options.warmup; i++) {
+            service.synthesize(new FakeSynthesisRequest(text, Locale.CHINA),
+                    new RecordingSynthesisCallback(options.maxBufferSize));
+        }
+        double[] ttfa = new double[options.iterations];
+        double[] rtf = new double[options.iterations];
+        double[] maxGap = new double[options.iterations];
+        double[] underrun = new double[options.iterations];
+        double[] total = new double[options.iterations];
+        int samples = 0;
+        int errors = 0;
+        for (int i = 0; i < options.iterations; i++) {
+            RecordingSynthesisCallback callback = new RecordingSynthesisCallback(options.maxBufferSize);
+            long startNanos = System.nanoTime();
+            service.synthesize(new FakeSynthesisRequest(text, Locale.CHINA), callback);
+            long endNanos = System.nanoTime();
+            if (!callback.isSucceeded() || callback.getDeliveries() == 0) {
+                errors++;
+                continue;
+            }
+            ttfa[samples] = millis(callback.getDeliveryNanos(0) - startNanos);
+            total[samples] = millis(endNanos - startNanos);
+            rtf[samples] = total[samples] / callback.getAudioMillis();
+            maxGap[samples] = maxGapMillis(callback);
+            underrun[samples] = underrunMillis(callback);
+            samples++;
+        }
+        return new Result(size, errors, new Percentiles(ttfa, samples), new Percentiles(rtf, samples),
+                new Percentiles(maxGap, samples), new Percentiles(underrun, samples), new Percentiles(total, samples));
+    }
+
+    /**
+     * 相邻两次音频输出的最大间隔, 反映片段衔接处的停顿
+     */
+    static double maxGapMillis(RecordingSynthesisCallback callback) {
+        long maxGap = 0;
+        for (int i = 1; i < callback.getDeliveries(); i++) {
+            maxGap = Math.max(maxGap, callback.getDeliveryNanos(i) - callback.getDeliveryNanos(i - 1));
+        }
+        return millis(maxGap);
+    }
+
+    /**
+     * 从首包音频开始按实时速度播放时, 因音频尚未送达而停顿的总时长
+     */
+    static double underrunMillis(RecordingSynthesisCallback callback) {
+        double bytesPerNano = callback.getSampleRate() * 2 / 1e9;
+        double playhead = callback.getDeliveryNanos(0);
+        double underrun = 0;
+        for (int i = 0; i < callback.getDeliveries(); i++) {
+            long deliveredAt = callback.getDeliveryNanos(i);
+            if (deliveredAt > playhead) {
+                underrun += deliveredAt - playhead;
+                playhead = deliveredAt;
+            }
+            playhead += callback.getDeliveryBytes(i) / bytesPerNano;
+        }
+        return underrun / 1e6;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 语言解析基准测试
+ * 系统框架在每次合成请求前都会查询语言支持情况, 应用设置页与示例文本查询同样按语言查表;
+ * 参数同时覆盖框架传入的ISO3代码、两字母代码与不受支持的语言
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocaleResolutionBenchmark {
+    @Param({"zho-CHN", "zh-CN", "eng-USA", "en-GB", "jpn-JPN", "tha-THA", "por-BRA", "xx-YY"})
+    public String language;
+
+    private String lang;
+    private String country;
+    private Locale locale;
+    // 本地单元测试环境中资源读取返回默认值, 示例文本基准只计入语言查表本身
+    private final Context context = new ContextWrapper(null);
+
+    @Setup
+    public void setUp() {
+        String[] parts = language.split("-");
+        lang = parts[0];
+        country = parts[1];
+        locale = new Locale(lang, country);
+    }
+
+    @Benchmark
+    public int isLanguageAvailable() {
+        return TTSService.getIsLanguageAvailable(lang, country, "");
+    }
+
+    @Benchmark
+    public String defaultVoiceName() {
+        return LanguageIndex.resolveSupportedLanguage(lang, country);
+    }
+
+    @Benchmark
+    public String sampleText() {
+        return TtsVoiceSample.getByLocate(context, locale);
+    }
+}
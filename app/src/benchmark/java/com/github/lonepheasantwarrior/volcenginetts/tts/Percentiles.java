@@ -0,0 +1,53 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 样本分布统计(最近秩法百分位)
+ */
+final class Percentiles {
+    private final double[] sorted;
+
+    Percentiles(double[] samples, int count) {
+        sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+    }
+
+    int getCount() {
+        return sorted.length;
+    }
+
+    /**
+     * @param percentile 百分位(0, 100]
+     * @return 对应样本值; 没有样本时返回0
+     */
+    double get(double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+    }
+
+    double getMean() {
+        double sum = 0;
+        for (double value : sorted) {
+            sum += value;
+        }
+        return sorted.length == 0 ? 0 : sum / sorted.length;
+    }
+
+    double getMax() {
+        return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+    }
+
+    /**
+     * 输出为JSON对象: count、mean、p50、p95、p99、max
+     */
+    String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"count\":%d,\"mean\":%.3f,\"p50\":%.3f,\"p95\":%.3f,\"p99\":%.3f,\"max\":%.3f}",
+                getCount(), getMean(), get(50), get(95), get(99), getMax());
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.speech.tts.SynthesisCallback;
+import android.speech.tts.TextToSpeech;
+
+import java.util.Arrays;
+
+/**
+ * 记录音频输出时间线的系统合成回调
+ * 时间均为{@link System#nanoTime()}, 由合成线程单线程写入, 请求结束后读取
+ */
+class RecordingSynthesisCallback implements SynthesisCallback {
+    private final int maxBufferSize;
+    private long[] deliveryNanos = new long[64];
+    private int[] deliveryBytes = new int[64];
+    private int deliveries = 0;
+    private long totalBytes = 0;
+    private int sampleRate = 0;
+    private boolean started = false;
+    private boolean finished = false;
+    private int errorCode = TextToSpeech.SUCCESS;
+
+    /**
+     * @param maxBufferSize 单次提供音频的最大字节数(设备上通常为8192)
+     */
+    RecordingSynthesisCallback(int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    @Override
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    @Override
+    public int start(int sampleRateInHz, int audioFormat, int channelCount) {
+        sampleRate = sampleRateInHz;
+        started = true;
+        return TextToSpeech.SUCCESS;
+    }
+
+    @Override
+    public int audioAvailable(byte[] buffer, int offset, int length) {
+        if (deliveries == deliveryNanos.length) {
+            deliveryNanos = Arrays.copyOf(deliveryNanos, deliveries * 2);
+            deliveryBytes = Arrays.copyOf(deliveryBytes, deliveries * 2);
+        }
+        deliveryNanos[deliveries] = System.nanoTime();
+        deliveryBytes[deliveries] = length;
+        deliveries++;
+        totalBytes += length;
+        return TextToSpeech.SUCCESS;
+    }
+
+    @Override
+    public int done() {
+        finished = true;
+        return TextToSpeech.SUCCESS;
+    }
+
+    @Override
+    public void error() {
+        error(TextToSpeech.ERROR);
+    }
+
+    @Override
+    public void error(int errorCode) {
+        this.errorCode = errorCode;
+        finished = true;
+    }
+
+    @Override
+    public boolean hasStarted() {
+        return started;
+    }
+
+    @Override
+    public boolean hasFinished() {
+        return finished;
+    }
+
+    @Override
+    public void rangeStart(int markerInFrames, int start, int end) {
+    }
+
+    int getDeliveries() {
+        return deliveries;
+    }
+
+    long getDeliveryNanos(int index) {
+        return deliveryNanos[index];
+    }
+
+    int getDeliveryBytes(int index) {
+        return deliveryBytes[index];
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    int getSampleRate() {
+        return sampleRate;
+    }
+
+    boolean isSucceeded() {
+        return finished && errorCode == TextToSpeech.SUCCESS;
+    }
+
+    int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * 已输出音频的播放时长(16位单声道PCM)
+     */
+    double getAudioMillis() {
+        return sampleRate == 0 ? 0 : totalBytes * 1000.0 / (sampleRate * 2L);
+    }
+}
@@ -0,0 +1,551 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import com.github.lonepheasantwarrior.volcenginetts.TTSApplication;
+import com.github.lonepheasantwarrior.volcenginetts.common.TtsConfig;
+import com.github.lonepheasantwarrior.volcenginetts.engine.BackendEngine;
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend;
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisBackend;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读屏压力测试
+ * 模拟TalkBack滑动浏览时的请求风暴: 按随机生成或录制的事件序列, 以系统TTS框架的调用方式交替执行
+ * {@link TTSService#onSynthesizeText}与{@link TTSService#onStop}(合成请求在单一合成线程中依次执行,
+ * 新请求以QUEUE_FLUSH方式清空等待队列并停止当前请求). 每个请求的文本以独有的标记字符改写,
+ * 模拟后端输出带水印的音频, 据此检查音频是否流入其他请求.
+ * <p>
+ * 检查项: 合成线程在时限内结束(无死锁)、无串流音频、未被中断的请求音频完整、数据块与引擎数量有界;
+ * 同时统计停止至下一段音频的延迟分布, 以JSON输出.
+ * 参数(--名称=值): trace(录制的事件序列名称, 见 src/benchmark/resources/storm), events(随机事件数), seed,
+ * speed(回放倍速), rtt-ms, ms-per-char, jitter-ms, parallel-segments, timeout-ms, out(输出文件)
+ */
+public final class ScreenReaderStorm {
+    // 请求标记字符从该码位起按请求序号递增
+    private static final char FIRST_MARK = '一';
+    private static final int MARK_COUNT = 0x4000;
+
+    /**
+     * 测试参数
+     */
+    static final class Options {
+        String trace = null;
+        int events = 200;
+        long seed = 1;
+        double speed = 1;
+        long rttMillis = 80;
+        double msPerChar = 20;
+        long jitterMillis = 10;
+        int parallelSegments = 2;
+        long timeoutMillis = 30_000;
+        int maxBufferSize = 8192;
+        String out = null;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("参数格式应为 --名称=值: " + arg);
+                }
+                String name = arg.substring(2, arg.indexOf('='));
+                String value = arg.substring(arg.indexOf('=') + 1);
+                switch (name) {
+                    case "trace" -> options.trace = value;
+                    case "events" -> options.events = Integer.parseInt(value);
+                    case "seed" -> options.seed = Long.parseLong(value);
+                    case "speed" -> options.speed = Double.parseDouble(value);
+                    case "rtt-ms" -> options.rttMillis = Long.parseLong(value);
+                    case "ms-per-char" -> options.msPerChar = Double.parseDouble(value);
+                    case "jitter-ms" -> options.jitterMillis = Long.parseLong(value);
+                    case "parallel-segments" -> options.parallelSegments = Integer.parseInt(value);
+                    case "timeout-ms" -> options.timeoutMillis = Long.parseLong(value);
+                    case "out" -> options.out = value;
+                    default -> throw new IllegalArgumentException("未知参数: " + name);
+                }
+            }
+            return options;
+        }
+
+        /**
+         * 带水印的模拟后端参数, RTT与合成速度的换算同{@link LatencyHarness}
+         */
+        FakeSynthesisBackend.Config toBackendConfig() {
+            int chunkSize = 4800;
+            int bytesPerChar = 9600;
+            long chunkMillis = Math.round(msPerChar * chunkSize / bytesPerChar);
+            return new FakeSynthesisBackend.Config(24000, rttMillis, rttMillis + chunkMillis, chunkMillis,
+                    jitterMillis, chunkSize, bytesPerChar, 0, seed, true);
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"trace\":%s,\"events\":%d,\"seed\":%d,\"speed\":%.2f,"
+                            + "\"rttMillis\":%d,\"msPerChar\":%.3f,\"jitterMillis\":%d,\"parallelSegments\":%d,"
+                            + "\"timeoutMillis\":%d}",
+                    trace == null ? "null" : "\"" + trace + "\"", events, seed, speed,
+                    rttMillis, msPerChar, jitterMillis, parallelSegments, timeoutMillis);
+        }
+    }
+
+    /**
+     * 读屏事件: 朗读文本(以QUEUE_FLUSH方式)或停止
+     */
+    static final class Event {
+        final long atMillis;
+        final String text;
+
+        /**
+         * @param atMillis 相对序列开始的时间
+         * @param text     朗读文本, 为null表示停止
+         */
+        Event(long atMillis, String text) {
+            this.atMillis = atMillis;
+            this.text = text;
+        }
+
+        boolean isStop() {
+            return text == null;
+        }
+    }
+
+    /**
+     * 测试结果
+     */
+    static final class Result {
+        boolean deadlocked;
+        String threadDump = "";
+        int requests;
+        int dropped;
+        int interrupted;
+        int completed;
+        int errors;
+        int incomplete;
+        int overrun;
+        int unfinished;
+        long foreignBytes;
+        long lateBytes;
+        double maxSynthesizeMillis;
+        Percentiles stopToNextAudioMillis;
+        long allocatedChunks;
+        int createdEngines;
+        int peakLiveEngines;
+        int watchedSessions;
+        boolean sessionLeft;
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"deadlocked\":%b,\"requests\":%d,\"dropped\":%d,\"interrupted\":%d,"
+                            + "\"completed\":%d,\"errors\":%d,\"incomplete\":%d,\"overrun\":%d,\"unfinished\":%d,"
+                            + "\"foreignBytes\":%d,\"lateBytes\":%d,\"maxSynthesizeMillis\":%.3f,"
+                            + "\"stopToNextAudioMillis\":%s,\"allocatedChunks\":%d,\"createdEngines\":%d,"
+                            + "\"peakLiveEngines\":%d,\"watchedSessions\":%d,\"sessionLeft\":%b}",
+                    deadlocked, requests, dropped, interrupted, completed, errors, incomplete, overrun, unfinished,
+                    foreignBytes, lateBytes, maxSynthesizeMillis, stopToNextAudioMillis.toJson(), allocatedChunks,
+                    createdEngines, peakLiveEngines, watchedSessions, sessionLeft);
+        }
+    }
+
+    private ScreenReaderStorm() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Options options = Options.parse(args);
+        List<Event> events = options.trace != null ? loadTrace(options.trace) : randomEvents(options.seed, options.events);
+        String json = "{\"config\":" + options.toJson() + ",\"result\":" + run(options, events).toJson() + "}";
+        if (options.out == null) {
+            System.out.println(json);
+        } else {
+            Path out = Path.of(options.out);
+            if (out.getParent() != null) {
+                Files.createDirectories(out.getParent());
+            }
+            Files.writeString(out, json, StandardCharsets.UTF_8);
+            System.out.println("结果已写入 " + out.toAbsolutePath());
+        }
+    }
+
+    /**
+     * 读取录制的事件序列(src/benchmark/resources/storm/名称.trace)
+     * 每行一个事件, 字段以制表符分隔: "毫秒 speak 文本" 或 "毫秒 stop"; 空行与#开头的行被忽略
+     */
+    static List<Event> loadTrace(String name) {
+        try (InputStream input = ScreenReaderStorm.class.getResourceAsStream("/storm/" + name + ".trace")) {
+            if (input == null) {
+                throw new IllegalStateException("事件序列不存在: " + name);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<Event> events = new ArrayList<>();
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", 3);
+                long atMillis = Long.parseLong(fields[0].trim());
+                switch (fields[1]) {
+                    case "speak" -> events.add(new Event(atMillis, fields[2]));
+                    case "stop" -> events.add(new Event(atMillis, null));
+                    default -> throw new IllegalArgumentException(name + "第" + lineNumber + "行: 未知事件 " + fields[1]);
+                }
+            }
+            return events;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 随机生成事件序列
+     * 连续滑动时事件间隔很短, 偶尔停下收听; 多数为短文本(控件描述), 少数为长文本(正文段落)
+     */
+    static List<Event> randomEvents(long seed, int count) {
+        Random random = new Random(seed);
+        String corpus = BenchmarkCorpus.ZH_NOVEL.load().replaceAll("\\s+", "");
+        List<Event> events = new ArrayList<>(count);
+        long atMillis = 0;
+        for (int i = 0; i < count; i++) {
+            atMillis += random.nextInt(100) < 75 ? random.nextInt(60) : 100 + random.nextInt(500);
+            if (random.nextInt(100) < 20) {
+                events.add(new Event(atMillis, null));
+                continue;
+            }
+            int length = random.nextInt(100) < 85 ? 2 + random.nextInt(30) : 100 + random.nextInt(200);
+            int start = random.nextInt(corpus.length() - length);
+            events.add(new Event(atMillis, corpus.substring(start, start + length)));
+        }
+        return events;
+    }
+
+    /**
+     * 以新建的模拟服务回放事件序列
+     */
+    static Result run(Options options, List<Event> events) throws IOException, InterruptedException {
+        Path cacheRoot = Files.createTempDirectory("screen-reader-storm");
+        try {
+            CountingBackend backend = new CountingBackend(new FakeSynthesisBackend(options.toBackendConfig()));
+            TtsConfig ttsConfig = FakeTtsService.defaultConfig(options.parallelSegments);
+            FakeTtsService service = new FakeTtsService(backend, ttsConfig, cacheRoot.toFile());
+            return new Driver(service, backend, ttsConfig, options).replay(events);
+        } finally {
+            LatencyHarness.deleteRecursively(cacheRoot);
+        }
+    }
+
+    /**
+     * 以请求序号对应的标记字符替换文本中的字母与数字并去除空白, 保留标点使分段结果与原文一致
+     */
+    static String stamp(String text, char mark) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                builder.append(mark);
+            } else if (!Character.isWhitespace(c) && !Character.isSurrogate(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 单个朗读请求
+     */
+    private static final class Request {
+        final String text;
+        final long expectedBytes;
+        final WatermarkCheckingCallback callback;
+        final long stopNanos;
+        Future<?> future;
+        volatile boolean interrupted = false;
+        volatile boolean started = false;
+        volatile long synthesizeNanos = 0;
+
+        /**
+         * @param stopNanos 发出本请求前为清空队列而停止当前请求的时间, 未停止时为0
+         */
+        Request(String text, long expectedBytes, WatermarkCheckingCallback callback, long stopNanos) {
+            this.text = text;
+            this.expectedBytes = expectedBytes;
+            this.callback = callback;
+            this.stopNanos = stopNanos;
+        }
+    }
+
+    /**
+     * 事件回放: 驱动线程按事件时间发出请求与停止, 合成线程依次执行请求
+     */
+    private static final class Driver {
+        private final FakeTtsService service;
+        private final CountingBackend backend;
+        private final Options options;
+        private final int bytesPerChar;
+        private final SegmentationPolicy segmentationPolicy;
+        private final List<Request> requests = new ArrayList<>();
+        // 已提交但尚未确认结束的请求, 仅由驱动线程访问
+        private final Deque<Request> queued = new ArrayDeque<>();
+        private final ExecutorService synthesisExecutor;
+        private volatile Thread synthesisThread;
+        private volatile Request active;
+
+        Driver(FakeTtsService service, CountingBackend backend, TtsConfig ttsConfig, Options options) {
+            this.service = service;
+            this.backend = backend;
+            this.options = options;
+            this.bytesPerChar = options.toBackendConfig().getBytesPerChar();
+            this.segmentationPolicy = SegmentationPolicy.of(ttsConfig.getSegmentationPolicy());
+            this.synthesisExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ScreenReaderStorm-synthesis");
+                thread.setDaemon(true);
+                synthesisThread = thread;
+                return thread;
+            });
+        }
+
+        Result replay(List<Event> events) throws InterruptedException {
+            long startNanos = System.nanoTime();
+            for (Event event : events) {
+                long waitNanos = startNanos + (long) (event.atMillis * 1e6 / options.speed) - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+                long stopNanos = flush();
+                if (!event.isStop()) {
+                    speak(event.text, stopNanos);
+                }
+            }
+            synthesisExecutor.shutdown();
+            boolean terminated = synthesisExecutor.awaitTermination(options.timeoutMillis, TimeUnit.MILLISECONDS);
+            String threadDump = terminated ? "" : dumpThreads();
+            if (!terminated) {
+                service.stop();
+                synthesisExecutor.shutdownNow();
+            }
+            return summarize(!terminated, threadDump);
+        }
+
+        /**
+         * QUEUE_FLUSH: 丢弃尚未开始的请求, 停止正在合成的请求
+         *
+         * @return 发出停止的时间, 没有正在合成的请求时为0
+         */
+        private long flush() {
+            for (Request request : queued) {
+                // 已开始执行的请求不受影响, 由下面的停止处理
+                request.future.cancel(false);
+            }
+            queued.clear();
+            Request current = active;
+            if (current == null) {
+                return 0;
+            }
+            current.interrupted = true;
+            long stopNanos = System.nanoTime();
+            service.stop();
+            return stopNanos;
+        }
+
+        private void speak(String source, long stopNanos) {
+            char mark = (char) (FIRST_MARK + requests.size() % MARK_COUNT);
+            String text = stamp(source, mark);
+            Request request = new Request(text, expectedBytes(text),
+                    new WatermarkCheckingCallback(options.maxBufferSize, mark), stopNanos);
+            requests.add(request);
+            queued.add(request);
+            request.future = synthesisExecutor.submit(() -> synthesize(request));
+        }
+
+        private void synthesize(Request request) {
+            request.started = true;
+            active = request;
+            long start = System.nanoTime();
+            try {
+                service.synthesize(new FakeSynthesisRequest(request.text, Locale.CHINA), request.callback);
+            } finally {
+                request.callback.close();
+                request.synthesizeNanos = System.nanoTime() - start;
+                active = null;
+            }
+        }
+
+        /**
+         * 完整合成该文本时模拟后端输出的音频字节数(长文本按服务使用的分段策略逐段计算)
+         */
+        private long expectedBytes(String text) {
+            if (text.isBlank()) {
+                return 0;
+            }
+            if (text.length() <= TextSegmenter.DEFAULT_MAX_LENGTH) {
+                return (long) text.length() * bytesPerChar;
+            }
+            long bytes = 0;
+            for (String segment : segmentationPolicy.segment(text, Locale.CHINA)) {
+                bytes += (long) segment.length() * bytesPerChar;
+            }
+            return bytes;
+        }
+
+        private Result summarize(boolean deadlocked, String threadDump) {
+            Result result = new Result();
+            result.deadlocked = deadlocked;
+            result.threadDump = threadDump;
+            result.requests = requests.size();
+            long maxSynthesizeNanos = 0;
+            for (Request request : requests) {
+                WatermarkCheckingCallback callback = request.callback;
+                result.foreignBytes += callback.getForeignBytes();
+                result.lateBytes += callback.getLateBytes();
+                maxSynthesizeNanos = Math.max(maxSynthesizeNanos, request.synthesizeNanos);
+                if (!request.started) {
+                    result.dropped++;
+                    continue;
+                }
+                if (!callback.hasFinished()) {
+                    result.unfinished++;
+                }
+                if (request.interrupted) {
+                    result.interrupted++;
+                    // 被打断的请求只有部分音频, 但不应多于完整合成的音频
+                    if (callback.getTotalBytes() > request.expectedBytes) {
+                        result.overrun++;
+                    }
+                    continue;
+                }
+                result.completed++;
+                if (!callback.isSucceeded()) {
+                    result.errors++;
+                } else if (callback.getTotalBytes() != request.expectedBytes) {
+                    result.incomplete++;
+                }
+            }
+            result.maxSynthesizeMillis = maxSynthesizeNanos / 1e6;
+            result.stopToNextAudioMillis = stopToNextAudio();
+            TTSApplication application = service.getApplication();
+            result.allocatedChunks = application.getAudioBufferPool().getAllocatedChunks();
+            result.watchedSessions = application.getSessionWatchdog().getWatchedCount();
+            result.sessionLeft = application.getTtsContext().currentSession.get() != null;
+            result.createdEngines = backend.created.get();
+            result.peakLiveEngines = backend.peakLive.get();
+            return result;
+        }
+
+        /**
+         * 打断当前请求至新请求开始输出音频的延迟(新请求在输出音频前又被打断的不计入)
+         */
+        private Percentiles stopToNextAudio() {
+            double[] samples = new double[requests.size()];
+            int count = 0;
+            for (Request request : requests) {
+                if (request.stopNanos > 0 && request.callback.getDeliveries() > 0) {
+                    samples[count++] = (request.callback.getDeliveryNanos(0) - request.stopNanos) / 1e6;
+                }
+            }
+            return new Percentiles(samples, count);
+        }
+
+        private String dumpThreads() {
+            StringBuilder dump = new StringBuilder();
+            for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+                dump.append('"').append(entry.getKey().getName()).append("\" ")
+                        .append(entry.getKey().getState()).append('\n');
+                for (StackTraceElement element : entry.getValue()) {
+                    dump.append("    at ").append(element).append('\n');
+                }
+            }
+            Thread thread = synthesisThread;
+            return "合成线程 " + (thread == null ? "未启动" : thread.getName()) + " 未在时限内结束\n" + dump;
+        }
+    }
+
+    /**
+     * 统计引擎创建与销毁数量的合成后端
+     */
+    static final class CountingBackend implements SynthesisBackend {
+        private final SynthesisBackend delegate;
+        final AtomicInteger created = new AtomicInteger();
+        final AtomicInteger live = new AtomicInteger();
+        final AtomicInteger peakLive = new AtomicInteger();
+
+        CountingBackend(SynthesisBackend delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public BackendEngine createEngine() {
+            created.incrementAndGet();
+            peakLive.accumulateAndGet(live.incrementAndGet(), Math::max);
+            return new CountingEngine(delegate.createEngine());
+        }
+
+        private final class CountingEngine implements BackendEngine {
+            private final BackendEngine engine;
+            private final AtomicBoolean destroyed = new AtomicBoolean(false);
+
+            CountingEngine(BackendEngine engine) {
+                this.engine = engine;
+            }
+
+            @Override
+            public String getVersion() {
+                return engine.getVersion();
+            }
+
+            @Override
+            public int initEngine() {
+                return engine.initEngine();
+            }
+
+            @Override
+            public void destroyEngine() {
+                if (destroyed.compareAndSet(false, true)) {
+                    live.decrementAndGet();
+                }
+                engine.destroyEngine();
+            }
+
+            @Override
+            public void setListener(Listener listener) {
+                engine.setListener(listener);
+            }
+
+            @Override
+            public int sendDirective(int directive, String params) {
+                return engine.sendDirective(directive, params);
+            }
+
+            @Override
+            public void setOptionString(String key, String value) {
+                engine.setOptionString(key, value);
+            }
+
+            @Override
+            public void setOptionInt(String key, int value) {
+                engine.setOptionInt(key, value);
+            }
+
+            @Override
+            public void setOptionBoolean(String key, boolean value) {
+                engine.setOptionBoolean(key, value);
+            }
+        }
+    }
+}
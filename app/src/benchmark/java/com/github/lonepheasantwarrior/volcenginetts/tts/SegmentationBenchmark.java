@@ -0,0 +1,59 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 长文本分段基准测试
+ * 对每种语料整篇分段, 对应系统TTS服务收到长文本后、启动引擎前的同步处理耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentationBenchmark {
+    @Param
+    public BenchmarkCorpus corpus;
+
+    @Param({"LATENCY", "PACKED"})
+    public String policy;
+
+    private SegmentationPolicy segmentationPolicy;
+    private String text;
+    private Locale locale;
+
+    @Setup
+    public void setUp() {
+        segmentationPolicy = SegmentationPolicy.of(policy);
+        text = corpus.load();
+        locale = corpus.getLocale();
+    }
+
+    @Benchmark
+    public List<String> segment() {
+        return segmentationPolicy.segment(text, locale);
+    }
+
+    /**
+     * 不经分段策略直接拆分(仅句子合并与超长句切分)
+     */
+    @Benchmark
+    public List<String> split() {
+        return new TextSegmenter(TextSegmenter.DEFAULT_MAX_LENGTH, locale).split(text);
+    }
+}
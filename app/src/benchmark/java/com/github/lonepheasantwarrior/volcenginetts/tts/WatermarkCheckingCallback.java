@@ -0,0 +1,66 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 检查音频归属的系统合成回调
+ * 配合启用水印的{@link FakeSynthesisBackend}使用: 本请求的音频样本值均为请求标记字符的编码,
+ * 标记不符的字节来自其他请求; 请求结束({@link #close()})后仍收到的音频同样视为串流
+ */
+final class WatermarkCheckingCallback extends RecordingSynthesisCallback {
+    private final char mark;
+    private final AtomicLong foreignBytes = new AtomicLong();
+    private final AtomicLong lateBytes = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * @param maxBufferSize 单次提供音频的最大字节数
+     * @param mark          本请求文本的标记字符
+     */
+    WatermarkCheckingCallback(int maxBufferSize, char mark) {
+        super(maxBufferSize);
+        this.mark = mark;
+    }
+
+    @Override
+    public synchronized int audioAvailable(byte[] buffer, int offset, int length) {
+        if (closed) {
+            lateBytes.addAndGet(length);
+            return super.audioAvailable(buffer, offset, length);
+        }
+        // 按在本请求音频流中的位置区分16位小端样本的低、高字节
+        long position = getTotalBytes();
+        long foreign = 0;
+        for (int i = 0; i < length; i++) {
+            byte expected = ((position + i) & 1) == 0 ? (byte) mark : (byte) (mark >> 8);
+            if (buffer[offset + i] != expected) {
+                foreign++;
+            }
+        }
+        foreignBytes.addAndGet(foreign);
+        return super.audioAvailable(buffer, offset, length);
+    }
+
+    /**
+     * 标记请求已结束(onSynthesizeText已返回)
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * 标记不符(来自其他请求)的音频字节数
+     */
+    long getForeignBytes() {
+        return foreignBytes.get();
+    }
+
+    /**
+     * 请求结束后收到的音频字节数
+     */
+    long getLateBytes() {
+        return lateBytes.get();
+    }
+}
@@ -61,9 +61,12 @@ import androidx.lifecycle.viewmodel.CreationExtras
 import androidx.lifecycle.viewmodel.compose.viewModel
 import com.github.lonepheasantwarrior.volcenginetts.common.Constants
 import com.github.lonepheasantwarrior.volcenginetts.common.LogTag
+import com.github.lonepheasantwarrior.volcenginetts.common.SettingsData
+import com.github.lonepheasantwarrior.volcenginetts.common.SpeakerCatalog
 import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisEngine
 import com.github.lonepheasantwarrior.volcenginetts.function.SettingsFunction
 import com.github.lonepheasantwarrior.volcenginetts.function.UpdateFunction
+import com.github.lonepheasantwarrior.volcenginetts.tts.SynthesisSession
 import com.github.lonepheasantwarrior.volcenginetts.tts.TtsVoiceSample
 import com.github.lonepheasantwarrior.volcenginetts.ui.UpdateDialog
 import com.github.lonepheasantwarrior.volcenginetts.ui.UpdateErrorDialog
@@ -127,11 +130,8 @@ class MainActivity : ComponentActivity() {
     }
 }
 
-// 数据类 - 表示声音信息
-data class SpeakerInfo(
-    val name: String,
-    val id: String
-)
+// 声音信息, 由构建时生成的声音目录提供
+typealias SpeakerInfo = SpeakerCatalog.Speaker
 
 // ViewModel 类 - 负责状态管理和业务逻辑
 class VolcengineTTSViewModel(application: Application) : AndroidViewModel(application) {
@@ -198,16 +198,9 @@ class VolcengineTTSViewModel(application: Application) : AndroidViewModel(applic
         return getApplication<Application>().resources.getStringArray(R.array.scene_categories)
     }
 
-    fun getSpeakerList(): Array<String> {
-        return getApplication<Application>().resources.getStringArray(R.array.speaker_list)
-    }
-
     // 业务逻辑
     fun filterSpeakersByScene(scene: String): List<SpeakerInfo> {
-        return getSpeakerList()
-            .map { it.split("|") }
-            .filter { it.size >= 3 && it[0] == scene } // 场景在索引0的位置
-            .map { SpeakerInfo(name = it[1], id = it[2]) }
+        return SpeakerCatalog.getByScene(scene)
     }
 
     /**
@@ -294,14 +287,11 @@ class VolcengineTTSViewModel(application: Application) : AndroidViewModel(applic
      * 根据声音ID查找声音名称
      */
     private fun findSpeakerNameById(speakerId: String) {
-        val speakerList = getSpeakerList()
-        val speakerInfo = speakerList
-            .map { it.split("|") }
-            .find { it.size >= 3 && it[2] == speakerId } // ID在索引2的位置
+        val speakerInfo = SpeakerCatalog.findById(speakerId)
 
         if (speakerInfo != null) {
-            selectedSpeakerName = speakerInfo[1] // 名称在索引1的位置
-            selectedScene = speakerInfo[0] // 场景在索引0的位置
+            selectedSpeakerName = speakerInfo.name
+            selectedScene = speakerInfo.scene
         }
     }
 
@@ -327,10 +317,10 @@ class VolcengineTTSViewModel(application: Application) : AndroidViewModel(applic
 
             // 使用SynthesisEngine播放示例文本
             synthesisEngine.create(
-                appId, token,
-                selectedSpeakerId, serviceCluster, isEmotional
+                SettingsData(appId, token, selectedSpeakerId, serviceCluster, isEmotional)
             )
-            synthesisEngine.startEngine(sampleText, null, null, null)
+            // 试听由内置播放器直接播放, 使用独立会话, 不与系统TTS请求共享音频通道
+            synthesisEngine.startEngine(sampleText, null, null, null, SynthesisSession().channel)
         } catch (e: Exception) {
             Log.e(LogTag.ERROR, "播放演示声音失败: ${e.message}")
             Toast.makeText(
@@ -2,18 +2,38 @@ package com.github.lonepheasantwarrior.volcenginetts
 
 import android.app.Application
 import android.util.Log
+import androidx.annotation.VisibleForTesting
 import com.bytedance.speech.speechengine.SpeechEngineGenerator
+import com.github.lonepheasantwarrior.volcenginetts.cache.DiskAudioCache
+import com.github.lonepheasantwarrior.volcenginetts.cache.MemoryAudioCache
 import com.github.lonepheasantwarrior.volcenginetts.common.LogTag
+import com.github.lonepheasantwarrior.volcenginetts.common.TtsConfig
+import com.github.lonepheasantwarrior.volcenginetts.engine.CallbackTraceWriter
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisBackend
 import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisEngine
 import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisEngineListener
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisEnginePool
+import com.github.lonepheasantwarrior.volcenginetts.engine.VolcengineBackend
 import com.github.lonepheasantwarrior.volcenginetts.function.SettingsFunction
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import com.github.lonepheasantwarrior.volcenginetts.tts.AudioBufferPool
+import com.github.lonepheasantwarrior.volcenginetts.tts.SessionWatchdog
 import com.github.lonepheasantwarrior.volcenginetts.tts.TTSContext
+import java.io.File
 
 class TTSApplication: Application() {
+    lateinit var ttsConfig: TtsConfig private set
+    lateinit var synthesisBackend: SynthesisBackend private set
     lateinit var synthesisEngine: SynthesisEngine private set
     lateinit var synthesisEngineListener: SynthesisEngineListener private set
+    lateinit var synthesisEnginePool: SynthesisEnginePool private set
     lateinit var settingsFunction: SettingsFunction private set
     lateinit var ttsContext: TTSContext private set
+    lateinit var audioBufferPool: AudioBufferPool private set
+    lateinit var audioCache: DiskAudioCache private set
+    lateinit var memoryAudioCache: MemoryAudioCache private set
+    lateinit var sessionWatchdog: SessionWatchdog private set
+    lateinit var pipelineMetrics: PipelineMetrics private set
 
     override fun onCreate() {
         super.onCreate()
@@ -22,9 +42,42 @@ class TTSApplication: Application() {
         SpeechEngineGenerator.PrepareEnvironment(applicationContext, this)
         Log.d(LogTag.SDK_INFO, "火山引擎语音合成环境初始化完成")
 
+        initComponents(TtsConfig.fromResources(resources), VolcengineBackend(), SettingsFunction(this), cacheDir)
+    }
+
+    /**
+     * 创建应用级组件
+     * 本地测试与基准工具可直接以模拟后端(src/benchmark中的FakeSynthesisBackend)、
+     * 内存中的设置与临时目录调用, 无需启动应用或初始化SDK环境
+     * @param cacheRoot 音频磁盘缓存(及捕获模式下回调轨迹)所在目录
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+    fun initComponents(
+        config: TtsConfig,
+        backend: SynthesisBackend,
+        settingsFunction: SettingsFunction,
+        cacheRoot: File
+    ) {
+        ttsConfig = config
+        synthesisBackend = backend
+        pipelineMetrics = PipelineMetrics()
+        synthesisEnginePool = SynthesisEnginePool(pipelineMetrics)
         synthesisEngine = SynthesisEngine(this)
-        synthesisEngineListener = SynthesisEngineListener(this)
-        settingsFunction = SettingsFunction(this)
+        synthesisEngineListener = SynthesisEngineListener(
+            this,
+            pipelineMetrics,
+            if (config.captureCallbackTraces) CallbackTraceWriter(File(cacheRoot, "callback_traces")) else null
+        )
+        this.settingsFunction = settingsFunction
         ttsContext = TTSContext()
+        audioBufferPool = AudioBufferPool(config.audioChunkSize, config.audioPoolMaxChunks)
+        audioCache = DiskAudioCache(File(cacheRoot, "synthesized_audio"), config.audioCacheMaxBytes)
+        memoryAudioCache = MemoryAudioCache(config.memoryCacheMaxBytes, config.memoryCacheMaxEntryBytes)
+        sessionWatchdog = SessionWatchdog(config.watchdogIntervalMillis)
+    }
+
+    override fun onTrimMemory(level: Int) {
+        super.onTrimMemory(level)
+        memoryAudioCache.onTrimMemory(level)
     }
 }
\ No newline at end of file
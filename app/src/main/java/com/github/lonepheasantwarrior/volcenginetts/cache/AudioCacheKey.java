@@ -0,0 +1,85 @@
+package com.github.lonepheasantwarrior.volcenginetts.cache;
+
+import android.util.Log;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+
+/**
+ * 合成音频缓存键
+ * 由规范化后的文本与全部影响合成结果的参数组成
+ */
+public final class AudioCacheKey {
+    private final String text;
+    private final String speakerId;
+    private final String serviceCluster;
+    private final boolean isEmotional;
+    private final int speechRate;
+    private final int pitch;
+    private final int sampleRate;
+
+    public AudioCacheKey(String text, String speakerId, String serviceCluster, boolean isEmotional,
+                         int speechRate, int pitch, int sampleRate) {
+        this.text = normalize(text);
+        this.speakerId = speakerId;
+        this.serviceCluster = serviceCluster;
+        this.isEmotional = isEmotional;
+        this.speechRate = speechRate;
+        this.pitch = pitch;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 规范化文本: 去除首尾空白并将连续空白合并为一个空格
+     */
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ");
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 缓存键摘要(SHA-256), 用作缓存文件名
+     */
+    public String digest() {
+        String canonical = text + '\u0000' + speakerId + '\u0000' + serviceCluster + '\u0000' + isEmotional
+                + '\u0000' + speechRate + '\u0000' + pitch + '\u0000' + sampleRate;
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] messageDigest = md.digest(canonical.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : messageDigest) {
+                String hex = Integer.toHexString(0xFF & b);
+                if (hex.length() == 1) {
+                    hexString.append('0');
+                }
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        } catch (NoSuchAlgorithmException e) {
+            Log.e(LogTag.ERROR, "SHA-256 algorithm not available", e);
+            return Integer.toHexString(canonical.hashCode());
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AudioCacheKey)) return false;
+        AudioCacheKey that = (AudioCacheKey) o;
+        return isEmotional == that.isEmotional && speechRate == that.speechRate && pitch == that.pitch
+                && sampleRate == that.sampleRate && text.equals(that.text)
+                && Objects.equals(speakerId, that.speakerId) && Objects.equals(serviceCluster, that.serviceCluster);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(text, speakerId, serviceCluster, isEmotional, speechRate, pitch, sampleRate);
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.lonepheasantwarrior.volcenginetts.cache;
+
+import android.util.Log;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 合成音频磁盘缓存
+ * 每个条目以PCM文件形式保存在应用存储中, 总大小超出预算时按最近最少使用(LRU)顺序淘汰;
+ * 条目的最近使用时间记录在文件修改时间中, 应用重启后仍可恢复LRU顺序;
+ * 合成线程通过{@link #putAsync}写入, 摘要计算、文件写入与淘汰在独立线程中执行;
+ * 锁只保护内存中的条目索引, 文件读写均在锁外进行, 读取缓存不会被进行中的写入阻塞
+ */
+public final class DiskAudioCache {
+    private static final String FILE_SUFFIX = ".pcm";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+    private final long maxBytes;
+    // 文件名 -> 文件大小, 按访问顺序排列
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "DiskAudioCache-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 创建后即在写入线程中扫描缓存目录, 不占用调用方线程
+     *
+     * @param directory 缓存目录
+     * @param maxBytes  缓存总大小上限(字节)
+     */
+    public DiskAudioCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        writeExecutor.execute(this::load);
+    }
+
+    /**
+     * 读取缓存的音频数据
+     * 缓存目录尚未扫描完毕时等待扫描结束
+     *
+     * @return PCM数据, 未命中返回null
+     */
+    public byte[] get(AudioCacheKey key) {
+        if (!awaitLoaded()) {
+            return null;
+        }
+        String name = key.digest() + FILE_SUFFIX;
+        synchronized (this) {
+            // 访问顺序的LinkedHashMap在get时即更新LRU顺序
+            if (entries.get(name) == null) {
+                return null;
+            }
+        }
+        File file = new File(directory, name);
+        try {
+            byte[] data = Files.readAllBytes(file.toPath());
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (IOException e) {
+            // 文件可能恰好被淘汰, 或已被外部清理
+            Log.w(LogTag.ERROR, "读取音频缓存失败: " + e.getMessage());
+            remove(name);
+            return null;
+        }
+    }
+
+    /**
+     * 在独立线程中异步写入音频数据, 调用方此后不得再修改{@code data}
+     */
+    public void putAsync(AudioCacheKey key, byte[] data, int length) {
+        writeExecutor.execute(() -> put(key, data, length));
+    }
+
+    /**
+     * 等待已提交的异步写入全部完成
+     */
+    public void flush() throws InterruptedException {
+        try {
+            writeExecutor.submit(() -> {
+            }).get();
+        } catch (ExecutionException e) {
+            Log.w(LogTag.ERROR, "等待音频缓存写入失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 写入音频数据
+     * 先写入临时文件再重命名, 避免进程中断时留下不完整的缓存条目
+     */
+    public void put(AudioCacheKey key, byte[] data, int length) {
+        if (length <= 0 || length > maxBytes || !awaitLoaded()) {
+            return;
+        }
+        String name = key.digest() + FILE_SUFFIX;
+        File file = new File(directory, name);
+        File temp = null;
+        try {
+            // 临时文件名各不相同, 并发写入同一条目时互不覆盖
+            temp = File.createTempFile(name, TEMP_SUFFIX, directory);
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                out.write(data, 0, length);
+            }
+        } catch (IOException e) {
+            Log.w(LogTag.ERROR, "写入音频缓存失败: " + e.getMessage());
+            if (temp != null) {
+                //noinspection ResultOfMethodCallIgnored
+                temp.delete();
+            }
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            Log.w(LogTag.ERROR, "写入音频缓存失败: 无法重命名 " + temp.getName());
+            //noinspection ResultOfMethodCallIgnored
+            temp.delete();
+            return;
+        }
+        List<String> evicted;
+        synchronized (this) {
+            Long previous = entries.put(name, (long) length);
+            totalBytes += length - (previous == null ? 0 : previous);
+            evicted = trimToSize();
+        }
+        deleteFiles(evicted);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        if (!awaitLoaded()) {
+            return;
+        }
+        List<String> names;
+        synchronized (this) {
+            names = new ArrayList<>(entries.keySet());
+            entries.clear();
+            totalBytes = 0;
+        }
+        deleteFiles(names);
+    }
+
+    public long getTotalBytes() {
+        awaitLoaded();
+        synchronized (this) {
+            return totalBytes;
+        }
+    }
+
+    public int getEntryCount() {
+        awaitLoaded();
+        synchronized (this) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * 等待缓存目录扫描完成
+     *
+     * @return 是否已完成(等待被中断时返回false, 按未命中处理)
+     */
+    private boolean awaitLoaded() {
+        try {
+            loaded.await();
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 扫描缓存目录, 按文件修改时间恢复LRU顺序
+     */
+    private void load() {
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                Log.w(LogTag.ERROR, "无法创建音频缓存目录: " + directory);
+                return;
+            }
+            File[] files = directory.listFiles();
+            if (files == null) {
+                return;
+            }
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            LinkedHashMap<String, Long> found = new LinkedHashMap<>();
+            for (File file : files) {
+                if (file.getName().endsWith(FILE_SUFFIX)) {
+                    found.put(file.getName(), file.length());
+                } else {
+                    // 清理上次中断遗留的临时文件
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+            List<String> evicted;
+            synchronized (this) {
+                for (Map.Entry<String, Long> entry : found.entrySet()) {
+                    entries.put(entry.getKey(), entry.getValue());
+                    totalBytes += entry.getValue();
+                }
+                evicted = trimToSize();
+                Log.d(LogTag.INFO, "音频缓存加载完成, 条目数: " + entries.size() + ", 大小: " + totalBytes);
+            }
+            deleteFiles(evicted);
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    /**
+     * 按LRU顺序移除超出预算的条目
+     *
+     * @return 被淘汰条目的文件名, 由调用方在锁外删除
+     */
+    private List<String> trimToSize() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            totalBytes -= eldest.getValue();
+            iterator.remove();
+            evicted.add(eldest.getKey());
+        }
+        return evicted;
+    }
+
+    private void remove(String name) {
+        synchronized (this) {
+            Long size = entries.remove(name);
+            if (size == null) {
+                return;
+            }
+            totalBytes -= size;
+        }
+        //noinspection ResultOfMethodCallIgnored
+        new File(directory, name).delete();
+    }
+
+    private void deleteFiles(List<String> names) {
+        for (String name : names) {
+            //noinspection ResultOfMethodCallIgnored
+            new File(directory, name).delete();
+        }
+    }
+}
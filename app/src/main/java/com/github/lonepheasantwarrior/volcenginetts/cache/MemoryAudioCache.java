@@ -0,0 +1,125 @@
+package com.github.lonepheasantwarrior.volcenginetts.cache;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合成音频内存缓存
+ * 保存最近合成的短文本音频, 数据存放在堆外的直接缓冲区中, 按条目字节数计算权重,
+ * 总大小超出上限时按最近最少使用(LRU)顺序淘汰; 系统内存紧张时由{@link #onTrimMemory(int)}释放
+ */
+public final class MemoryAudioCache {
+    private final long maxBytes;
+    private final int maxEntryBytes;
+    private final LinkedHashMap<AudioCacheKey, ByteBuffer> entries = new LinkedHashMap<>(32, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxBytes      缓存总大小上限(字节)
+     * @param maxEntryBytes 单个条目大小上限(字节), 更大的音频不进入内存缓存
+     */
+    public MemoryAudioCache(long maxBytes, int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * 读取缓存的音频数据
+     *
+     * @return 只读的音频数据视图, 未命中返回null
+     */
+    public synchronized ByteBuffer get(AudioCacheKey key) {
+        ByteBuffer audio = entries.get(key);
+        if (audio == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return audio.asReadOnlyBuffer();
+    }
+
+    /**
+     * 写入音频数据
+     */
+    public synchronized void put(AudioCacheKey key, byte[] data, int length) {
+        if (length <= 0 || length > maxEntryBytes || length > maxBytes) {
+            return;
+        }
+        ByteBuffer audio = ByteBuffer.allocateDirect(length);
+        audio.put(data, 0, length);
+        audio.flip();
+        ByteBuffer previous = entries.put(key, audio);
+        totalBytes += length - (previous == null ? 0 : previous.capacity());
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * 按系统内存紧张程度释放缓存
+     *
+     * @param level {@link ComponentCallbacks2}中定义的内存回收级别
+     */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            synchronized (this) {
+                trimToSize(maxBytes / 2);
+            }
+        } else {
+            return;
+        }
+        Log.i(LogTag.INFO, "内存紧张(" + level + "), 音频内存缓存剩余: " + getTotalBytes() + " 字节");
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        evictionCount.addAndGet(entries.size());
+        entries.clear();
+        totalBytes = 0;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private void trimToSize(long targetBytes) {
+        Iterator<Map.Entry<AudioCacheKey, ByteBuffer>> iterator = entries.entrySet().iterator();
+        while (totalBytes > targetBytes && iterator.hasNext()) {
+            totalBytes -= iterator.next().getValue().capacity();
+            iterator.remove();
+            evictionCount.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.lonepheasantwarrior.volcenginetts.common
+
+import android.os.Build
+import android.util.Log
+import java.security.MessageDigest
+import java.security.NoSuchAlgorithmException
+
+/**
+ * 设备与用户标识(用以辅助定位线上用户问题)
+ */
+object DeviceIdentity {
+    /**
+     * 设备ID: 设备硬件信息组合的MD5摘要, 进程内只计算一次
+     */
+    val deviceId: String by lazy {
+        val sb = StringBuilder()
+        sb.append(Build.BOARD).append("/")
+        sb.append(Build.BRAND).append("/")
+        sb.append(Build.DEVICE).append("/")
+        sb.append(Build.HARDWARE).append("/")
+        sb.append(Build.MODEL).append("/")
+        sb.append(Build.PRODUCT).append("/")
+        sb.append(Build.TAGS).append("/")
+        sb.append(Build.TYPE).append("/")
+        sb.append(Build.USER)
+        md5(sb.toString())
+    }
+
+    /**
+     * 生成字符串的MD5摘要
+     */
+    fun md5(input: String): String {
+        return try {
+            val md = MessageDigest.getInstance("MD5")
+            val messageDigest = md.digest(input.toByteArray())
+            val hexString = StringBuilder()
+            for (b in messageDigest) {
+                val hex = Integer.toHexString(0xFF and b.toInt())
+                if (hex.length == 1) {
+                    hexString.append('0')
+                }
+                hexString.append(hex)
+            }
+            hexString.toString()
+        } catch (e: NoSuchAlgorithmException) {
+            Log.e(LogTag.ERROR, "MD5 algorithm not available", e)
+            ""
+        }
+    }
+}
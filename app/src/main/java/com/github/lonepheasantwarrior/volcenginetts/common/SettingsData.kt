@@ -2,15 +2,81 @@ package com.github.lonepheasantwarrior.volcenginetts.common
 
 /**
  * 设置数据类
+ * 不可变快照, 引擎所需的令牌派生值在创建快照时一次性算出, 并由令牌相同的快照([withSpeaker])共享
  * @param appId 应用ID
  * @param token 令牌
  * @param selectedSpeakerId 选中的声音ID
  * @param serviceCluster 接口服务簇
+ * @param credentials 令牌派生值, 须由[token]算出; 不参与快照的相等性比较
  */
 data class SettingsData(
     val appId: String,
     val token: String,
     val selectedSpeakerId: String,
     val serviceCluster: String,
-    val isEmotional: Boolean
-)
\ No newline at end of file
+    val isEmotional: Boolean,
+    val credentials: Credentials = Credentials(token)
+) {
+    init {
+        require(credentials.token == token) { "令牌派生值与令牌不一致" }
+    }
+
+    /**
+     * 令牌派生值
+     */
+    class Credentials(internal val token: String) {
+        /**
+         * 引擎鉴权使用的令牌("Bearer;"前缀)
+         */
+        val bearerToken: String = "Bearer;$token"
+
+        /**
+         * User ID: 令牌的MD5摘要
+         */
+        val uid: String = DeviceIdentity.md5(token)
+
+        override fun toString(): String = "Credentials(uid=$uid)"
+    }
+
+    /**
+     * 必填配置项是否均已填写
+     */
+    val isComplete: Boolean = appId.isNotBlank() && token.isNotBlank()
+            && serviceCluster.isNotBlank() && selectedSpeakerId.isNotBlank()
+
+    /**
+     * 引擎鉴权使用的令牌("Bearer;"前缀)
+     */
+    val bearerToken: String get() = credentials.bearerToken
+
+    /**
+     * User ID: 令牌的MD5摘要
+     */
+    val uid: String get() = credentials.uid
+
+    /**
+     * Device ID
+     */
+    val deviceId: String get() = DeviceIdentity.deviceId
+
+    /**
+     * 以其他音色生成快照(用于按请求指定声音), 其余配置与令牌派生值不变
+     */
+    fun withSpeaker(speakerId: String): SettingsData {
+        if (speakerId == selectedSpeakerId) {
+            return this
+        }
+        return copy(selectedSpeakerId = speakerId)
+    }
+
+    // 派生值完全由令牌决定, 相等性只比较配置项本身
+    override fun equals(other: Any?): Boolean {
+        if (this === other) return true
+        if (other !is SettingsData) return false
+        return appId == other.appId && token == other.token && selectedSpeakerId == other.selectedSpeakerId
+                && serviceCluster == other.serviceCluster && isEmotional == other.isEmotional
+    }
+
+    override fun hashCode(): Int =
+        listOf(appId, token, selectedSpeakerId, serviceCluster, isEmotional).hashCode()
+}
@@ -0,0 +1,65 @@
+package com.github.lonepheasantwarrior.volcenginetts.common
+
+import android.content.res.Resources
+import com.github.lonepheasantwarrior.volcenginetts.R
+
+/**
+ * 语音合成配置
+ * 应用启动时从资源(integers.xml、strings.xml、bools.xml)读取一次, 合成请求直接读取字段, 不再逐次访问Resources;
+ * 各字段含义见对应资源项的注释
+ */
+data class TtsConfig(
+    val sampleRate: Int,
+    val serviceAddress: String,
+    val serviceApiPath: String,
+    val segmentationPolicy: String,
+    val maxParallelSegments: Int,
+    val lookAheadSegments: Int,
+    val maxBufferedAudioBytes: Long,
+    val audioChunkSize: Int,
+    val audioChannelCapacity: Int,
+    val audioOverflowPolicy: String,
+    val audioPoolMaxChunks: Int,
+    val audioCacheMaxBytes: Long,
+    val audioCacheMaxEntryBytes: Int,
+    val memoryCacheMaxBytes: Long,
+    val memoryCacheMaxEntryBytes: Int,
+    val firstByteTimeoutMillis: Long,
+    val stallTimeoutMillis: Long,
+    val totalBudgetBaseMillis: Long,
+    val totalBudgetPerCharMillis: Long,
+    val watchdogIntervalMillis: Long,
+    val captureCallbackTraces: Boolean = false
+) {
+    /**
+     * 按文本长度计算的请求总耗时上限
+     */
+    fun totalBudgetMillis(textLength: Int): Long = totalBudgetBaseMillis + textLength * totalBudgetPerCharMillis
+
+    companion object {
+        @JvmStatic
+        fun fromResources(resources: Resources): TtsConfig = TtsConfig(
+            sampleRate = resources.getInteger(R.integer.tts_sample_rate),
+            serviceAddress = resources.getString(R.string.tts_service_address),
+            serviceApiPath = resources.getString(R.string.tts_service_api_path),
+            segmentationPolicy = resources.getString(R.string.tts_segmentation_policy),
+            maxParallelSegments = resources.getInteger(R.integer.tts_max_parallel_segments),
+            lookAheadSegments = resources.getInteger(R.integer.tts_lookahead_segments),
+            maxBufferedAudioBytes = resources.getInteger(R.integer.tts_max_buffered_audio_kb) * 1024L,
+            audioChunkSize = resources.getInteger(R.integer.tts_audio_chunk_size),
+            audioChannelCapacity = resources.getInteger(R.integer.tts_audio_channel_capacity),
+            audioOverflowPolicy = resources.getString(R.string.tts_audio_overflow_policy),
+            audioPoolMaxChunks = resources.getInteger(R.integer.tts_audio_pool_max_chunks),
+            audioCacheMaxBytes = resources.getInteger(R.integer.tts_audio_cache_max_mb) * 1024L * 1024L,
+            audioCacheMaxEntryBytes = resources.getInteger(R.integer.tts_audio_cache_max_entry_kb) * 1024,
+            memoryCacheMaxBytes = resources.getInteger(R.integer.tts_memory_cache_max_kb) * 1024L,
+            memoryCacheMaxEntryBytes = resources.getInteger(R.integer.tts_memory_cache_max_entry_kb) * 1024,
+            firstByteTimeoutMillis = resources.getInteger(R.integer.tts_first_byte_timeout_ms).toLong(),
+            stallTimeoutMillis = resources.getInteger(R.integer.tts_stall_timeout_ms).toLong(),
+            totalBudgetBaseMillis = resources.getInteger(R.integer.tts_total_budget_base_ms).toLong(),
+            totalBudgetPerCharMillis = resources.getInteger(R.integer.tts_total_budget_per_char_ms).toLong(),
+            watchdogIntervalMillis = resources.getInteger(R.integer.tts_watchdog_interval_ms).toLong(),
+            captureCallbackTraces = resources.getBoolean(R.bool.tts_capture_callback_traces)
+        )
+    }
+}
@@ -0,0 +1,153 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import java.io.BufferedInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+
+/**
+ * SDK回调轨迹
+ * 单个引擎会话中onSpeechMessage回调的顺序、相对时间与数据长度; 音频数据只记录长度, 控制类消息(JSON)保留原文,
+ * 可由测试源码(src/benchmark)中的TraceReplayBackend按原始或缩放后的时序回放
+ *
+ * 二进制格式(整数均为无符号变长编码): 魔数"VTRC", 版本(1字节), 会话开始时间(毫秒), 文本片段数, 事件数,
+ * 之后每个事件依次为消息类型、距上一事件的时间(微秒)、回调数据长度、保留的数据长度及其内容
+ * @param startedAtMillis 会话开始时的系统时间
+ * @param segmentCount 会话合成的文本片段数(连续合成时大于1)
+ * @param events 按发生顺序排列的回调
+ */
+class CallbackTrace(val startedAtMillis: Long, val segmentCount: Int, val events: List<Event>) {
+    /**
+     * 单次回调
+     * @param type 消息类型
+     * @param offsetMicros 距会话开始(发送START指令前)的时间
+     * @param length 回调数据长度
+     * @param payload 保留的回调数据(控制类消息), 音频数据为null
+     */
+    class Event(val type: Int, val offsetMicros: Long, val length: Int, val payload: ByteArray?)
+
+    /**
+     * 轨迹时长(最后一个回调的时间)
+     */
+    val durationMicros: Long get() = events.lastOrNull()?.offsetMicros ?: 0
+
+    @Throws(IOException::class)
+    fun writeTo(output: OutputStream) {
+        val out = DataOutputStream(output)
+        out.write(MAGIC)
+        out.writeByte(VERSION)
+        writeVarLong(out, startedAtMillis)
+        writeVarLong(out, segmentCount.toLong())
+        writeVarLong(out, events.size.toLong())
+        var previousMicros = 0L
+        for (event in events) {
+            writeVarLong(out, event.type.toLong())
+            writeVarLong(out, event.offsetMicros - previousMicros)
+            writeVarLong(out, event.length.toLong())
+            val payload = event.payload ?: EMPTY
+            writeVarLong(out, payload.size.toLong())
+            out.write(payload)
+            previousMicros = event.offsetMicros
+        }
+        out.flush()
+    }
+
+    /**
+     * 会话回调记录器
+     * 在SDK回调线程中调用; 记录开始时间为创建时刻(发送START指令前)
+     */
+    class Recorder(private val segmentCount: Int) {
+        private val startedAtMillis = System.currentTimeMillis()
+        private val startNanos = System.nanoTime()
+        private val events = ArrayList<Event>()
+
+        @Synchronized
+        fun record(type: Int, data: ByteArray?, len: Int) {
+            val isAudio = type == SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA ||
+                    type == SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END
+            val payload = if (isAudio || data == null) null else data.copyOf(minOf(len, data.size, MAX_PAYLOAD_BYTES))
+            events.add(Event(type, (System.nanoTime() - startNanos) / 1000, len, payload))
+        }
+
+        @Synchronized
+        fun finish(): CallbackTrace = CallbackTrace(startedAtMillis, segmentCount, ArrayList(events))
+    }
+
+    companion object {
+        /**
+         * 控制类消息保留的最大字节数
+         */
+        const val MAX_PAYLOAD_BYTES = 4096
+
+        private val MAGIC = "VTRC".toByteArray()
+        private const val VERSION = 1
+        private val EMPTY = ByteArray(0)
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun read(file: File): CallbackTrace = BufferedInputStream(file.inputStream()).use { readFrom(it) }
+
+        @JvmStatic
+        @Throws(IOException::class)
+        fun readFrom(input: InputStream): CallbackTrace {
+            val data = DataInputStream(input)
+            val magic = ByteArray(MAGIC.size)
+            data.readFully(magic)
+            if (!magic.contentEquals(MAGIC)) {
+                throw IOException("不是回调轨迹文件")
+            }
+            val version = data.readUnsignedByte()
+            if (version != VERSION) {
+                throw IOException("不支持的回调轨迹版本: $version")
+            }
+            val startedAtMillis = readVarLong(data)
+            val segmentCount = readVarLong(data).toInt()
+            val count = readVarLong(data).toInt()
+            val events = ArrayList<Event>(count)
+            var offsetMicros = 0L
+            repeat(count) {
+                val type = readVarLong(data).toInt()
+                offsetMicros += readVarLong(data)
+                val length = readVarLong(data).toInt()
+                val payloadSize = readVarLong(data).toInt()
+                if (payloadSize > MAX_PAYLOAD_BYTES) {
+                    throw IOException("回调数据过长: $payloadSize")
+                }
+                val payload = if (payloadSize > 0) ByteArray(payloadSize).also { data.readFully(it) } else null
+                events.add(Event(type, offsetMicros, length, payload))
+            }
+            return CallbackTrace(startedAtMillis, segmentCount, events)
+        }
+
+        private fun writeVarLong(out: DataOutputStream, value: Long) {
+            var remaining = value
+            while (remaining and 0x7FL.inv() != 0L) {
+                out.writeByte(((remaining and 0x7F) or 0x80).toInt())
+                remaining = remaining ushr 7
+            }
+            out.writeByte(remaining.toInt())
+        }
+
+        private fun readVarLong(input: DataInputStream): Long {
+            var value = 0L
+            var shift = 0
+            while (shift < 64) {
+                val b = input.read()
+                if (b < 0) {
+                    throw EOFException("回调轨迹文件不完整")
+                }
+                value = value or ((b and 0x7F).toLong() shl shift)
+                if (b and 0x80 == 0) {
+                    return value
+                }
+                shift += 7
+            }
+            throw IOException("变长整数格式错误")
+        }
+    }
+}
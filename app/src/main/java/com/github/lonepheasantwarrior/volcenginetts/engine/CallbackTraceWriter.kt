@@ -0,0 +1,68 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import android.util.Log
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag
+import java.io.BufferedOutputStream
+import java.io.File
+import java.io.IOException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * 回调轨迹文件写入器
+ * 在独立线程中将已结束会话的轨迹写入目录(不阻塞SDK回调线程), 文件数超出上限时删除最早的轨迹
+ * @param directory 轨迹目录
+ * @param maxFiles 最多保留的轨迹文件数
+ */
+class CallbackTraceWriter(val directory: File, private val maxFiles: Int = DEFAULT_MAX_FILES) {
+    private val writeExecutor: ExecutorService = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "CallbackTraceWriter").apply { isDaemon = true }
+    }
+
+    /**
+     * 异步写入会话轨迹
+     */
+    fun write(sessionId: Long, trace: CallbackTrace) {
+        writeExecutor.execute { writeNow(sessionId, trace) }
+    }
+
+    /**
+     * 等待已提交的轨迹全部写入
+     */
+    fun flush() {
+        writeExecutor.submit {}.get()
+    }
+
+    /**
+     * 目录中的轨迹文件, 按会话开始时间排列
+     */
+    fun listTraces(): List<File> =
+        directory.listFiles { file -> file.name.endsWith(FILE_SUFFIX) }?.sortedBy { it.name } ?: emptyList()
+
+    private fun writeNow(sessionId: Long, trace: CallbackTrace) {
+        // 文件名以补零的开始时间开头, 按名称排序即按时间排序
+        val name = "%013d-%d%s".format(trace.startedAtMillis, sessionId, FILE_SUFFIX)
+        val temp = File(directory, "$name.tmp")
+        try {
+            if (!directory.isDirectory && !directory.mkdirs()) {
+                throw IOException("无法创建目录 $directory")
+            }
+            BufferedOutputStream(temp.outputStream()).use { trace.writeTo(it) }
+            if (!temp.renameTo(File(directory, name))) {
+                throw IOException("无法重命名 $temp")
+            }
+            Log.d(LogTag.INFO, "已记录会话($sessionId)回调轨迹: ${trace.events.size}个回调, 文件: $name")
+        } catch (e: IOException) {
+            temp.delete()
+            Log.w(LogTag.ERROR, "写入回调轨迹失败: ${e.message}")
+            return
+        }
+        val traces = listTraces()
+        traces.take(maxOf(0, traces.size - maxFiles)).forEach { it.delete() }
+    }
+
+    companion object {
+        const val FILE_SUFFIX = ".vtrace"
+        const val DEFAULT_MAX_FILES = 100
+    }
+}
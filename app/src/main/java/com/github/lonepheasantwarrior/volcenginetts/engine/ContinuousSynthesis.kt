@@ -0,0 +1,52 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 连续合成作业状态
+ *
+ * 在同一个已启动的引擎会话内依次为每个文本片段发送 DIRECTIVE_SYNTHESIS 指令:
+ * 首句在收到引擎启动回调后发送, 非首句在收到上一句的合成结束回调后发送;
+ * 内置播放器缓存耗尽时, 改为在下一次播放结束回调时发送
+ *
+ * 所有方法仅在SDK回调线程中调用, 无需额外同步
+ * @param isHeadless 引擎是否未启用内置播放器; 此时以音频数据结束回调而非播放结束回调作为片段完成的标志
+ */
+class ContinuousSynthesis(private val segments: List<String>, val isHeadless: Boolean = false) {
+    private var nextIndex = 0
+    private var finishedCount = 0
+
+    /**
+     * 是否正在等待内置播放器腾出缓存后再发送下一句
+     */
+    var isWaitingForPlayer = false
+
+    /**
+     * 片段总数
+     */
+    val size: Int get() = segments.size
+
+    /**
+     * 是否还有未发送的片段
+     */
+    fun hasNext(): Boolean = nextIndex < segments.size
+
+    /**
+     * 查看下一个待发送的片段
+     */
+    fun peek(): String = segments[nextIndex]
+
+    /**
+     * 标记下一个片段已成功发送
+     */
+    fun advance() {
+        nextIndex++
+    }
+
+    /**
+     * 记录一个片段输出完毕
+     * @return 全部片段是否均已输出完毕
+     */
+    fun onSegmentFinished(): Boolean {
+        finishedCount++
+        return finishedCount >= segments.size
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import org.json.JSONException
+import org.json.JSONObject
+
+/**
+ * 引擎错误
+ * @param code 错误码, 未知时为[UNKNOWN_CODE]
+ * @param message 错误信息
+ */
+data class EngineError(val code: Int, val message: String) {
+    companion object {
+        const val UNKNOWN_CODE = -1
+
+        fun parse(text: String): EngineError {
+            return try {
+                val json = JSONObject(text)
+                EngineError(
+                    json.optInt("err_code", UNKNOWN_CODE),
+                    json.optString("err_msg", text).ifEmpty { text }
+                )
+            } catch (_: JSONException) {
+                EngineError(UNKNOWN_CODE, text)
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 语音合成引擎初始化失败
+ * @param code SDK返回的错误码
+ */
+class EngineInitException(val code: Int) : RuntimeException("引擎初始化失败: $code")
@@ -0,0 +1,26 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 引擎控制类回调消息(启动、停止、错误、合成/播放进度等)
+ * 音频数据回调不会包装为此类; 文本内容与错误信息仅在首次访问时才解码/解析
+ */
+class EngineMessage(val type: Int, private val data: ByteArray?) {
+    /**
+     * 消息数据字节数(不解码)
+     */
+    val size: Int get() = data?.size ?: 0
+
+    /**
+     * 消息文本(通常为JSON)
+     */
+    val text: String by lazy(LazyThreadSafetyMode.NONE) {
+        if (data != null && data.isNotEmpty()) String(data) else ""
+    }
+
+    /**
+     * 按错误消息解析出的错误码与错误信息, 无法解析时错误信息即为原始文本
+     */
+    val error: EngineError by lazy(LazyThreadSafetyMode.NONE) { EngineError.parse(text) }
+
+    override fun toString(): String = text
+}
@@ -0,0 +1,26 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 单个片段的合成作业, 独占一个无播放器引擎直至释放
+ */
+class SegmentSynthesis internal constructor(
+    private val speechEngine: BackendEngine,
+    private val engineKey: SynthesisEnginePool.EngineKey,
+    private val token: String,
+    private val synthesisEnginePool: SynthesisEnginePool
+) : SegmentJob {
+    private var isReleased = false
+
+    /**
+     * 停止合成并将引擎归还至引擎池(停止在引擎池的独立线程中异步执行, 本方法立即返回)
+     * 调用前应先关闭对应的[SynthesisAudioSink], 以丢弃停止过程中产生的回调
+     */
+    @Synchronized
+    override fun release() {
+        if (isReleased) {
+            return
+        }
+        isReleased = true
+        synthesisEnginePool.recycle(engineKey, token, speechEngine)
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 片段合成器
+ * 为单个文本片段启动一个独立的合成作业, 音频数据与结束状态写入[SynthesisAudioSink]
+ */
+fun interface SegmentSynthesizer {
+    /**
+     * 开始合成片段
+     * @param text 片段文本
+     * @param sink 片段音频接收端
+     * @return 合成作业, 片段合成结束或中断后须调用[SegmentJob.release]
+     */
+    fun start(text: String, sink: SynthesisAudioSink): SegmentJob
+}
+
+/**
+ * 片段合成作业
+ */
+fun interface SegmentJob {
+    /**
+     * 停止合成并释放作业占用的引擎
+     */
+    fun release()
+}
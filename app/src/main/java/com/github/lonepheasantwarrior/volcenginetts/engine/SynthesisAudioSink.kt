@@ -0,0 +1,32 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 片段合成音频接收端
+ */
+interface SynthesisAudioSink {
+    /**
+     * 是否已关闭, 关闭后引擎回调将被直接丢弃
+     */
+    val isClosed: Boolean
+
+    /**
+     * 收到音频数据
+     */
+    fun onAudio(data: ByteArray)
+
+    /**
+     * 片段合成结束
+     * @param isError 是否因错误结束
+     * @param message 错误信息
+     */
+    fun onFinished(isError: Boolean, message: String)
+
+    /**
+     * 中断合成作业: 尚未结束时以错误结束, 并唤醒因接收端已满而阻塞的回调线程;
+     * 已结束作业的音频保持不变
+     * @param message 错误信息
+     */
+    fun interrupt(message: String) {
+        onFinished(true, message)
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+/**
+ * 语音合成后端
+ * 引擎层只通过该接口创建引擎实例: 正式环境使用火山引擎SDK([VolcengineBackend]);
+ * 测试源码(src/benchmark)中的FakeSynthesisBackend在本地按相同的回调序列输出PCM, 用于无设备、无凭证的单元测试、基准测试与压力测试
+ */
+fun interface SynthesisBackend {
+    /**
+     * 创建尚未初始化的引擎实例, 配置选项后须调用[BackendEngine.initEngine]
+     */
+    fun createEngine(): BackendEngine
+}
+
+/**
+ * 合成引擎实例
+ * 方法与回调语义同火山引擎SDK的 SpeechEngine, 选项键、指令、消息类型与错误码均使用 SpeechEngineDefines 中的定义
+ */
+interface BackendEngine {
+    /**
+     * 引擎回调监听器
+     */
+    fun interface Listener {
+        /**
+         * @param type 消息类型(SpeechEngineDefines.MESSAGE_TYPE_*)
+         * @param data 消息内容(音频数据或JSON文本)
+         * @param len 消息内容长度
+         */
+        fun onSpeechMessage(type: Int, data: ByteArray?, len: Int)
+    }
+
+    /**
+     * 引擎版本号
+     */
+    val version: String
+
+    fun initEngine(): Int
+
+    fun destroyEngine()
+
+    fun setListener(listener: Listener?)
+
+    fun sendDirective(directive: Int, params: String): Int
+
+    fun setOptionString(key: String, value: String)
+
+    fun setOptionInt(key: String, value: Int)
+
+    fun setOptionBoolean(key: String, value: Boolean)
+}
@@ -1,188 +1,298 @@
 package com.github.lonepheasantwarrior.volcenginetts.engine
 
 import android.content.Context
-import android.os.Build
 import android.os.Handler
 import android.os.Looper
 import android.util.Log
 import android.widget.Toast
-import com.bytedance.speech.speechengine.SpeechEngine
 import com.bytedance.speech.speechengine.SpeechEngineDefines
-import com.bytedance.speech.speechengine.SpeechEngineGenerator
-import com.github.lonepheasantwarrior.volcenginetts.R
 import com.github.lonepheasantwarrior.volcenginetts.TTSApplication
 import com.github.lonepheasantwarrior.volcenginetts.common.Constants
 import com.github.lonepheasantwarrior.volcenginetts.common.LogTag
-import com.github.lonepheasantwarrior.volcenginetts.tts.TTSContext
-import java.security.MessageDigest
-import java.security.NoSuchAlgorithmException
+import com.github.lonepheasantwarrior.volcenginetts.common.SettingsData
+import com.github.lonepheasantwarrior.volcenginetts.common.TtsConfig
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import java.util.concurrent.atomic.AtomicLong
 
 /**
  * 语音合成引擎
  */
 class SynthesisEngine(private val context: Context) {
-    private var mSpeechEngine: SpeechEngine? = null
+    @Volatile
+    private var mSpeechEngine: BackendEngine? = null
+    private var mEngineKey: SynthesisEnginePool.EngineKey? = null
+    private var mEngineToken: String = ""
     private var isCreated: Boolean = false
     private var isParametersBeenSet: Boolean = false
+    private var mSessionListener: SynthesisEngineListener.SessionListener? = null
+    private val sessionIdGenerator = AtomicLong()
     private val mainHandler = Handler(Looper.getMainLooper())
     private val synthesisEngineListener: SynthesisEngineListener get() = (context as TTSApplication).synthesisEngineListener
-    private val ttsContext: TTSContext get() = (context as TTSApplication).ttsContext
+    private val synthesisEnginePool: SynthesisEnginePool get() = (context as TTSApplication).synthesisEnginePool
+    private val synthesisBackend: SynthesisBackend get() = (context as TTSApplication).synthesisBackend
+    private val ttsConfig: TtsConfig get() = (context as TTSApplication).ttsConfig
+    private val pipelineMetrics: PipelineMetrics get() = (context as TTSApplication).pipelineMetrics
 
     /**
      * 初始化语音合成引擎
+     * 优先从引擎池中取出同配置的已初始化引擎, 不存在时再创建新引擎
+     * @param isHeadless 是否不启用SDK内置播放器、仅通过回调输出音频数据(系统TTS服务使用);
+     * 应用内试听等需要直接出声的场景使用内置播放器
+     * @throws EngineInitException 新建的引擎初始化失败(该引擎已被销毁)
      */
-    fun create(
-        appId: String,
-        token: String,
-        speakerId: String,
-        serviceCluster: String,
-        isEmotional: Boolean
-    ): SpeechEngine {
+    @Synchronized
+    fun create(settings: SettingsData, isHeadless: Boolean = false): BackendEngine {
         if (mSpeechEngine != null) {
-            destroy()
+            release()
         }
-        mSpeechEngine = SpeechEngineGenerator.getInstance()
-        mSpeechEngine!!.createEngine()
-        Log.d(LogTag.SDK_INFO, "语音合成SDK版本号: " + mSpeechEngine!!.version)
-        // 初始化引擎配置
-        setEngineParams(appId, token, speakerId, serviceCluster, isEmotional)
+        val engineKey = SynthesisEnginePool.EngineKey(
+            settings.appId, settings.serviceCluster, settings.selectedSpeakerId, settings.isEmotional, isHeadless
+        )
+        mEngineKey = engineKey
+        mEngineToken = settings.token
+        mSpeechEngine = obtainEngine(engineKey, settings)
+        isCreated = true
         return mSpeechEngine!!
     }
 
+    /**
+     * 使用独立的无播放器引擎合成单个文本片段, 音频数据只通过回调写入[sink]
+     * 该引擎与[create]创建的引擎互不干扰, 可与之并行工作(用于预合成后续片段)
+     * @return 片段合成作业, 合成完成或中断后须调用[SegmentSynthesis.release]
+     * @throws EngineInitException 新建的引擎初始化失败(该引擎已被销毁)
+     */
+    fun startSegment(
+        settings: SettingsData,
+        text: String,
+        speedRatio: Int?,
+        volumeRatio: Int?,
+        pitchRatio: Int?,
+        sink: SynthesisAudioSink
+    ): SegmentSynthesis {
+        val engineKey = SynthesisEnginePool.EngineKey(
+            settings.appId, settings.serviceCluster, settings.selectedSpeakerId, settings.isEmotional, true
+        )
+        val speechEngine = obtainEngine(engineKey, settings)
+        val segment = SegmentSynthesis(speechEngine, engineKey, settings.token, synthesisEnginePool)
+        var ret = speechEngine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNC_STOP_ENGINE, "")
+        if (ret == SpeechEngineDefines.ERR_NO_ERROR) {
+            val sessionListener =
+                synthesisEngineListener.newSessionListener(sessionIdGenerator.incrementAndGet(), speechEngine, sink)
+            speechEngine.setListener(sessionListener)
+            speechEngine.setOptionString(
+                SpeechEngineDefines.PARAMS_KEY_TTS_SCENARIO_STRING,
+                SpeechEngineDefines.TTS_SCENARIO_TYPE_NORMAL
+            )
+            applyTTSParams(speechEngine, text, speedRatio, volumeRatio, pitchRatio)
+            sessionListener.onStartDirective()
+            ret = speechEngine.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, "")
+        }
+        if (ret != SpeechEngineDefines.ERR_NO_ERROR) {
+            Log.e(LogTag.SDK_ERROR, "片段引擎启动失败: $ret")
+            pipelineMetrics.recordError(PipelineMetrics.ERROR_DOMAIN_SDK, ret)
+            sink.onFinished(true, "片段引擎启动失败: $ret")
+        }
+        return segment
+    }
+
+    /**
+     * 从引擎池取出引擎, 池中不存在时创建并初始化新引擎
+     * 初始化失败的引擎不可用于合成, 交由引擎池异步销毁后抛出[EngineInitException], 由调用方以错误结束请求
+     */
+    private fun obtainEngine(engineKey: SynthesisEnginePool.EngineKey, settings: SettingsData): BackendEngine {
+        val pooledEngine = synthesisEnginePool.acquire(engineKey, settings.token)
+        if (pooledEngine != null) {
+            return pooledEngine
+        }
+
+        val createStartNanos = System.nanoTime()
+        val speechEngine = synthesisBackend.createEngine()
+        pipelineMetrics.record(PipelineMetrics.Stage.ENGINE_CREATE, createStartNanos)
+        Log.d(LogTag.SDK_INFO, "语音合成SDK版本号: " + speechEngine.version)
+        // 初始化引擎配置
+        setEngineParams(speechEngine, settings, engineKey.isHeadless)
+        val initStartNanos = System.nanoTime()
+        val ret = speechEngine.initEngine()
+        pipelineMetrics.record(PipelineMetrics.Stage.ENGINE_INIT, initStartNanos)
+        if (ret != SpeechEngineDefines.ERR_NO_ERROR) {
+            Log.e(LogTag.SDK_ERROR, "引擎初始化失败: $ret")
+            pipelineMetrics.recordError(PipelineMetrics.ERROR_DOMAIN_SDK, ret)
+            mainHandler.post {
+                Toast.makeText(context, "引擎初始化失败: $ret", Toast.LENGTH_SHORT).show()
+            }
+            synthesisEnginePool.destroy(speechEngine)
+            throw EngineInitException(ret)
+        }
+        return speechEngine
+    }
+
     /**
      * 初始化语音合成引擎相关配置
+     * 鉴权令牌、User ID、Device ID直接取自设置快照中预先计算的值
      */
-    private fun setEngineParams(
-        appId: String,
-        token: String,
-        speakerId: String,
-        serviceCluster: String,
-        isEmotional: Boolean
-    ) {
+    private fun setEngineParams(speechEngine: BackendEngine, settings: SettingsData, isHeadless: Boolean) {
         //配置工作场景
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_ENGINE_NAME_STRING, SpeechEngineDefines.TTS_ENGINE
         )
         //配置工作策略
         //TTS_WORK_MODE_ONLINE, 只进行在线合成
         //TTS_WORK_MODE_OFFLINE, 只进行离线合成
         //TTS_WORK_MODE_ALTERNATE, 先发起在线合成，失败后（网络超时），启动离线合成引擎开始合
-        mSpeechEngine!!.setOptionInt(
+        speechEngine.setOptionInt(
             SpeechEngineDefines.PARAMS_KEY_TTS_WORK_MODE_INT,
             SpeechEngineDefines.TTS_WORK_MODE_ONLINE
         )
-        //配置播放音源
-        mSpeechEngine!!.setOptionInt(
-            SpeechEngineDefines.PARAMS_KEY_AUDIO_STREAM_TYPE_INT,
-            SpeechEngineDefines.AUDIO_STREAM_TYPE_MEDIA
-        )
+        //配置播放音源(仅内置播放器使用)
+        if (!isHeadless) {
+            speechEngine.setOptionInt(
+                SpeechEngineDefines.PARAMS_KEY_AUDIO_STREAM_TYPE_INT,
+                SpeechEngineDefines.AUDIO_STREAM_TYPE_MEDIA
+            )
+        }
         //合成出的音频的采样率，默认为 24000
-        mSpeechEngine!!.setOptionInt(
+        speechEngine.setOptionInt(
             SpeechEngineDefines.PARAMS_KEY_TTS_SAMPLE_RATE_INT,
-            context.resources.getInteger(R.integer.tts_sample_rate)
+            ttsConfig.sampleRate
         )
         //appId
-        mSpeechEngine!!.setOptionString(SpeechEngineDefines.PARAMS_KEY_APP_ID_STRING, appId)
+        speechEngine.setOptionString(SpeechEngineDefines.PARAMS_KEY_APP_ID_STRING, settings.appId)
         //token
-        mSpeechEngine!!.setOptionString(SpeechEngineDefines.PARAMS_KEY_APP_TOKEN_STRING,
-            "Bearer;$token"
+        speechEngine.setOptionString(SpeechEngineDefines.PARAMS_KEY_APP_TOKEN_STRING,
+            settings.bearerToken
         )
         //语音合成服务簇
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_TTS_ADDRESS_STRING,
-            context.getString(R.string.tts_service_address)
+            ttsConfig.serviceAddress
         )
         //语音合成服务接口
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_TTS_URI_STRING,
-            context.getString(R.string.tts_service_api_path)
+            ttsConfig.serviceApiPath
         )
         //语音合成服务所用服务簇ID
-        mSpeechEngine!!.setOptionString(
-            SpeechEngineDefines.PARAMS_KEY_TTS_CLUSTER_STRING, serviceCluster
+        speechEngine.setOptionString(
+            SpeechEngineDefines.PARAMS_KEY_TTS_CLUSTER_STRING, settings.serviceCluster
         )
-        //是否返回音频数据
-        mSpeechEngine!!.setOptionInt(
+        //是否返回音频数据(无播放器模式下音频只能通过数据回调获取)
+        speechEngine.setOptionInt(
             SpeechEngineDefines.PARAMS_KEY_TTS_DATA_CALLBACK_MODE_INT,
-            SpeechEngineDefines.TTS_DATA_CALLBACK_MODE_NONE
+            if (isHeadless) SpeechEngineDefines.TTS_DATA_CALLBACK_MODE_ALL
+            else SpeechEngineDefines.TTS_DATA_CALLBACK_MODE_NONE
         )
         //在线合成使用的音色代号
-        mSpeechEngine!!.setOptionString(
-            SpeechEngineDefines.PARAMS_KEY_TTS_VOICE_TYPE_ONLINE_STRING, speakerId
+        speechEngine.setOptionString(
+            SpeechEngineDefines.PARAMS_KEY_TTS_VOICE_TYPE_ONLINE_STRING, settings.selectedSpeakerId
         )
         //在线合成使用的“发音人类型”
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_TTS_VOICE_ONLINE_STRING, Constants.VOICE
         )
         //是否使用SDK内置播放器播放合成出的音频
-        mSpeechEngine!!.setOptionBoolean(
-            SpeechEngineDefines.PARAMS_KEY_TTS_ENABLE_PLAYER_BOOL, true
+        speechEngine.setOptionBoolean(
+            SpeechEngineDefines.PARAMS_KEY_TTS_ENABLE_PLAYER_BOOL, !isHeadless
         )
         //是否启用在线合成的情感预测功能
-        mSpeechEngine!!.setOptionBoolean(
+        speechEngine.setOptionBoolean(
             SpeechEngineDefines.PARAMS_KEY_TTS_WITH_INTENT_BOOL,
-            isEmotional
+            settings.isEmotional
         )
         //User ID（用以辅助定位线上用户问题）
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_UID_STRING,
-            generateMD5(token)
+            settings.uid
         )
         //Device ID（用以辅助定位线上用户问题）
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_DEVICE_ID_STRING,
-            getDeviceId()
+            settings.deviceId
         )
-
-        isCreated = true
     }
 
     /**
      * 启动引擎
+     * @param sink 本次合成作业的音频接收端, 引擎回调只写入该接收端
      */
     fun startEngine(
         text: CharSequence?,
         speedRatio: Int?,
         volumeRatio: Int?,
-        pitchRatio: Int?
+        pitchRatio: Int?,
+        sink: SynthesisAudioSink
+    ) {
+        start(text, speedRatio, volumeRatio, pitchRatio, sink, null)
+    }
+
+    /**
+     * 以连续合成模式启动引擎
+     * 在同一个引擎会话内依次合成全部文本片段, 避免为每个片段重复执行 SYNC_STOP/START
+     * @param segments 文本片段(每段不超过80字)
+     */
+    fun startContinuousEngine(
+        segments: List<String>,
+        speedRatio: Int?,
+        volumeRatio: Int?,
+        pitchRatio: Int?,
+        sink: SynthesisAudioSink
+    ) {
+        val isHeadless = mEngineKey?.isHeadless ?: false
+        start(segments.first(), speedRatio, volumeRatio, pitchRatio, sink, ContinuousSynthesis(segments, isHeadless))
+    }
+
+    @Synchronized
+    private fun start(
+        text: CharSequence?,
+        speedRatio: Int?,
+        volumeRatio: Int?,
+        pitchRatio: Int?,
+        sink: SynthesisAudioSink,
+        continuous: ContinuousSynthesis?
     ) {
         if (!isCreated) {
             Log.e(LogTag.SDK_ERROR, "语音合成引擎未成功创建,无法执行合成参数配置操作")
             mainHandler.post {
                 Toast.makeText(context, "语音合成引擎未成功创建", Toast.LENGTH_SHORT).show()
             }
+            sink.onFinished(true, "语音合成引擎未成功创建")
+            return
         }
-        var ret = mSpeechEngine!!.initEngine()
-        if (ret != SpeechEngineDefines.ERR_NO_ERROR) {
-            Log.e(LogTag.SDK_ERROR, "引擎初始化失败: $ret")
-            mainHandler.post {
-                Toast.makeText(context, "引擎初始化失败: $ret", Toast.LENGTH_SHORT).show()
-            }
-        }
-        mSpeechEngine!!.setListener(synthesisEngineListener)
-
         // Directive：启动引擎前调用SYNC_STOP指令，保证前一次请求结束。
-        ret = mSpeechEngine!!.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNC_STOP_ENGINE, "")
+        var ret = mSpeechEngine!!.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNC_STOP_ENGINE, "")
         if (ret != SpeechEngineDefines.ERR_NO_ERROR) {
             Log.e(LogTag.SDK_ERROR, "历史引擎关闭失败: $ret")
+            pipelineMetrics.recordError(PipelineMetrics.ERROR_DOMAIN_SDK, ret)
             mainHandler.post {
                 Toast.makeText(context, "历史引擎关闭失败: $ret", Toast.LENGTH_SHORT).show()
             }
+            sink.onFinished(true, "历史引擎关闭失败: $ret")
         } else {
+            // 为本次启动绑定新的会话监听器, 此前会话的迟到回调将被直接丢弃
+            mSessionListener?.deactivate()
+            val sessionListener = synthesisEngineListener.newSessionListener(
+                sessionIdGenerator.incrementAndGet(), mSpeechEngine!!, sink, continuous
+            )
+            mSessionListener = sessionListener
+            mSpeechEngine!!.setListener(sessionListener)
+
+            //工作场景: 连续合成使用听书场景, 由监听器在合成结束回调中逐句发送合成指令
+            mSpeechEngine!!.setOptionString(
+                SpeechEngineDefines.PARAMS_KEY_TTS_SCENARIO_STRING,
+                if (continuous != null) SpeechEngineDefines.TTS_SCENARIO_TYPE_NOVEL
+                else SpeechEngineDefines.TTS_SCENARIO_TYPE_NORMAL
+            )
             setTTSParams(text, speedRatio, volumeRatio, pitchRatio)
+            sessionListener.onStartDirective()
             ret = mSpeechEngine!!.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, "")
             if (ret != SpeechEngineDefines.ERR_NO_ERROR) {
                 Log.e(LogTag.SDK_ERROR, "引擎启动失败: $ret")
+                pipelineMetrics.recordError(PipelineMetrics.ERROR_DOMAIN_SDK, ret)
                 mainHandler.post {
                     Toast.makeText(context, "引擎启动失败: $ret", Toast.LENGTH_SHORT).show()
                 }
+                sink.onFinished(true, "引擎启动失败: $ret")
             }
         }
-
-        ttsContext.isAudioQueueDone.set(false)
-        ttsContext.isTTSEngineError.set(false)
-        ttsContext.currentEngineState.set(SpeechEngineDefines.ERR_NO_ERROR)
-        ttsContext.currentEngineMsg.set("")
     }
 
     /**
@@ -193,6 +303,17 @@ class SynthesisEngine(private val context: Context) {
         speedRatio: Int?,
         volumeRatio: Int?,
         pitchRatio: Int?
+    ) {
+        applyTTSParams(mSpeechEngine!!, text, speedRatio, volumeRatio, pitchRatio)
+        isParametersBeenSet = true
+    }
+
+    private fun applyTTSParams(
+        speechEngine: BackendEngine,
+        text: CharSequence?,
+        speedRatio: Int?,
+        volumeRatio: Int?,
+        pitchRatio: Int?
     ) {
         if (text.isNullOrBlank()) {
             Log.e(LogTag.ERROR, "待合成文本为空")
@@ -208,40 +329,38 @@ class SynthesisEngine(private val context: Context) {
         }
 
         //需合成的文本，不可超过 80 字
-        mSpeechEngine!!.setOptionString(
+        speechEngine.setOptionString(
             SpeechEngineDefines.PARAMS_KEY_TTS_TEXT_STRING, text as String
         )
 
 
         //用于控制 TTS 音频的语速，支持的配置范围参考火山官网 语音技术/语音合成/离在线语音合成SDK/参数说明 文档
         if (speedRatio != null) {
-            mSpeechEngine!!.setOptionInt(
+            speechEngine.setOptionInt(
                 SpeechEngineDefines.PARAMS_KEY_TTS_SPEED_INT,
                 speedRatio / 10
             )
         }
         //用于控制 TTS 音频的音量，支持的配置范围参考火山官网 语音技术/语音合成/离在线语音合成SDK/参数说明 文档
         if (volumeRatio != null) {
-            mSpeechEngine!!.setOptionInt(
+            speechEngine.setOptionInt(
                 SpeechEngineDefines.PARAMS_KEY_TTS_VOLUME_INT,
                 volumeRatio / 10
             )
         }
         //用于控制 TTS 音频的音高，支持的配置范围参考火山官网 语音技术/语音合成/离在线语音合成SDK/参数说明 文档
         if (pitchRatio != null) {
-            mSpeechEngine!!.setOptionInt(
+            speechEngine.setOptionInt(
                 SpeechEngineDefines.PARAMS_KEY_TTS_PITCH_INT,
                 pitchRatio / 10
             )
         }
-
-        isParametersBeenSet = true
     }
 
     /**
      * 获取引擎
      */
-    fun getEngine(): SpeechEngine? {
+    fun getEngine(): BackendEngine? {
         if (!isParametersBeenSet) {
             Log.i(LogTag.INFO, "引擎参数未初始化")
         }
@@ -249,63 +368,55 @@ class SynthesisEngine(private val context: Context) {
     }
 
     /**
-     * 销毁引擎
+     * 释放引擎
+     * 停止当前合成作业并将引擎归还至引擎池, 以便后续片段或请求复用;
+     * 停止在引擎池的独立线程中异步执行, 本方法立即返回
      */
-    fun destroy() {
-        if (mSpeechEngine != null) {
-            mSpeechEngine!!.destroyEngine()
+    @Synchronized
+    fun release() {
+        // 使当前会话失效, 停止过程中产生的回调不再写入其音频接收端
+        detachSessionListener()
+        val speechEngine = mSpeechEngine
+        val engineKey = mEngineKey
+        if (speechEngine != null) {
             mSpeechEngine = null
+            if (isCreated && engineKey != null) {
+                synthesisEnginePool.recycle(engineKey, mEngineToken, speechEngine)
+            } else {
+                synthesisEnginePool.destroy(speechEngine)
+            }
         }
         isCreated = false
         isParametersBeenSet = false
-
-        ttsContext.isAudioQueueDone.set(false)
-        ttsContext.isTTSEngineError.set(false)
-        ttsContext.currentEngineState.set(SpeechEngineDefines.ERR_NO_ERROR)
-        ttsContext.currentEngineMsg.set("")
-
-        Log.i(LogTag.INFO, "引擎已销毁, 等待350毫秒以避免SDK历史回调通知对后续任务造成干扰...")
-        Thread.sleep(350)
     }
 
     /**
-     * 获取设备ID
+     * 销毁引擎(在引擎池的独立线程中异步执行)
      */
-    private fun getDeviceId(): String {
-        // 使用设备硬件信息组合生成设备ID
-        val sb = StringBuilder()
-        sb.append(Build.BOARD).append("/")
-        sb.append(Build.BRAND).append("/")
-        sb.append(Build.DEVICE).append("/")
-        sb.append(Build.HARDWARE).append("/")
-        sb.append(Build.MODEL).append("/")
-        sb.append(Build.PRODUCT).append("/")
-        sb.append(Build.TAGS).append("/")
-        sb.append(Build.TYPE).append("/")
-        sb.append(Build.USER)
+    @Synchronized
+    fun destroy() {
+        // 使当前会话失效, 已销毁引擎的历史回调会被直接丢弃, 无需再等待
+        detachSessionListener()
+        if (mSpeechEngine != null) {
+            synthesisEnginePool.destroy(mSpeechEngine!!)
+            mSpeechEngine = null
+        }
+        isCreated = false
+        isParametersBeenSet = false
 
-        return generateMD5(sb.toString())
+        Log.i(LogTag.INFO, "引擎已销毁")
     }
 
     /**
-     * 生成字符串的MD5摘要
+     * 解除当前会话监听器
+     * 若该会话尚未结束(例如引擎被新的请求抢占或音频输出出错), 中断其音频接收端:
+     * 等待方不会永久阻塞, 阻塞在接收端上的SDK回调线程也会被唤醒, 引擎池的SYNC_STOP得以返回
      */
-    private fun generateMD5(input: String): String {
-        return try {
-            val md = MessageDigest.getInstance("MD5")
-            val messageDigest = md.digest(input.toByteArray())
-            val hexString = StringBuilder()
-            for (b in messageDigest) {
-                val hex = Integer.toHexString(0xFF and b.toInt())
-                if (hex.length == 1) {
-                    hexString.append('0')
-                }
-                hexString.append(hex)
-            }
-            hexString.toString()
-        } catch (e: NoSuchAlgorithmException) {
-            Log.e(LogTag.ERROR, "MD5 algorithm not available", e)
-            ""
+    private fun detachSessionListener() {
+        mSessionListener?.let {
+            it.deactivate()
+            it.sink.interrupt("合成作业已被中断")
         }
+        mSessionListener = null
     }
 }
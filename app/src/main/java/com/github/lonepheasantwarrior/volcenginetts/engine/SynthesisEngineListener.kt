@@ -6,119 +6,279 @@ import android.os.Looper
 import android.util.Log
 import android.widget.Toast
 import com.bytedance.speech.speechengine.SpeechEngineDefines
-import com.github.lonepheasantwarrior.volcenginetts.TTSApplication
 import com.github.lonepheasantwarrior.volcenginetts.common.LogTag
-import com.github.lonepheasantwarrior.volcenginetts.tts.TTSContext
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
 
 /**
  * 语音合成引擎回调监听服务
+ * 每次启动引擎都会创建一个绑定到该次合成作业的[SessionListener], 回调只写入作业自己的[SynthesisAudioSink]
+ *
+ * 捕获模式: 提供[traceWriter]时, 每个会话收到的全部回调(包括会话失效后的迟到回调)被记录为[CallbackTrace],
+ * 收到ENGINE_STOP或ENGINE_ERROR时写入轨迹文件, 用于离线回放
+ * @param metrics 记录引擎启动、首个音频数据、片段合成耗时与SDK错误的运行统计
+ * @param traceWriter 回调轨迹写入器, 为null时不记录
  */
-class SynthesisEngineListener(private val context: Context): com.bytedance.speech.speechengine.SpeechEngine.SpeechListener {
+class SynthesisEngineListener(
+    private val context: Context,
+    private val metrics: PipelineMetrics = PipelineMetrics(),
+    val traceWriter: CallbackTraceWriter? = null
+) {
     private val mainHandler = Handler(Looper.getMainLooper())
-    private val synthesisEngine: SynthesisEngine get() = (context as TTSApplication).synthesisEngine
-    private val ttsContext: TTSContext get() = (context as TTSApplication).ttsContext
-    
-    // 定义一个特殊的空字节数组，用于表示控制信号而不是实际的音频数据
-    private val controlSignal = ByteArray(0)
-
-    override fun onSpeechMessage(type: Int, data: ByteArray?, len: Int) {
-        ttsContext.currentEngineState.set(type)
-        var stdData = ""
-        if (data != null && data.isNotEmpty()) {
-            stdData = String(data)
+
+    /**
+     * 绑定到单次合成作业的SDK回调监听器
+     * @param sessionId 会话ID
+     * @param speechEngine 该会话所使用的引擎实例
+     * @param sink 该会话的音频接收端
+     * @param continuous 连续合成作业状态, 单句合成时为null
+     */
+    inner class SessionListener(
+        val sessionId: Long,
+        private val speechEngine: BackendEngine,
+        val sink: SynthesisAudioSink,
+        private val continuous: ContinuousSynthesis?
+    ) : BackendEngine.Listener {
+        @Volatile
+        private var isActive = true
+        // 会话结束(收到终止回调)后置为null, 不再记录
+        @Volatile
+        private var traceRecorder: CallbackTrace.Recorder? =
+            if (traceWriter != null) CallbackTrace.Recorder(continuous?.size ?: 1) else null
+        // 发送START指令的时间, 0表示尚未发送
+        @Volatile
+        private var startDirectiveNanos = 0L
+        // 以下字段仅在SDK回调线程中访问
+        private var segmentStartNanos = 0L
+        private var hasAudio = false
+
+        /**
+         * 即将发送START指令(合成线程), 作为引擎启动、首个音频数据与首个片段耗时的起点
+         */
+        fun onStartDirective() {
+            startDirectiveNanos = System.nanoTime()
         }
 
-        if (ttsContext.isTTSInterrupted.get()) {
-            Log.w(LogTag.INFO, "收到语音合成作业中断信号, 忽略合成引擎回调: $stdData")
-            return
+        /**
+         * 使监听器失效, 引擎停止或销毁后的迟到回调将被直接丢弃
+         */
+        fun deactivate() {
+            isActive = false
         }
 
-        ttsContext.currentEngineMsg.set(stdData)
+        override fun onSpeechMessage(type: Int, data: ByteArray?, len: Int) {
+            traceRecorder?.let { recordTrace(it, type, data, len) }
+            if (!isActive || sink.isClosed) {
+                Log.d(LogTag.SDK_INFO, "丢弃已失效会话($sessionId)的引擎回调: $type")
+                return
+            }
+            recordStage(type, data)
+            onSpeechMessage(speechEngine, sink, continuous, type, data)
+        }
 
-        when (type) {
-            SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START -> {
-                Log.d(LogTag.SDK_INFO, "引擎启动通知: $stdData")
-                val speechEngine = synthesisEngine.getEngine()
-                if (speechEngine == null) {
-                    Log.e(LogTag.SDK_ERROR, "未能获取到语音合成引擎实例")
-                    mainHandler.post {
-                        Toast.makeText(context, "未能获取到语音合成引擎实例", Toast.LENGTH_SHORT).show()
+        private fun recordStage(type: Int, data: ByteArray?) {
+            val startNanos = startDirectiveNanos
+            if (startNanos == 0L) {
+                return
+            }
+            when (type) {
+                SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START -> {
+                    metrics.record(PipelineMetrics.Stage.ENGINE_START, startNanos)
+                }
+
+                SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA -> {
+                    if (!hasAudio && data != null && data.isNotEmpty()) {
+                        hasAudio = true
+                        metrics.record(PipelineMetrics.Stage.FIRST_AUDIO_BYTE, startNanos)
                     }
-                    return
                 }
+
+                // 连续合成时下一片段紧接着上一片段的音频结束开始合成
+                SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END -> {
+                    val now = System.nanoTime()
+                    metrics.histogram(PipelineMetrics.Stage.SEGMENT)
+                        .recordMicros((now - if (segmentStartNanos == 0L) startNanos else segmentStartNanos) / 1000)
+                    segmentStartNanos = now
+                }
+            }
+        }
+
+        private fun recordTrace(recorder: CallbackTrace.Recorder, type: Int, data: ByteArray?, len: Int) {
+            recorder.record(type, data, len)
+            if (type == SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP || type == SpeechEngineDefines.MESSAGE_TYPE_ENGINE_ERROR) {
+                traceRecorder = null
+                traceWriter?.write(sessionId, recorder.finish())
+            }
+        }
+    }
+
+    /**
+     * 创建绑定到指定会话的SDK回调监听器
+     */
+    fun newSessionListener(
+        sessionId: Long,
+        speechEngine: BackendEngine,
+        sink: SynthesisAudioSink,
+        continuous: ContinuousSynthesis? = null
+    ): SessionListener {
+        return SessionListener(sessionId, speechEngine, sink, continuous)
+    }
+
+    private fun onSpeechMessage(
+        speechEngine: BackendEngine,
+        sink: SynthesisAudioSink,
+        continuous: ContinuousSynthesis?,
+        type: Int,
+        data: ByteArray?
+    ) {
+        // 音频数据回调直接写入接收端, 不做任何解码
+        when (type) {
+            SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA -> {
+                if (data != null && data.isNotEmpty()) {
+                    sink.onAudio(data)
+                }
+                if (Log.isLoggable(LogTag.SDK_INFO, Log.VERBOSE)) {
+                    Log.v(LogTag.SDK_INFO, "引擎音频数据通知, 数据大小: ${data?.size ?: 0}")
+                }
+            }
+
+            SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END -> {
+                if (data != null && data.isNotEmpty()) {
+                    sink.onAudio(data)
+                }
+                Log.d(LogTag.SDK_INFO, "引擎音频数据(END)通知, 数据大小: ${data?.size ?: 0}")
+                // 无播放器模式下不会收到播放结束回调, 以音频数据结束作为片段完成的标志
+                if (continuous == null || (continuous.isHeadless && continuous.onSegmentFinished())) {
+                    sink.onFinished(false, "")
+                }
+            }
+
+            else -> onControlMessage(speechEngine, sink, continuous, EngineMessage(type, data))
+        }
+    }
+
+    private fun onControlMessage(
+        speechEngine: BackendEngine,
+        sink: SynthesisAudioSink,
+        continuous: ContinuousSynthesis?,
+        message: EngineMessage
+    ) {
+        when (message.type) {
+            SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START -> {
+                logControlMessage("引擎启动通知", message)
                 //连续合成场景下，使用该指令触发一次合成，可以多次调用。推荐的调用策略如下：
                 //第一句文本，直接调用；
                 //非首句文本，在收到 合成结束回调 后发送；
                 //使用 SDK 内置播放器时，如果返回值为 ERR_SYNTHESIS_PLAYER_IS_BUSY，表明内部缓存已经耗尽，应该在收到下一个 播放结回调时 再次调用；
                 //“合成”指令必须要在收到 MESSAGE_TYPE_ENGINE_START 后发送
-                speechEngine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNTHESIS, "")
+                if (continuous == null) {
+                    speechEngine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNTHESIS, "")
+                } else {
+                    triggerNextSynthesis(speechEngine, sink, continuous)
+                }
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP -> {
-                Log.d(LogTag.SDK_INFO, "引擎关闭通知: $stdData")
-                ttsContext.isAudioQueueDone.set(true)
-                ttsContext.audioDataQueue.put(controlSignal)
+                logControlMessage("引擎关闭通知", message)
+                sink.onFinished(false, "")
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_ENGINE_ERROR -> {
-                ttsContext.isAudioQueueDone.set(true)
-                ttsContext.isTTSEngineError.set(true)
-                ttsContext.audioDataQueue.put(controlSignal)
-                Log.e(LogTag.SDK_ERROR, "引擎错误通知: $stdData")
+                val error = message.error
+                Log.e(LogTag.SDK_ERROR, "引擎错误通知(${error.code}): ${error.message}")
+                metrics.recordError(PipelineMetrics.ERROR_DOMAIN_SDK, error.code)
+                sink.onFinished(true, error.message)
                 mainHandler.post {
-                    Toast.makeText(context, "引擎错误: $stdData", Toast.LENGTH_SHORT).show()
+                    Toast.makeText(context, "引擎错误: ${error.message}", Toast.LENGTH_SHORT).show()
                 }
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_BEGIN -> {
-                Log.d(LogTag.SDK_INFO, "引擎语音合成开始通知: $stdData")
+                logControlMessage("引擎语音合成开始通知", message)
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_END -> {
-                Log.d(LogTag.SDK_INFO, "引擎语音合成结束通知: $stdData")
+                logControlMessage("引擎语音合成结束通知", message)
+                if (continuous != null && !continuous.isWaitingForPlayer) {
+                    triggerNextSynthesis(speechEngine, sink, continuous)
+                }
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_TTS_START_PLAYING -> {
-                Log.d(LogTag.SDK_INFO, "引擎语音播放开始通知: $stdData")
-                ttsContext.isAudioQueueDone.set(false)
-                ttsContext.audioDataQueue.put(controlSignal)
+                logControlMessage("引擎语音播放开始通知", message)
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_TTS_PLAYBACK_PROGRESS -> {
-                Log.d(LogTag.SDK_INFO, "引擎语音播放进度通知: $stdData")
-                ttsContext.isAudioQueueDone.set(false)
-                ttsContext.audioDataQueue.put(controlSignal)
+                // 播放进度回调频繁, 仅在开启详细日志时解码其内容
+                if (Log.isLoggable(LogTag.SDK_INFO, Log.VERBOSE)) {
+                    Log.v(LogTag.SDK_INFO, "引擎语音播放进度通知: $message")
+                }
             }
 
             SpeechEngineDefines.MESSAGE_TYPE_TTS_FINISH_PLAYING -> {
-                Log.d(LogTag.SDK_INFO, "引擎语音播放结束通知: $stdData")
-                ttsContext.isAudioQueueDone.set(true)
-                ttsContext.audioDataQueue.put(controlSignal)
+                logControlMessage("引擎语音播放结束通知", message)
+                if (continuous != null) {
+                    if (continuous.isHeadless) {
+                        return
+                    }
+                    if (continuous.isWaitingForPlayer) {
+                        triggerNextSynthesis(speechEngine, sink, continuous)
+                    }
+                    // 连续合成时仅在最后一个片段播放结束后才视为作业完成
+                    if (continuous.onSegmentFinished()) {
+                        sink.onFinished(false, "")
+                    }
+                } else {
+                    sink.onFinished(false, "")
+                }
             }
 
-            SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA -> {
-                var dataSize = 0
-                if (data != null) {
-                    dataSize = data.size
-                }
-                Log.d(LogTag.SDK_INFO, "引擎音频数据通知, 数据大小: $dataSize")
-                ttsContext.isAudioQueueDone.set(false)
-                ttsContext.audioDataQueue.put(data)
+            else -> {
+                logControlMessage("引擎通知(${message.type})", message)
             }
+        }
+    }
 
-            SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END -> {
-                var dataSize = 0
-                if (data != null) {
-                    dataSize = data.size
-                }
-                Log.d(LogTag.SDK_INFO, "引擎音频数据(END)通知, 数据大小: $dataSize")
-                ttsContext.isAudioQueueDone.set(true)
-                ttsContext.audioDataQueue.put(data)
+    /**
+     * 输出引擎通知日志
+     * 通知内容需解码为文本, 仅在开启调试日志(adb shell setprop log.tag.SDK_INFO DEBUG)时输出, 否则只记录数据大小
+     */
+    private fun logControlMessage(label: String, message: EngineMessage) {
+        if (Log.isLoggable(LogTag.SDK_INFO, Log.DEBUG)) {
+            Log.d(LogTag.SDK_INFO, "$label: $message")
+        } else {
+            Log.d(LogTag.SDK_INFO, "$label, 数据大小: ${message.size}")
+        }
+    }
+
+    /**
+     * 连续合成: 设置下一句文本并发送合成指令
+     */
+    private fun triggerNextSynthesis(
+        speechEngine: BackendEngine,
+        sink: SynthesisAudioSink,
+        continuous: ContinuousSynthesis
+    ) {
+        if (!continuous.hasNext()) {
+            continuous.isWaitingForPlayer = false
+            return
+        }
+        speechEngine.setOptionString(SpeechEngineDefines.PARAMS_KEY_TTS_TEXT_STRING, continuous.peek())
+        val ret = speechEngine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNTHESIS, "")
+        when (ret) {
+            SpeechEngineDefines.ERR_NO_ERROR -> {
+                continuous.isWaitingForPlayer = false
+                continuous.advance()
+            }
+
+            SpeechEngineDefines.ERR_SYNTHESIS_PLAYER_IS_BUSY -> {
+                Log.d(LogTag.SDK_INFO, "内置播放器缓存已满, 等待播放结束后再发送下一句")
+                continuous.isWaitingForPlayer = true
             }
 
             else -> {
-                Log.d(LogTag.SDK_INFO, "引擎通知($type): $stdData")
+                Log.e(LogTag.SDK_ERROR, "连续合成指令发送失败: $ret")
+                sink.onFinished(true, "连续合成指令发送失败: $ret")
             }
         }
     }
-}
\ No newline at end of file
+}
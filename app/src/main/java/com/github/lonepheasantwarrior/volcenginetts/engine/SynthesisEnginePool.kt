@@ -0,0 +1,182 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import android.os.SystemClock
+import android.util.Log
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * 语音合成引擎池
+ *
+ * 按(appId, 服务簇, 音色, 情感朗读, 是否无播放器)缓存已完成初始化的引擎实例, 使其可以跨片段、跨请求复用,
+ * 避免每次合成都重复执行 createEngine/initEngine; 空闲超过指定时长的引擎会被回收销毁
+ * @param metrics 记录引擎停止与销毁耗时([PipelineMetrics.Stage.TEARDOWN])的运行统计
+ */
+class SynthesisEnginePool(
+    private val metrics: PipelineMetrics = PipelineMetrics(),
+    private val idleTimeoutMillis: Long = DEFAULT_IDLE_TIMEOUT_MILLIS,
+    private val maxIdlePerKey: Int = DEFAULT_MAX_IDLE_PER_KEY
+) {
+    /**
+     * 引擎池键
+     * @param isHeadless 是否为不启用内置播放器、仅回调音频数据的引擎
+     */
+    data class EngineKey(
+        val appId: String,
+        val serviceCluster: String,
+        val speakerId: String,
+        val isEmotional: Boolean,
+        val isHeadless: Boolean
+    )
+
+    /**
+     * 空闲引擎
+     * @param token 创建引擎时使用的令牌, 令牌变化后该引擎不可再复用
+     * @param releasedAt 归还时间
+     */
+    private class IdleEngine(
+        val engine: BackendEngine,
+        val token: String,
+        val releasedAt: Long
+    )
+
+    private val idleEngines = HashMap<EngineKey, ArrayDeque<IdleEngine>>()
+    private val evictionExecutor: ScheduledExecutorService =
+        Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "SynthesisEnginePool-evictor").apply { isDaemon = true }
+        }
+    // 引擎停止(SYNC_STOP)与销毁可能耗时数百毫秒, 统一在独立线程中执行, 不阻塞合成线程与Binder线程
+    private val teardownExecutor: ExecutorService =
+        Executors.newSingleThreadExecutor { runnable ->
+            Thread(runnable, "SynthesisEnginePool-teardown").apply { isDaemon = true }
+        }
+
+    /**
+     * 取出可复用的引擎实例
+     * @return 已初始化的空闲引擎, 若不存在则返回null(由调用方自行创建)
+     */
+    fun acquire(key: EngineKey, token: String): BackendEngine? {
+        val staleEngines = ArrayList<BackendEngine>()
+        var engine: BackendEngine? = null
+        synchronized(idleEngines) {
+            val queue = idleEngines[key] ?: return null
+            while (engine == null && queue.isNotEmpty()) {
+                val idleEngine = queue.removeLast()
+                if (idleEngine.token == token) {
+                    engine = idleEngine.engine
+                } else {
+                    staleEngines.add(idleEngine.engine)
+                }
+            }
+            if (queue.isEmpty()) {
+                idleEngines.remove(key)
+            }
+        }
+        staleEngines.forEach { destroyQuietly(it) }
+        if (engine != null) {
+            Log.d(LogTag.INFO, "复用引擎池中的空闲引擎: $key")
+        }
+        return engine
+    }
+
+    /**
+     * 归还引擎实例
+     * 调用方须保证引擎已停止当前合成作业
+     */
+    fun release(key: EngineKey, token: String, engine: BackendEngine) {
+        var overflow: BackendEngine? = null
+        synchronized(idleEngines) {
+            val queue = idleEngines.getOrPut(key) { ArrayDeque() }
+            queue.addLast(IdleEngine(engine, token, SystemClock.elapsedRealtime()))
+            if (queue.size > maxIdlePerKey) {
+                overflow = queue.removeFirst().engine
+            }
+        }
+        overflow?.let { destroyQuietly(it) }
+        evictionExecutor.schedule({ evictIdle() }, idleTimeoutMillis, TimeUnit.MILLISECONDS)
+    }
+
+    /**
+     * 异步停止引擎的当前合成作业并归还至引擎池, 停止失败时直接销毁
+     * 调用方须先使引擎当前的会话监听器失效, 停止过程中产生的回调将被丢弃
+     */
+    fun recycle(key: EngineKey, token: String, engine: BackendEngine) {
+        teardownExecutor.execute {
+            val startNanos = System.nanoTime()
+            val ret = engine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNC_STOP_ENGINE, "")
+            if (ret == SpeechEngineDefines.ERR_NO_ERROR) {
+                release(key, token, engine)
+            } else {
+                Log.w(LogTag.SDK_ERROR, "引擎停止失败($ret), 直接销毁")
+                metrics.recordError(PipelineMetrics.ERROR_DOMAIN_SDK, ret)
+                destroyQuietly(engine)
+            }
+            metrics.record(PipelineMetrics.Stage.TEARDOWN, startNanos)
+        }
+    }
+
+    /**
+     * 异步销毁引擎
+     */
+    fun destroy(engine: BackendEngine) {
+        teardownExecutor.execute {
+            val startNanos = System.nanoTime()
+            destroyQuietly(engine)
+            metrics.record(PipelineMetrics.Stage.TEARDOWN, startNanos)
+        }
+    }
+
+    /**
+     * 回收空闲超时的引擎
+     */
+    fun evictIdle() {
+        val now = SystemClock.elapsedRealtime()
+        val expiredEngines = ArrayList<BackendEngine>()
+        synchronized(idleEngines) {
+            val iterator = idleEngines.values.iterator()
+            while (iterator.hasNext()) {
+                val queue = iterator.next()
+                while (queue.isNotEmpty() && now - queue.first().releasedAt >= idleTimeoutMillis) {
+                    expiredEngines.add(queue.removeFirst().engine)
+                }
+                if (queue.isEmpty()) {
+                    iterator.remove()
+                }
+            }
+        }
+        if (expiredEngines.isNotEmpty()) {
+            Log.i(LogTag.INFO, "回收空闲超时引擎 ${expiredEngines.size} 个")
+        }
+        expiredEngines.forEach { destroyQuietly(it) }
+    }
+
+    /**
+     * 销毁池中全部空闲引擎
+     */
+    fun clear() {
+        val allEngines = ArrayList<BackendEngine>()
+        synchronized(idleEngines) {
+            idleEngines.values.forEach { queue -> queue.forEach { allEngines.add(it.engine) } }
+            idleEngines.clear()
+        }
+        allEngines.forEach { destroyQuietly(it) }
+    }
+
+    private fun destroyQuietly(engine: BackendEngine) {
+        try {
+            engine.destroyEngine()
+        } catch (e: Exception) {
+            Log.e(LogTag.SDK_ERROR, "销毁引擎失败: ${e.message}")
+        }
+    }
+
+    companion object {
+        const val DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000L
+        const val DEFAULT_MAX_IDLE_PER_KEY = 4
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import com.bytedance.speech.speechengine.SpeechEngine
+import com.bytedance.speech.speechengine.SpeechEngineGenerator
+
+/**
+ * 火山引擎SDK合成后端
+ * 使用前须已调用 SpeechEngineGenerator.PrepareEnvironment 初始化SDK环境
+ */
+class VolcengineBackend : SynthesisBackend {
+    override fun createEngine(): BackendEngine {
+        val speechEngine = SpeechEngineGenerator.getInstance()
+        speechEngine.createEngine()
+        return VolcengineEngine(speechEngine)
+    }
+
+    /**
+     * SDK引擎实例的适配器
+     */
+    private class VolcengineEngine(private val speechEngine: SpeechEngine) : BackendEngine {
+        override val version: String get() = speechEngine.version
+
+        override fun initEngine(): Int = speechEngine.initEngine()
+
+        override fun destroyEngine() = speechEngine.destroyEngine()
+
+        override fun setListener(listener: BackendEngine.Listener?) {
+            speechEngine.setListener(listener?.let { SpeechEngine.SpeechListener(it::onSpeechMessage) })
+        }
+
+        override fun sendDirective(directive: Int, params: String): Int = speechEngine.sendDirective(directive, params)
+
+        override fun setOptionString(key: String, value: String) = speechEngine.setOptionString(key, value)
+
+        override fun setOptionInt(key: String, value: Int) = speechEngine.setOptionInt(key, value)
+
+        override fun setOptionBoolean(key: String, value: Boolean) = speechEngine.setOptionBoolean(key, value)
+    }
+}
@@ -26,12 +26,49 @@ class SettingsFunction(private val context: Context) {
     private val showWelcomeDialog = "show_welcome_dialog"
 
     private val mainHandler = Handler(Looper.getMainLooper())
-    
+
+    private val preferences: SharedPreferences = context.getSharedPreferences(prefsName, Context.MODE_PRIVATE)
+
+    // 当前设置快照, 仅在设置变更时重新生成, 合成请求直接读取, 不访问SharedPreferences
+    @Volatile
+    private var snapshot: SettingsData = loadSettings()
+
+    // SharedPreferences只持有监听器的弱引用, 须由字段保持强引用
+    private val preferenceChangeListener = SharedPreferences.OnSharedPreferenceChangeListener { _, key ->
+        // key为null表示设置被整体清空
+        if (key == null || key in settingKeys()) {
+            snapshot = loadSettings()
+            Log.d(LogTag.INFO, "配置已变更, 刷新设置快照")
+        }
+    }
+
+    init {
+        preferences.registerOnSharedPreferenceChangeListener(preferenceChangeListener)
+    }
+
     /**
      * 获取SharedPreferences实例
      */
     private fun getPreferences(): SharedPreferences {
-        return context.getSharedPreferences(prefsName, Context.MODE_PRIVATE)
+        return preferences
+    }
+
+    private fun settingKeys(): Array<String> {
+        return arrayOf(appId, token, speakerId, serviceCluster, isEmotional)
+    }
+
+    /**
+     * 从SharedPreferences读取设置并生成快照
+     * 令牌派生值(含MD5摘要)随快照一并算出, 合成请求读取快照时无需再计算
+     */
+    private fun loadSettings(): SettingsData {
+        val prefs = getPreferences()
+        val appId = prefs.getString(appId, "") ?: ""
+        val token = prefs.getString(token, "") ?: ""
+        val selectedSpeakerId = prefs.getString(speakerId, "") ?: ""
+        val serviceCluster = prefs.getString(serviceCluster, "") ?: ""
+        val isEmotional = prefs.getBoolean(isEmotional, false)
+        return SettingsData(appId, token, selectedSpeakerId, serviceCluster, isEmotional)
     }
     
     /**
@@ -50,6 +87,8 @@ class SettingsFunction(private val context: Context) {
             putString(this@SettingsFunction.serviceCluster, serviceCluster)
             putBoolean(this@SettingsFunction.isEmotional, isEmotional)
         }
+        // 立即更新快照, 不必等待变更监听器回调
+        snapshot = SettingsData(appId, token, selectedSpeakerId, serviceCluster, isEmotional)
         Log.d(LogTag.INFO, "配置已保存")
         mainHandler.post {
             Toast.makeText(context, "保存成功", Toast.LENGTH_SHORT).show()
@@ -58,16 +97,10 @@ class SettingsFunction(private val context: Context) {
     
     /**
      * 获取设置信息
-     * @return 包含appId、token、selectedSpeakerId和serviceCluster的SettingsData对象
+     * @return 当前设置快照(不可变), 不涉及SharedPreferences读取
      */
     fun getSettings(): SettingsData {
-        val prefs = getPreferences()
-        val appId = prefs.getString(appId, "") ?: ""
-        val token = prefs.getString(token, "") ?: ""
-        val selectedSpeakerId = prefs.getString(speakerId, "") ?: ""
-        val serviceCluster = prefs.getString(serviceCluster, "") ?: ""
-        val isEmotional = prefs.getBoolean(isEmotional, false)
-        return SettingsData(appId, token, selectedSpeakerId, serviceCluster, isEmotional)
+        return snapshot
     }
     
     /**
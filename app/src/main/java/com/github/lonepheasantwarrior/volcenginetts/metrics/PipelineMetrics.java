@@ -0,0 +1,172 @@
+package com.github.lonepheasantwarrior.volcenginetts.metrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 合成流水线运行统计
+ * 按阶段记录耗时直方图, 并累计合成字符数、输出音频字节数、缓存命中与按错误码分类的错误次数;
+ * 全部计数均为无锁实现, 可在任意线程记录, 运行时通过{@link #dump(PrintWriter)}
+ * (adb shell dumpsys activity service .tts.TTSService)或各查询方法读取
+ */
+public final class PipelineMetrics {
+    /**
+     * SDK回调与指令返回的错误码
+     */
+    public static final String ERROR_DOMAIN_SDK = "sdk";
+    /**
+     * 向系统TTS服务报告的错误码(TextToSpeech.ERROR_*)
+     */
+    public static final String ERROR_DOMAIN_TTS = "tts";
+
+    /**
+     * 流水线阶段
+     */
+    public enum Stage {
+        SETTINGS_LOAD("读取设置"),
+        ENGINE_CREATE("创建引擎"),
+        ENGINE_INIT("初始化引擎"),
+        ENGINE_START("START指令至引擎启动"),
+        FIRST_AUDIO_BYTE("START指令至首个音频数据"),
+        FIRST_AUDIO_AVAILABLE("收到请求至首次提交音频"),
+        SEGMENT("单个片段合成"),
+        STOP("停止至下一段音频"),
+        TEARDOWN("停止/销毁引擎"),
+        REQUEST("合成请求总耗时");
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Stage.values().length];
+    private final AtomicLong charactersSynthesized = new AtomicLong();
+    private final AtomicLong bytesDelivered = new AtomicLong();
+    private final AtomicLong memoryCacheHits = new AtomicLong();
+    private final AtomicLong diskCacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    public PipelineMetrics() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * 记录阶段自{@code startNanos}({@link System#nanoTime()})至今的耗时
+     */
+    public void record(Stage stage, long startNanos) {
+        histogram(stage).recordSince(startNanos);
+    }
+
+    /**
+     * 记录以毫秒计的阶段耗时
+     */
+    public void recordMillis(Stage stage, long millis) {
+        histogram(stage).recordMicros(millis * 1000);
+    }
+
+    public void addCharacters(int count) {
+        charactersSynthesized.addAndGet(count);
+    }
+
+    public void addDeliveredBytes(long count) {
+        bytesDelivered.addAndGet(count);
+    }
+
+    public void recordMemoryCacheHit() {
+        memoryCacheHits.incrementAndGet();
+    }
+
+    public void recordDiskCacheHit() {
+        diskCacheHits.incrementAndGet();
+    }
+
+    public void recordCacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    /**
+     * 记录一次错误
+     *
+     * @param domain 错误码来源({@link #ERROR_DOMAIN_SDK}或{@link #ERROR_DOMAIN_TTS})
+     * @param code   错误码
+     */
+    public void recordError(String domain, int code) {
+        errors.computeIfAbsent(domain + ":" + code, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    public long getCharactersSynthesized() {
+        return charactersSynthesized.get();
+    }
+
+    public long getBytesDelivered() {
+        return bytesDelivered.get();
+    }
+
+    public long getMemoryCacheHits() {
+        return memoryCacheHits.get();
+    }
+
+    public long getDiskCacheHits() {
+        return diskCacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    /**
+     * 缓存命中率(内存与磁盘缓存合计), 尚无请求时为0
+     */
+    public double getCacheHitRate() {
+        long hits = memoryCacheHits.get() + diskCacheHits.get();
+        long total = hits + cacheMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * 按"来源:错误码"分类的错误次数
+     */
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((key, counter) -> counts.put(key, counter.get()));
+        return counts;
+    }
+
+    /**
+     * 输出全部统计(耗时单位为毫秒)
+     */
+    public void dump(PrintWriter writer) {
+        writer.println("合成流水线统计(耗时单位: 毫秒)");
+        writer.println(String.format(Locale.ROOT, "%-24s %8s %9s %9s %9s %9s %9s",
+                "stage", "count", "mean", "p50", "p90", "p99", "max"));
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram.Snapshot snapshot = histogram(stage).snapshot();
+            writer.println(String.format(Locale.ROOT, "%-24s %8d %9.1f %9.1f %9.1f %9.1f %9.1f  %s",
+                    stage.name(), snapshot.getCount(), snapshot.getMeanMicros() / 1000.0,
+                    snapshot.getValueAtPercentile(50) / 1000.0, snapshot.getValueAtPercentile(90) / 1000.0,
+                    snapshot.getValueAtPercentile(99) / 1000.0, snapshot.getMaxMicros() / 1000.0, stage.getLabel()));
+        }
+        writer.println("合成字符数: " + getCharactersSynthesized() + ", 输出音频字节数: " + getBytesDelivered());
+        writer.println(String.format(Locale.ROOT, "缓存命中率: %.1f%% (内存命中 %d, 磁盘命中 %d, 未命中 %d)",
+                getCacheHitRate() * 100, getMemoryCacheHits(), getDiskCacheHits(), getCacheMisses()));
+        writer.println("错误次数: " + getErrorCounts());
+        writer.flush();
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 音频数据块池
+ * 各会话的音频通道从此处取用固定大小的数据块, 输出后归还复用, 稳定播放时不再为每次回调分配新数组
+ */
+public final class AudioBufferPool {
+    private final int chunkSize;
+    private final BlockingQueue<AudioChunk> freeChunks;
+    private final AtomicLong allocatedChunks = new AtomicLong();
+
+    /**
+     * @param chunkSize       单个数据块字节数
+     * @param maxPooledChunks 池中最多保留的空闲数据块数量, 超出部分归还时直接丢弃
+     */
+    public AudioBufferPool(int chunkSize, int maxPooledChunks) {
+        this.chunkSize = chunkSize;
+        this.freeChunks = new ArrayBlockingQueue<>(Math.max(1, maxPooledChunks));
+    }
+
+    /**
+     * 取出一个空闲数据块, 池为空时新建
+     */
+    AudioChunk acquire() {
+        AudioChunk chunk = freeChunks.poll();
+        if (chunk == null) {
+            allocatedChunks.incrementAndGet();
+            chunk = new AudioChunk(chunkSize);
+        }
+        return chunk;
+    }
+
+    /**
+     * 归还数据块
+     */
+    void release(AudioChunk chunk) {
+        freeChunks.offer(chunk);
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 累计新建的数据块数量, 稳定播放时应不再增长
+     */
+    public long getAllocatedChunks() {
+        return allocatedChunks.get();
+    }
+}
@@ -0,0 +1,338 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisAudioSink;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 音频通道
+ * 单个合成作业(或单个预合成片段)独占的有界环形音频队列及其完成/错误状态, 作业之间互不共享;
+ * 引擎回调的音频数据被复制到{@link AudioBufferPool}中的数据块后入队, 消费者输出完毕后归还数据块
+ */
+public final class AudioChannel implements SynthesisAudioSink {
+    /**
+     * 队列已满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /**
+         * 阻塞引擎回调线程直至消费者腾出空间(背压), 不丢弃音频
+         */
+        BLOCK,
+        /**
+         * 丢弃队列中最早的数据块
+         */
+        DROP_OLDEST,
+        /**
+         * 丢弃新到达的数据块
+         */
+        DROP_NEWEST
+    }
+
+    // 特殊的空数据块，用于表示作业结束而不是实际的音频数据
+    private static final AudioChunk END_SIGNAL = new AudioChunk(0);
+
+    private final AudioBufferPool bufferPool;
+    private final OverflowPolicy overflowPolicy;
+    private final SynthesisDeadline deadline;
+    private final AudioChunk[] ring;
+    private int head = 0;
+    private int count = 0;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private volatile boolean closed = false;
+    private volatile boolean error = false;
+    private volatile String errorMessage = "";
+
+    private volatile int highWaterMark = 0;
+    private final AtomicLong droppedChunks = new AtomicLong();
+    private final AtomicLong droppedBytes = new AtomicLong();
+
+    /**
+     * @param bufferPool     数据块池
+     * @param capacity       队列最多容纳的数据块数量
+     * @param overflowPolicy 队列已满时的处理策略
+     */
+    public AudioChannel(AudioBufferPool bufferPool, int capacity, OverflowPolicy overflowPolicy) {
+        this(bufferPool, capacity, overflowPolicy, null);
+    }
+
+    /**
+     * @param deadline 所属请求的时限, 音频入队与取出时更新其进度; 为null表示不限时
+     */
+    AudioChannel(AudioBufferPool bufferPool, int capacity, OverflowPolicy overflowPolicy, SynthesisDeadline deadline) {
+        this.bufferPool = bufferPool;
+        this.overflowPolicy = overflowPolicy;
+        this.deadline = deadline;
+        this.ring = new AudioChunk[Math.max(1, capacity)];
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void onAudio(@NonNull byte[] data) {
+        int offset = 0;
+        while (offset < data.length && !closed) {
+            AudioChunk chunk = bufferPool.acquire();
+            offset += chunk.fill(data, offset);
+            enqueue(chunk);
+        }
+    }
+
+    @Override
+    public void onFinished(boolean isError, @NonNull String message) {
+        // 错误状态须先于结束标记写入(同在锁内), 消费者看到结束时即可读到正确的错误状态
+        lock.lock();
+        try {
+            if (finished.get()) {
+                return;
+            }
+            error = isError;
+            errorMessage = message;
+            finished.set(true);
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 尚未结束时以错误结束作业并关闭通道, 丢弃未取出的音频, 阻塞在{@link #onAudio(byte[])}中的生产者随即返回;
+     * 已结束的作业保留其音频供消费者继续取出
+     */
+    @Override
+    public void interrupt(@NonNull String message) {
+        lock.lock();
+        try {
+            if (finished.get()) {
+                return;
+            }
+            onFinished(true, message);
+            close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void enqueue(AudioChunk chunk) {
+        lock.lock();
+        try {
+            while (count == ring.length && !closed) {
+                if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                    drop(chunk);
+                    return;
+                }
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    drop(dequeueLocked());
+                    break;
+                }
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(chunk);
+                    return;
+                }
+            }
+            if (closed) {
+                bufferPool.release(chunk);
+                return;
+            }
+            ring[(head + count) % ring.length] = chunk;
+            count++;
+            bufferedBytes.addAndGet(chunk.getLength());
+            if (count > highWaterMark) {
+                highWaterMark = count;
+            }
+            if (deadline != null) {
+                deadline.onAudioProduced();
+            }
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AudioChunk dequeueLocked() {
+        AudioChunk chunk = ring[head];
+        ring[head] = null;
+        head = (head + 1) % ring.length;
+        count--;
+        bufferedBytes.addAndGet(-chunk.getLength());
+        notFull.signal();
+        return chunk;
+    }
+
+    private void drop(AudioChunk chunk) {
+        long dropped = droppedChunks.incrementAndGet();
+        droppedBytes.addAndGet(chunk.getLength());
+        bufferPool.release(chunk);
+        if (dropped == 1) {
+            Log.w(LogTag.INFO, "音频通道已满(" + ring.length + "), 按策略 " + overflowPolicy + " 丢弃音频数据");
+        }
+    }
+
+    /**
+     * 取出下一块音频数据, 输出完毕后须调用{@link #recycle(AudioChunk)}归还
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 音频数据; 等待超时返回null; 作业结束或通道关闭返回结束信号(见{@link #isEndSignal(AudioChunk)})
+     */
+    AudioChunk poll(long timeoutMillis) throws InterruptedException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lockInterruptibly();
+        try {
+            while (count == 0) {
+                if (finished.get() || closed) {
+                    return END_SIGNAL;
+                }
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            if (closed) {
+                return END_SIGNAL;
+            }
+            if (deadline != null) {
+                deadline.onAudioConsumed();
+            }
+            return dequeueLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 持续取出音频数据并交给{@code output}, 直至作业结束或通道被关闭; 数据块在输出后自动归还
+     *
+     * @param output 音频输出
+     */
+    public void drainTo(Consumer<AudioChunk> output) throws InterruptedException {
+        drainWhile(chunk -> {
+            output.accept(chunk);
+            return true;
+        });
+    }
+
+    /**
+     * 持续取出音频数据并交给{@code output}, 直至作业结束、通道被关闭或{@code output}拒绝接收;
+     * 数据块在输出后自动归还
+     *
+     * @param output 音频输出, 返回false表示不再接收音频
+     * @return {@code output}是否接收了全部音频(拒绝接收时返回false, 剩余音频留在通道中)
+     */
+    public boolean drainWhile(Predicate<AudioChunk> output) throws InterruptedException {
+        while (true) {
+            AudioChunk chunk = poll(Long.MAX_VALUE);
+            if (isEndSignal(chunk)) {
+                return true;
+            }
+            try {
+                if (!output.test(chunk)) {
+                    return false;
+                }
+            } finally {
+                recycle(chunk);
+            }
+        }
+    }
+
+    /**
+     * 归还已输出的数据块
+     */
+    void recycle(AudioChunk chunk) {
+        if (chunk != null && chunk != END_SIGNAL) {
+            bufferPool.release(chunk);
+        }
+    }
+
+    static boolean isEndSignal(AudioChunk chunk) {
+        return chunk == END_SIGNAL;
+    }
+
+    /**
+     * 合成作业是否已结束(音频可能仍未取完)
+     */
+    public boolean isFinished() {
+        return finished.get();
+    }
+
+    /**
+     * 尚未取出的音频数据字节数
+     */
+    long getBufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * 队列容量(数据块数量)
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * 队列占用的峰值(数据块数量)
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * 因队列已满而丢弃的数据块数量
+     */
+    public long getDroppedChunks() {
+        return droppedChunks.get();
+    }
+
+    /**
+     * 因队列已满而丢弃的音频字节数
+     */
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    /**
+     * 关闭通道, 此后的引擎回调将被丢弃, 正在等待的生产者与消费者均会被立即唤醒
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while (count > 0) {
+                bufferPool.release(dequeueLocked());
+            }
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 音频数据块
+ * 由{@link AudioBufferPool}统一分配与回收, 底层数组长度固定, 有效数据长度见{@link #getLength()}
+ */
+public final class AudioChunk {
+    private final byte[] data;
+    private int length;
+
+    AudioChunk(int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    /**
+     * 底层数组(仅前{@link #getLength()}个字节有效)
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * 有效数据长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 从源缓冲区当前位置复制数据, 并前移其位置
+     *
+     * @return 实际复制的字节数
+     */
+    int fill(ByteBuffer source) {
+        length = Math.min(data.length, source.remaining());
+        source.get(data, 0, length);
+        return length;
+    }
+
+    /**
+     * 从源数组复制数据
+     *
+     * @return 实际复制的字节数
+     */
+    int fill(byte[] source, int offset) {
+        length = Math.min(data.length, source.length - offset);
+        System.arraycopy(source, offset, data, 0, length);
+        return length;
+    }
+
+    /**
+     * 在已有数据之后追加源数组中的数据
+     *
+     * @return 实际追加的字节数(受剩余容量限制)
+     */
+    int append(byte[] source, int offset, int count) {
+        int appended = Math.min(data.length - length, count);
+        System.arraycopy(source, offset, data, length, appended);
+        length += appended;
+        return appended;
+    }
+
+    /**
+     * 清空有效数据
+     */
+    void clear() {
+        length = 0;
+    }
+}
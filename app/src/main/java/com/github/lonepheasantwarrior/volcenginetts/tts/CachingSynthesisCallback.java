@@ -0,0 +1,184 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.speech.tts.SynthesisCallback;
+import android.speech.tts.TextToSpeech;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 记录音频数据的合成回调
+ * 将音频原样转交给系统TTS服务的同时在池化的数据块中保留一份副本, 合成完整结束后可写入音频缓存;
+ * 同时记录首包音频的提交时间、提交的音频字节数与报告的错误码, 用于统计首包延迟(TTFA)与运行统计;
+ * 使用完毕后须调用{@link #recycle()}归还数据块
+ */
+final class CachingSynthesisCallback implements SynthesisCallback {
+    private final SynthesisCallback delegate;
+    private final AudioBufferPool bufferPool;
+    private final int maxRecordedBytes;
+    private final List<AudioChunk> recorded;
+    private int recordedBytes = 0;
+    // 超出记录上限或系统TTS服务拒绝接收音频后不再记录
+    private boolean isDiscarded;
+    private boolean isDone = false;
+    private int errorCode = TextToSpeech.SUCCESS;
+    private long firstAudioMillis = 0;
+    private long firstAudioNanos = 0;
+    private long deliveredBytes = 0;
+
+    /**
+     * @param delegate         系统TTS服务提供的合成回调
+     * @param bufferPool       记录音频使用的数据块池
+     * @param maxRecordedBytes 最多记录的音频字节数, 超出后放弃记录(该次合成结果不写入缓存)
+     */
+    CachingSynthesisCallback(SynthesisCallback delegate, AudioBufferPool bufferPool, int maxRecordedBytes) {
+        this.delegate = delegate;
+        this.bufferPool = bufferPool;
+        this.maxRecordedBytes = maxRecordedBytes;
+        int maxChunks = (int) (((long) Math.max(0, maxRecordedBytes) + bufferPool.getChunkSize() - 1) / bufferPool.getChunkSize());
+        this.recorded = new ArrayList<>(maxChunks);
+        this.isDiscarded = maxRecordedBytes <= 0;
+    }
+
+    @Override
+    public int getMaxBufferSize() {
+        return delegate.getMaxBufferSize();
+    }
+
+    @Override
+    public int start(int sampleRateInHz, int audioFormat, int channelCount) {
+        return delegate.start(sampleRateInHz, audioFormat, channelCount);
+    }
+
+    @Override
+    public int audioAvailable(byte[] buffer, int offset, int length) {
+        if (firstAudioMillis == 0) {
+            firstAudioMillis = System.currentTimeMillis();
+            firstAudioNanos = System.nanoTime();
+        }
+        deliveredBytes += length;
+        int result = delegate.audioAvailable(buffer, offset, length);
+        if (result != TextToSpeech.SUCCESS) {
+            // 请求已被停止, 已记录的音频不完整
+            discardRecording();
+        } else if (!isDiscarded) {
+            if (recordedBytes + length > maxRecordedBytes) {
+                discardRecording();
+            } else {
+                record(buffer, offset, length);
+            }
+        }
+        return result;
+    }
+
+    private void record(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        while (offset < end) {
+            AudioChunk tail = recorded.isEmpty() ? null : recorded.get(recorded.size() - 1);
+            if (tail == null || tail.getLength() == tail.getData().length) {
+                tail = bufferPool.acquire();
+                tail.clear();
+                recorded.add(tail);
+            }
+            offset += tail.append(buffer, offset, end - offset);
+        }
+        recordedBytes += length;
+    }
+
+    private void discardRecording() {
+        isDiscarded = true;
+        recycle();
+    }
+
+    @Override
+    public int done() {
+        isDone = true;
+        return delegate.done();
+    }
+
+    @Override
+    public void error() {
+        errorCode = TextToSpeech.ERROR;
+        delegate.error();
+    }
+
+    @Override
+    public void error(int errorCode) {
+        this.errorCode = errorCode;
+        delegate.error(errorCode);
+    }
+
+    @Override
+    public boolean hasStarted() {
+        return delegate.hasStarted();
+    }
+
+    @Override
+    public boolean hasFinished() {
+        return delegate.hasFinished();
+    }
+
+    @Override
+    public void rangeStart(int markerInFrames, int start, int end) {
+        delegate.rangeStart(markerInFrames, start, end);
+    }
+
+    /**
+     * 合成是否完整且成功结束, 记录的音频可以写入缓存
+     */
+    boolean isCacheable() {
+        return isDone && errorCode == TextToSpeech.SUCCESS && !isDiscarded && recordedBytes > 0;
+    }
+
+    /**
+     * 首包音频的提交时间(毫秒), 尚未提交音频时为0
+     */
+    long getFirstAudioMillis() {
+        return firstAudioMillis;
+    }
+
+    /**
+     * 首包音频的提交时间({@link System#nanoTime()}), 尚未提交音频时为0
+     */
+    long getFirstAudioNanos() {
+        return firstAudioNanos;
+    }
+
+    /**
+     * 已提交给系统TTS服务的音频字节数
+     */
+    long getDeliveredBytes() {
+        return deliveredBytes;
+    }
+
+    /**
+     * 报告给系统TTS服务的错误码, 未报告错误时为{@link TextToSpeech#SUCCESS}
+     */
+    int getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * 已记录的完整音频数据(按实际长度一次性复制)
+     */
+    byte[] getRecordedAudio() {
+        byte[] audio = new byte[recordedBytes];
+        int offset = 0;
+        for (AudioChunk chunk : recorded) {
+            System.arraycopy(chunk.getData(), 0, audio, offset, chunk.getLength());
+            offset += chunk.getLength();
+        }
+        return audio;
+    }
+
+    /**
+     * 将记录音频的数据块归还至数据块池, 此后不再保留已记录的音频
+     */
+    void recycle() {
+        for (AudioChunk chunk : recorded) {
+            bufferPool.release(chunk);
+        }
+        recorded.clear();
+        recordedBytes = 0;
+    }
+}
@@ -6,10 +6,7 @@ import android.os.Bundle;
 import android.speech.tts.TextToSpeech;
 import android.util.Log;
 
-import com.github.lonepheasantwarrior.volcenginetts.common.Constants;
-
 import java.util.ArrayList;
-import java.util.Arrays;
 
 public class CheckVoiceData extends Activity {
     private static final String TAG = CheckVoiceData.class.getSimpleName();
@@ -21,7 +18,7 @@ public class CheckVoiceData extends Activity {
 
         ArrayList<String> unavailable = new ArrayList<>();
 
-        ArrayList<String> available = new ArrayList<>(Arrays.asList(Constants.SUPPORTED_LANGUAGES));
+        ArrayList<String> available = new ArrayList<>(LanguageIndex.getSupportedVoices());
 
 
         Intent returnData = new Intent();
@@ -0,0 +1,152 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.speech.tts.TextToSpeech;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.Constants;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Set;
+
+/**
+ * 支持语言索引
+ * 类加载时将{@link Constants#SUPPORTED_LANGUAGES}整理为 ISO3语言 -> ISO3国家 -> 变体 的哈希索引,
+ * 同时登记两字母代码到ISO3代码的映射; 查询时只做哈希查找, 不拆分字符串、不创建Locale
+ */
+final class LanguageIndex {
+    // ISO3语言 -> ISO3国家(保持配置顺序) -> 变体
+    private static final Map<String, Map<String, Set<String>>> INDEX = new HashMap<>();
+    // 语言/国家代码(两字母或ISO3) -> ISO3代码, 仅包含受支持的语言与国家
+    private static final Map<String, String> LANGUAGE_CODES = new HashMap<>();
+    private static final Map<String, String> COUNTRY_CODES = new HashMap<>();
+    private static final List<String> SUPPORTED_VOICES;
+
+    static {
+        List<String> voices = new ArrayList<>(Constants.SUPPORTED_LANGUAGES.length);
+        for (String language : Constants.SUPPORTED_LANGUAGES) {
+            // 配置项本身即为 ISO3语言-ISO3国家 格式, 不含变体
+            String[] parts = language.split("-");
+            String iso3Language = parts[0];
+            String iso3Country = parts[1];
+            INDEX.computeIfAbsent(iso3Language, k -> new LinkedHashMap<>())
+                    .computeIfAbsent(iso3Country, k -> new HashSet<>())
+                    .add("");
+            LANGUAGE_CODES.put(iso3Language, iso3Language);
+            COUNTRY_CODES.put(iso3Country, iso3Country);
+            voices.add(language);
+        }
+        SUPPORTED_VOICES = Collections.unmodifiableList(voices);
+        for (String code : Locale.getISOLanguages()) {
+            String iso3 = iso3Language(code);
+            if (iso3 != null && INDEX.containsKey(iso3)) {
+                LANGUAGE_CODES.put(code, iso3);
+            }
+        }
+        for (String code : Locale.getISOCountries()) {
+            String iso3 = iso3Country(code);
+            if (iso3 != null && COUNTRY_CODES.containsKey(iso3)) {
+                COUNTRY_CODES.put(code, iso3);
+            }
+        }
+    }
+
+    private LanguageIndex() {
+    }
+
+    /**
+     * 查询语言支持情况, 语义同{@link android.speech.tts.TextToSpeechService#onIsLanguageAvailable}
+     *
+     * @return TextToSpeech.LANG_* 结果码
+     */
+    static int isLanguageAvailable(String lang, String country, String variant) {
+        String iso3Language = resolveLanguage(lang);
+        if (iso3Language == null) {
+            return TextToSpeech.LANG_NOT_SUPPORTED;
+        }
+        Set<String> variants = INDEX.get(iso3Language).get(resolveCountry(country));
+        if (variants == null) {
+            return TextToSpeech.LANG_AVAILABLE;
+        }
+        if (variants.contains(variant == null ? "" : variant)) {
+            return TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE;
+        }
+        return TextToSpeech.LANG_COUNTRY_AVAILABLE;
+    }
+
+    /**
+     * 将语言代码(两字母或ISO3, 大小写不限)解析为受支持的ISO3语言代码
+     *
+     * @return ISO3语言代码; 不受支持时返回null
+     */
+    static String resolveLanguage(String lang) {
+        if (lang == null || lang.isEmpty()) {
+            return null;
+        }
+        String iso3 = LANGUAGE_CODES.get(lang);
+        if (iso3 == null) {
+            // 大小写不一致或旧式代码(如iw、in)等少见情况, 交由Locale规范化
+            iso3 = LANGUAGE_CODES.get(iso3Language(lang));
+        }
+        return iso3;
+    }
+
+    private static String resolveCountry(String country) {
+        if (country == null || country.isEmpty()) {
+            return null;
+        }
+        String iso3 = COUNTRY_CODES.get(country);
+        if (iso3 == null) {
+            iso3 = COUNTRY_CODES.get(iso3Country(country));
+        }
+        return iso3;
+    }
+
+    /**
+     * 查找与给定语言/国家最接近的受支持语言
+     *
+     * @return 受支持的语言(格式同{@link Constants#SUPPORTED_LANGUAGES}); 国家不受支持时取该语言配置的首个国家;
+     * 语言不受支持时返回null
+     */
+    static String resolveSupportedLanguage(String lang, String country) {
+        String iso3Language = resolveLanguage(lang);
+        if (iso3Language == null) {
+            return null;
+        }
+        Map<String, Set<String>> countries = INDEX.get(iso3Language);
+        String iso3Country = resolveCountry(country);
+        if (iso3Country == null || !countries.containsKey(iso3Country)) {
+            iso3Country = countries.keySet().iterator().next();
+        }
+        return iso3Language + "-" + iso3Country;
+    }
+
+    /**
+     * 受支持的语言列表(格式同{@link Constants#SUPPORTED_LANGUAGES}), 不可修改
+     */
+    static List<String> getSupportedVoices() {
+        return SUPPORTED_VOICES;
+    }
+
+    private static String iso3Language(String code) {
+        try {
+            return new Locale(code).getISO3Language();
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+
+    private static String iso3Country(String code) {
+        try {
+            return new Locale("", code).getISO3Country();
+        } catch (MissingResourceException e) {
+            return null;
+        }
+    }
+}
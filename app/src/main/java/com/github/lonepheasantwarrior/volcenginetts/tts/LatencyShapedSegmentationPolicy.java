@@ -0,0 +1,177 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 低首包延迟分段策略
+ * 首个片段取开头最短的自然从句, 使音频尽快开始; 后续片段合并至长度上限以减少请求次数;
+ * 过短的结尾片段并入前一片段或与前一片段重新均衡, 不单独发送
+ */
+final class LatencyShapedSegmentationPolicy implements SegmentationPolicy {
+    // 首个片段的最小与最大长度
+    private static final int MIN_FIRST_LENGTH = 4;
+    private static final int MAX_FIRST_LENGTH = 30;
+    // 短于该长度的结尾片段会并入前一片段
+    private static final int MIN_TAIL_LENGTH = 10;
+    // 可作为首个片段结尾的标点(句末及从句分隔符, 中英文、全角半角)
+    private static final String BREAK_PUNCTUATION = "。！？.!?;；,，、:：";
+    // 以句点结尾但通常不结束句子的英文缩写(小写比较)
+    private static final Set<String> ABBREVIATIONS = new HashSet<>(Arrays.asList(
+            "mr", "mrs", "ms", "dr", "prof", "sr", "jr", "st", "vs", "etc", "no", "fig", "inc", "ltd", "co"));
+
+    private final int maxLength = TextSegmenter.DEFAULT_MAX_LENGTH;
+
+    @Override
+    public List<String> segment(CharSequence text, Locale locale) {
+        List<String> segments = new ArrayList<>();
+        String source = text.toString();
+        int headEnd = findFirstClauseEnd(source, locale);
+        if (headEnd < 0) {
+            // 开头没有合适的标点, 由分段器在不超过首段上限的词边界处切出首个片段;
+            // 只交给分段器开头的一部分文本, 截取位置对齐到词边界, 避免被当作文本结尾拆开单词或代理对
+            List<String> head = new TextSegmenter(MAX_FIRST_LENGTH, locale)
+                    .split(source.subSequence(0, headWindowEnd(source, locale)));
+            if (head.isEmpty()) {
+                return segments;
+            }
+            headEnd = source.indexOf(head.get(0)) + head.get(0).length();
+        }
+        String head = source.substring(0, headEnd).trim();
+        if (!head.isEmpty()) {
+            segments.add(head);
+        }
+        segments.addAll(new TextSegmenter(maxLength, locale).split(source.subSequence(headEnd, source.length())));
+        mergeShortTail(segments, locale);
+        return segments;
+    }
+
+    /**
+     * 首个片段回退切分时交给分段器的文本范围: 首段上限两倍处之前最近的词边界
+     */
+    private static int headWindowEnd(String text, Locale locale) {
+        int limit = MAX_FIRST_LENGTH * 2;
+        if (text.length() <= limit) {
+            return text.length();
+        }
+        BreakIterator words = BreakIterator.getWordInstance(locale);
+        words.setText(text);
+        int boundary = words.isBoundary(limit) ? limit : words.preceding(limit);
+        return boundary > 0 ? boundary : text.length();
+    }
+
+    /**
+     * 查找开头第一个自然从句的结束位置
+     * 半角标点只有后接空白或位于结尾时才视为从句结束, 句点还须是句子边界且不属于缩写,
+     * 因此小数("3.14")、时间("10:30")、网址与"Prof."等缩写不会被拆开
+     *
+     * @return 从句结束位置(不含), 不存在返回-1
+     */
+    private static int findFirstClauseEnd(String text, Locale locale) {
+        int limit = Math.min(text.length(), MAX_FIRST_LENGTH);
+        int contentLength = 0;
+        BreakIterator sentences = null;
+        for (int i = 0; i < limit; i++) {
+            char c = text.charAt(i);
+            if (BREAK_PUNCTUATION.indexOf(c) >= 0 && contentLength >= MIN_FIRST_LENGTH) {
+                // 连续的标点(如"！？")归入同一片段
+                int end = i + 1;
+                while (end < text.length() && BREAK_PUNCTUATION.indexOf(text.charAt(end)) >= 0) {
+                    end++;
+                }
+                if (c >= 0x80) {
+                    return end;
+                }
+                if (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                    continue;
+                }
+                if (c != '.') {
+                    return end;
+                }
+                if (sentences == null) {
+                    sentences = BreakIterator.getSentenceInstance(locale);
+                    sentences.setText(text);
+                }
+                int next = end;
+                while (next < text.length() && Character.isWhitespace(text.charAt(next))) {
+                    next++;
+                }
+                if (sentences.isBoundary(next) && !isAbbreviation(text, i)) {
+                    return end;
+                }
+            } else if (BREAK_PUNCTUATION.indexOf(c) < 0 && !Character.isWhitespace(c)) {
+                contentLength++;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 句点之前的单词是否为缩写(常见称谓缩写、单个字母的姓名首字母或"e.g."之类含句点的缩写)
+     *
+     * @param period 句点位置
+     */
+    private static boolean isAbbreviation(String text, int period) {
+        int start = period;
+        while (start > 0 && (Character.isLetter(text.charAt(start - 1)) || text.charAt(start - 1) == '.')) {
+            start--;
+        }
+        String word = text.substring(start, period);
+        return word.length() == 1 || word.indexOf('.') >= 0 || ABBREVIATIONS.contains(word.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 处理过短的结尾片段: 能并入前一片段时直接合并, 否则将前一片段的切分点前移, 使结尾片段不再过短
+     */
+    private void mergeShortTail(List<String> segments, Locale locale) {
+        int size = segments.size();
+        // 首个片段保持短小, 不参与合并
+        if (size < 3 || segments.get(size - 1).length() >= MIN_TAIL_LENGTH) {
+            return;
+        }
+        String previous = segments.get(size - 2);
+        String tail = segments.get(size - 1);
+        String separator = needsSpace(previous.charAt(previous.length() - 1), tail.charAt(0)) ? " " : "";
+        String combined = previous + separator + tail;
+        if (combined.length() <= maxLength) {
+            segments.set(size - 2, combined);
+            segments.remove(size - 1);
+            return;
+        }
+        // 切分点两侧的空白会被去除, 额外预留一个字符
+        List<String> rebalanced = new TextSegmenter(combined.length() - MIN_TAIL_LENGTH - 1, locale)
+                .split(combined);
+        if (rebalanced.size() == 2 && rebalanced.get(0).length() <= maxLength
+                && rebalanced.get(1).length() <= maxLength) {
+            segments.set(size - 2, rebalanced.get(0));
+            segments.set(size - 1, rebalanced.get(1));
+        }
+    }
+
+    /**
+     * 合并片段时两侧均非中日韩文字才需要补回空格
+     */
+    private static boolean needsSpace(char left, char right) {
+        return !isCjk(left) && !isCjk(right);
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+        return Character.isIdeographic(c)
+                || block == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
+                || block == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS
+                || block == Character.UnicodeBlock.HIRAGANA
+                || block == Character.UnicodeBlock.KATAKANA
+                || block == Character.UnicodeBlock.HANGUL_SYLLABLES;
+    }
+
+    @Override
+    public String toString() {
+        return "LATENCY";
+    }
+}
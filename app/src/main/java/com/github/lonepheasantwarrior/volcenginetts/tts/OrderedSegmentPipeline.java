@@ -0,0 +1,155 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.util.Log;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
+import com.github.lonepheasantwarrior.volcenginetts.engine.SegmentJob;
+import com.github.lonepheasantwarrior.volcenginetts.engine.SegmentSynthesizer;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 有序并行片段合成流水线
+ * 最多同时运行 K 个独立的片段合成作业, 各片段的音频先写入各自的缓冲区(重排缓冲),
+ * 只有当其前序片段全部输出完毕后才按顺序输出; 当前片段的音频在合成过程中即实时输出;
+ * 正在输出的片段之后最多提前启动 D 个片段(预合成深度), 已合成完毕但尚未输出的片段同样计入
+ */
+final class OrderedSegmentPipeline {
+    /**
+     * 预合成深度上限
+     */
+    static final int MAX_LOOK_AHEAD_SEGMENTS = 3;
+    // 等待音频数据时检查中断信号与调度后续片段的间隔
+    private static final long POLL_INTERVAL_MILLIS = 20;
+
+    private final SegmentSynthesizer synthesizer;
+    private final SynthesisSession session;
+    private final int maxParallelSegments;
+    private final int lookAheadSegments;
+    private final long maxBufferedBytes;
+
+    /**
+     * @param session             所属合成会话, 会话被取消时流水线随即停止
+     * @param maxParallelSegments 最大并行合成片段数 K
+     * @param lookAheadSegments   预合成深度 D, 取值限制在 [1, {@link #MAX_LOOK_AHEAD_SEGMENTS}]
+     * @param maxBufferedBytes    重排缓冲区中待输出音频的字节数上限, 超出后暂停启动新片段
+     */
+    OrderedSegmentPipeline(SegmentSynthesizer synthesizer, SynthesisSession session,
+                           int maxParallelSegments, int lookAheadSegments, long maxBufferedBytes) {
+        this.synthesizer = synthesizer;
+        this.session = session;
+        this.maxParallelSegments = Math.max(1, maxParallelSegments);
+        this.lookAheadSegments = Math.min(MAX_LOOK_AHEAD_SEGMENTS, Math.max(1, lookAheadSegments));
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    /**
+     * 按顺序合成并输出全部片段
+     *
+     * @param segments 文本片段
+     * @param output   音频输出, 返回false表示不再接收音频, 此时取消所属会话并停止流水线
+     * @return 是否未发生错误(被中断或输出端拒绝接收时同样返回true)
+     */
+    boolean run(List<String> segments, Predicate<AudioChunk> output) throws InterruptedException {
+        ArrayDeque<Slot> pending = new ArrayDeque<>();
+        int nextToStart = 0;
+        try {
+            for (int i = 0; i < segments.size(); i++) {
+                nextToStart = schedule(segments, pending, nextToStart);
+                Slot head = pending.getFirst();
+                Log.d(LogTag.INFO, "开始输出第 " + (i + 1) + "/" + segments.size() + " 个片段... 长度: "
+                        + segments.get(i).length());
+                try {
+                    while (true) {
+                        if (session.isCancelled()) {
+                            Log.w(LogTag.INFO, "收到语音合成作业中断信号, 停止片段合成流水线");
+                            return true;
+                        }
+                        AudioChunk chunk = head.buffer.poll(POLL_INTERVAL_MILLIS);
+                        nextToStart = schedule(segments, pending, nextToStart);
+                        if (chunk == null) {
+                            continue;
+                        }
+                        if (AudioChannel.isEndSignal(chunk)) {
+                            break;
+                        }
+                        try {
+                            if (!output.test(chunk)) {
+                                Log.w(LogTag.INFO, "音频输出端已停止接收, 取消会话并停止片段合成流水线");
+                                session.cancel();
+                                return true;
+                            }
+                        } finally {
+                            head.buffer.recycle(chunk);
+                        }
+                    }
+                    if (head.buffer.isError()) {
+                        Log.e(LogTag.ERROR, "第 " + (i + 1) + " 个片段合成失败: " + head.buffer.getErrorMessage());
+                        return false;
+                    }
+                } finally {
+                    pending.removeFirst();
+                    head.close();
+                }
+            }
+            return true;
+        } finally {
+            for (Slot slot : pending) {
+                slot.close();
+            }
+        }
+    }
+
+    /**
+     * 归还已合成完毕片段的引擎, 并在并行数、预合成深度与缓冲上限允许的范围内启动后续片段
+     *
+     * @return 下一个待启动片段的序号
+     */
+    private int schedule(List<String> segments, ArrayDeque<Slot> pending, int nextToStart) {
+        int active = 0;
+        long buffered = 0;
+        for (Slot slot : pending) {
+            if (slot.buffer.isFinished()) {
+                // 合成已结束的片段提前归还引擎, 其音频仍保留在缓冲区中等待输出
+                slot.releaseJob();
+            } else {
+                active++;
+            }
+            buffered += slot.buffer.getBufferedBytes();
+        }
+        // pending 的首个片段即正在输出的片段, 其后的均为预合成片段
+        while (nextToStart < segments.size() && active < maxParallelSegments
+                && pending.size() <= lookAheadSegments
+                && (pending.isEmpty() || buffered < maxBufferedBytes)) {
+            AudioChannel buffer = session.newChannel();
+            pending.addLast(new Slot(buffer, synthesizer.start(segments.get(nextToStart), buffer)));
+            active++;
+            nextToStart++;
+        }
+        return nextToStart;
+    }
+
+    private static final class Slot {
+        final AudioChannel buffer;
+        private SegmentJob job;
+
+        Slot(AudioChannel buffer, SegmentJob job) {
+            this.buffer = buffer;
+            this.job = job;
+        }
+
+        void releaseJob() {
+            if (job != null) {
+                job.release();
+                job = null;
+            }
+        }
+
+        void close() {
+            buffer.close();
+            releaseJob();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 紧凑分段策略: 每个片段都尽量填满长度上限, 请求次数最少
+ */
+final class PackedSegmentationPolicy implements SegmentationPolicy {
+    @Override
+    public List<String> segment(CharSequence text, Locale locale) {
+        return new TextSegmenter(TextSegmenter.DEFAULT_MAX_LENGTH, locale).split(text);
+    }
+
+    @Override
+    public String toString() {
+        return "PACKED";
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 长文本分段策略
+ */
+interface SegmentationPolicy {
+    /**
+     * 拆分文本
+     *
+     * @param text   原始文本
+     * @param locale 文本语言
+     * @return 按朗读顺序排列的非空片段, 每段长度不超过{@link TextSegmenter#DEFAULT_MAX_LENGTH}
+     */
+    List<String> segment(CharSequence text, Locale locale);
+
+    /**
+     * 按名称获取分段策略
+     *
+     * @param name 策略名称: LATENCY(首段尽量短以降低首包延迟) / PACKED(每段尽量填满)
+     */
+    static SegmentationPolicy of(String name) {
+        if ("PACKED".equalsIgnoreCase(name)) {
+            return new PackedSegmentationPolicy();
+        }
+        return new LatencyShapedSegmentationPolicy();
+    }
+}
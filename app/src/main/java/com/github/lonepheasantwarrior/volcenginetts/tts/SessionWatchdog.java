@@ -0,0 +1,87 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.util.Log;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合成会话看门狗
+ * 定期检查受监视会话的时限, 超时的会话被中止(关闭音频通道并唤醒等待中的合成线程),
+ * 由合成线程随后释放引擎并向系统TTS服务报告超时; 没有受监视会话时不运行检查任务
+ */
+public final class SessionWatchdog {
+    private final long checkIntervalMillis;
+    private final Set<SynthesisSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "SessionWatchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> checkTask;
+
+    /**
+     * @param checkIntervalMillis 检查间隔
+     */
+    public SessionWatchdog(long checkIntervalMillis) {
+        this.checkIntervalMillis = checkIntervalMillis;
+    }
+
+    /**
+     * 开始监视会话, 未设置时限的会话将被忽略
+     */
+    public void watch(SynthesisSession session) {
+        if (session.getDeadline() == null) {
+            return;
+        }
+        sessions.add(session);
+        synchronized (this) {
+            if (checkTask == null) {
+                checkTask = executor.scheduleWithFixedDelay(() -> check(SynthesisDeadline.now()),
+                        checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * 停止监视会话(会话结束后调用)
+     */
+    public void unwatch(SynthesisSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * 检查全部受监视会话, 中止已超时的会话
+     */
+    void check(long nowMillis) {
+        for (SynthesisSession session : sessions) {
+            SynthesisDeadline.Stage stage = session.getDeadline().check(nowMillis);
+            if (stage == null && !session.isCancelled()) {
+                continue;
+            }
+            sessions.remove(session);
+            if (stage != null && session.abort(stage)) {
+                Log.e(LogTag.ERROR, "会话(" + session.getId() + ")等待" + stage.getDescription() + "超时, 已中止");
+            }
+        }
+        synchronized (this) {
+            if (sessions.isEmpty() && checkTask != null) {
+                checkTask.cancel(false);
+                checkTask = null;
+            }
+        }
+    }
+
+    /**
+     * 受监视的会话数量
+     */
+    int getWatchedCount() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 停止至下一段音频的延迟统计
+ * 读屏等场景在每次焦点切换时先停止当前朗读再发起新的合成请求, 从收到停止请求到下一请求输出首包音频的耗时
+ * 即用户感知到的切换延迟; 停止后在{@link #FOLLOW_UP_WINDOW_MILLIS}内开始的请求才计入统计
+ */
+final class StopLatencyMetric {
+    /**
+     * 停止后开始的请求被视为紧随其后的请求的最长间隔
+     */
+    static final long FOLLOW_UP_WINDOW_MILLIS = 2000;
+
+    // 最近一次停止请求的时间, 0表示没有待统计的停止请求
+    private final AtomicLong pendingStopMillis = new AtomicLong();
+    // 当前请求所对应的停止请求时间(仅合成线程访问)
+    private long claimedStopMillis = 0;
+
+    private long count = 0;
+    private long totalMillis = 0;
+    private long maxMillis = 0;
+
+    /**
+     * 收到停止请求(Binder线程)
+     */
+    void onStop(long nowMillis) {
+        pendingStopMillis.set(nowMillis);
+    }
+
+    /**
+     * 合成请求开始(合成线程)
+     */
+    void onRequestStart(long nowMillis) {
+        long stopMillis = pendingStopMillis.getAndSet(0);
+        claimedStopMillis = stopMillis > 0 && nowMillis - stopMillis <= FOLLOW_UP_WINDOW_MILLIS ? stopMillis : 0;
+    }
+
+    /**
+     * 当前请求输出首包音频(合成线程)
+     *
+     * @return 距停止请求的延迟毫秒; 当前请求不紧随停止请求时返回-1
+     */
+    long onFirstAudio(long firstAudioMillis) {
+        if (claimedStopMillis == 0) {
+            return -1;
+        }
+        long latency = Math.max(0, firstAudioMillis - claimedStopMillis);
+        claimedStopMillis = 0;
+        synchronized (this) {
+            count++;
+            totalMillis += latency;
+            maxMillis = Math.max(maxMillis, latency);
+        }
+        return latency;
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized long getAverageMillis() {
+        return count == 0 ? 0 : totalMillis / count;
+    }
+
+    synchronized long getMaxMillis() {
+        return maxMillis;
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合成请求的时限
+ * 分别限制首包音频的等待时间、音频进度停滞的时间(音频既未产生也未被取走)以及请求总耗时,
+ * 由{@link SessionWatchdog}定期检查; 引擎回调丢失时会话不会无限期阻塞合成线程
+ */
+public final class SynthesisDeadline {
+    /**
+     * 超时阶段
+     */
+    public enum Stage {
+        /**
+         * 等待首包音频
+         */
+        FIRST_BYTE("首包音频"),
+        /**
+         * 音频进度停滞
+         */
+        STALL("音频数据"),
+        /**
+         * 请求总耗时
+         */
+        TOTAL("总耗时");
+
+        private final String description;
+
+        Stage(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final long firstByteTimeoutMillis;
+    private final long stallTimeoutMillis;
+    private final long totalBudgetMillis;
+    private final long startMillis;
+    private volatile long firstAudioMillis = 0;
+    private volatile long lastProgressMillis;
+
+    /**
+     * @param firstByteTimeoutMillis 首包音频最长等待时间
+     * @param stallTimeoutMillis     音频进度停滞的最长时间
+     * @param totalBudgetMillis      请求总耗时上限
+     */
+    public SynthesisDeadline(long firstByteTimeoutMillis, long stallTimeoutMillis, long totalBudgetMillis) {
+        this(firstByteTimeoutMillis, stallTimeoutMillis, totalBudgetMillis, now());
+    }
+
+    SynthesisDeadline(long firstByteTimeoutMillis, long stallTimeoutMillis, long totalBudgetMillis, long startMillis) {
+        this.firstByteTimeoutMillis = firstByteTimeoutMillis;
+        this.stallTimeoutMillis = stallTimeoutMillis;
+        this.totalBudgetMillis = totalBudgetMillis;
+        this.startMillis = startMillis;
+        this.lastProgressMillis = startMillis;
+    }
+
+    /**
+     * 引擎产生了音频数据
+     */
+    void onAudioProduced() {
+        onAudioProduced(now());
+    }
+
+    void onAudioProduced(long nowMillis) {
+        if (firstAudioMillis == 0) {
+            firstAudioMillis = nowMillis;
+        }
+        lastProgressMillis = nowMillis;
+    }
+
+    /**
+     * 消费者取走了音频数据
+     */
+    void onAudioConsumed() {
+        onAudioConsumed(now());
+    }
+
+    void onAudioConsumed(long nowMillis) {
+        lastProgressMillis = nowMillis;
+    }
+
+    /**
+     * 检查是否超时
+     *
+     * @return 超时阶段; 未超时返回null
+     */
+    Stage check(long nowMillis) {
+        if (nowMillis - startMillis > totalBudgetMillis) {
+            return Stage.TOTAL;
+        }
+        if (firstAudioMillis == 0) {
+            return nowMillis - startMillis > firstByteTimeoutMillis ? Stage.FIRST_BYTE : null;
+        }
+        return nowMillis - lastProgressMillis > stallTimeoutMillis ? Stage.STALL : null;
+    }
+
+    static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+}
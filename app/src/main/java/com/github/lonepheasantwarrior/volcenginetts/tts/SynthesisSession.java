@@ -0,0 +1,119 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 语音合成会话
+ * 每个合成请求(系统TTS、应用内试听、演示文本)各自持有一个会话, 包含独立的音频通道与取消标记,
+ * 中断一个会话不会影响其他会话, 被中断会话的残留音频也不会进入后续请求
+ */
+public final class SynthesisSession {
+    private static final AtomicLong ID_GENERATOR = new AtomicLong();
+
+    // 未指定音频通道配置时使用的默认值
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024;
+    private static final int DEFAULT_CHANNEL_CAPACITY = 64;
+
+    private final long id = ID_GENERATOR.incrementAndGet();
+    private final AudioBufferPool bufferPool;
+    private final int channelCapacity;
+    private final AudioChannel.OverflowPolicy overflowPolicy;
+    private final SynthesisDeadline deadline;
+    private final AudioChannel channel;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private volatile SynthesisDeadline.Stage timeoutStage = null;
+
+    /**
+     * 使用独立的数据块池与默认通道配置创建会话
+     */
+    public SynthesisSession() {
+        this(new AudioBufferPool(DEFAULT_CHUNK_SIZE, DEFAULT_CHANNEL_CAPACITY), DEFAULT_CHANNEL_CAPACITY,
+                AudioChannel.OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * @param bufferPool      数据块池
+     * @param channelCapacity 音频通道容量(数据块数量)
+     * @param overflowPolicy  音频通道已满时的处理策略
+     */
+    public SynthesisSession(AudioBufferPool bufferPool, int channelCapacity,
+                            AudioChannel.OverflowPolicy overflowPolicy) {
+        this(bufferPool, channelCapacity, overflowPolicy, null);
+    }
+
+    /**
+     * @param deadline 请求时限, 为null表示不限时
+     */
+    public SynthesisSession(AudioBufferPool bufferPool, int channelCapacity,
+                            AudioChannel.OverflowPolicy overflowPolicy, SynthesisDeadline deadline) {
+        this.bufferPool = bufferPool;
+        this.channelCapacity = channelCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.deadline = deadline;
+        this.channel = newChannel();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 会话音频通道, 引擎回调只写入该通道
+     */
+    public AudioChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * 按会话的通道配置创建新的音频通道(用于预合成片段)
+     */
+    AudioChannel newChannel() {
+        return new AudioChannel(bufferPool, channelCapacity, overflowPolicy, deadline);
+    }
+
+    /**
+     * 请求时限, 未设置时返回null
+     */
+    SynthesisDeadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 会话是否已被取消
+     */
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * 取消会话: 关闭音频通道并唤醒正在等待音频数据的合成线程
+     */
+    public void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            channel.close();
+        }
+    }
+
+    /**
+     * 因超时中止会话: 记录超时阶段后按取消处理
+     *
+     * @return 是否由本次调用中止(会话此前已被取消时返回false)
+     */
+    boolean abort(SynthesisDeadline.Stage stage) {
+        if (cancelled.compareAndSet(false, true)) {
+            // 先记录超时阶段再关闭通道, 被唤醒的合成线程即可读到
+            timeoutStage = stage;
+            channel.close();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 会话因超时被中止时的超时阶段, 未超时返回null
+     */
+    public SynthesisDeadline.Stage getTimeoutStage() {
+        return timeoutStage;
+    }
+}
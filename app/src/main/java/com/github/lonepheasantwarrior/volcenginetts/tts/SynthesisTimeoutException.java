@@ -0,0 +1,20 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+/**
+ * 合成会话因超时被看门狗中止
+ */
+final class SynthesisTimeoutException extends RuntimeException {
+    private final SynthesisDeadline.Stage stage;
+
+    SynthesisTimeoutException(SynthesisDeadline.Stage stage) {
+        super("等待" + stage.getDescription() + "超时");
+        this.stage = stage;
+    }
+
+    /**
+     * 发生超时的阶段
+     */
+    SynthesisDeadline.Stage getStage() {
+        return stage;
+    }
+}
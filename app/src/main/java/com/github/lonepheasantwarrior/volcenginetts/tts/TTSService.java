@@ -7,22 +7,35 @@ import android.speech.tts.SynthesisCallback;
 import android.speech.tts.SynthesisRequest;
 import android.speech.tts.TextToSpeech;
 import android.speech.tts.TextToSpeechService;
+import android.speech.tts.Voice;
 import android.util.Log;
 import android.widget.Toast;
 
-import com.github.lonepheasantwarrior.volcenginetts.R;
+import androidx.annotation.VisibleForTesting;
+
 import com.github.lonepheasantwarrior.volcenginetts.TTSApplication;
-import com.github.lonepheasantwarrior.volcenginetts.common.Constants;
+import com.github.lonepheasantwarrior.volcenginetts.cache.AudioCacheKey;
+import com.github.lonepheasantwarrior.volcenginetts.cache.DiskAudioCache;
+import com.github.lonepheasantwarrior.volcenginetts.cache.MemoryAudioCache;
 import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
 import com.github.lonepheasantwarrior.volcenginetts.common.SettingsData;
+import com.github.lonepheasantwarrior.volcenginetts.common.SpeakerCatalog;
+import com.github.lonepheasantwarrior.volcenginetts.common.TtsConfig;
+import com.github.lonepheasantwarrior.volcenginetts.engine.EngineInitException;
 import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisEngine;
 import com.github.lonepheasantwarrior.volcenginetts.function.SettingsFunction;
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics;
 
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 
 public class TTSService extends TextToSpeechService {
 
@@ -31,21 +44,55 @@ public class TTSService extends TextToSpeechService {
 
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
+    private TtsConfig config;
     private SynthesisEngine synthesisEngine;
     private SettingsFunction settingsFunction;
 
     private TTSContext ttsContext;
-
-    // 定义一个特殊的空字节数组，用于表示控制信号而不是实际的音频数据
-    private static final byte[] CONTROL_SIGNAL = new byte[0];
+    private AudioBufferPool audioBufferPool;
+    private DiskAudioCache audioCache;
+    private MemoryAudioCache memoryAudioCache;
+    private SessionWatchdog sessionWatchdog;
+    private SegmentationPolicy segmentationPolicy;
+    private VoiceCatalog voiceCatalog;
+    private PipelineMetrics metrics;
+    private final StopLatencyMetric stopLatencyMetric = new StopLatencyMetric();
+    // 按请求指定音色时生成的设置快照, 同一设置快照下按音色复用(合成请求均在同一线程执行)
+    private SettingsData voiceSettingsBase;
+    private final Map<String, SettingsData> voiceSettings = new HashMap<>();
 
     @Override
     public void onCreate() {
         super.onCreate();
-        TTSApplication ttsApplication = ((TTSApplication) getApplicationContext());
+        attach((TTSApplication) getApplicationContext());
+    }
+
+    /**
+     * 绑定应用级组件
+     * 本地测试与基准工具以{@link TTSApplication#initComponents}创建的组件直接调用, 无需由系统启动服务
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.PRIVATE)
+    void attach(TTSApplication ttsApplication) {
+        config = ttsApplication.getTtsConfig();
         synthesisEngine = ttsApplication.getSynthesisEngine();
         settingsFunction = ttsApplication.getSettingsFunction();
         ttsContext = ttsApplication.getTtsContext();
+        audioBufferPool = ttsApplication.getAudioBufferPool();
+        audioCache = ttsApplication.getAudioCache();
+        memoryAudioCache = ttsApplication.getMemoryAudioCache();
+        sessionWatchdog = ttsApplication.getSessionWatchdog();
+        segmentationPolicy = SegmentationPolicy.of(config.getSegmentationPolicy());
+        voiceCatalog = new VoiceCatalog(SpeakerCatalog.getSpeakers());
+        metrics = ttsApplication.getPipelineMetrics();
+    }
+
+    /**
+     * 输出合成流水线运行统计: adb shell dumpsys activity service
+     * com.github.lonepheasantwarrior.volcenginetts/.tts.TTSService
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        metrics.dump(writer);
     }
 
     @Override
@@ -76,30 +123,52 @@ public class TTSService extends TextToSpeechService {
         return result;
     }
 
+    @Override
+    public List<Voice> onGetVoices() {
+        return voiceCatalog.getVoices();
+    }
+
+    @Override
+    public int onIsValidVoiceName(String voiceName) {
+        return voiceCatalog.isValidVoiceName(voiceName) ? TextToSpeech.SUCCESS : TextToSpeech.ERROR;
+    }
+
+    @Override
+    public int onLoadVoice(String voiceName) {
+        // 音色无需预先下载, 引擎在首次合成时按音色创建并留在引擎池中复用
+        return onIsValidVoiceName(voiceName);
+    }
+
+    @Override
+    public String onGetDefaultVoiceNameFor(String lang, String country, String variant) {
+        return voiceCatalog.getDefaultVoiceName(lang, country);
+    }
+
     @Override
     protected void onStop() {
         Log.d(LogTag.INFO, "收到停止语音合成请求...");
-        synthesisEngine.destroy();
-        ttsContext.isTTSInterrupted.set(true);
-        ttsContext.isAudioQueueDone.set(true);
-        try {
-            ttsContext.audioDataQueue.put(CONTROL_SIGNAL);
-        } catch (InterruptedException e) {
-            Log.e(LogTag.ERROR, "向语音监听队列发送TTS停止控制信号发生错误: " + e.getMessage());
-            mainHandler.post(() -> Toast.makeText(getApplicationContext()
-                    , "发送TTS停止控制信号发生错误: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+        stopLatencyMetric.onStop(System.currentTimeMillis());
+        // 只取消当前会话并唤醒合成线程, 引擎由合成线程交给引擎池异步停止, 本方法立即返回
+        SynthesisSession session = ttsContext.currentSession.get();
+        if (session != null) {
+            session.cancel();
         }
     }
 
     @Override
     protected void onSynthesizeText(SynthesisRequest request, SynthesisCallback callback) {
         long onSynthesizeStartTime = System.currentTimeMillis();
+        long onSynthesizeStartNanos = System.nanoTime();
+        stopLatencyMetric.onRequestStart(onSynthesizeStartTime);
 
         SettingsData settings = settingsFunction.getSettings();
+        metrics.record(PipelineMetrics.Stage.SETTINGS_LOAD, onSynthesizeStartNanos);
         if (!checkSettings(settings)) {
+            metrics.recordError(PipelineMetrics.ERROR_DOMAIN_TTS, TextToSpeech.ERROR);
             callback.error();
             return;
         }
+        settings = settingsForVoice(settings, request.getVoiceName());
 
         if (request.getCharSequenceText() == null || request.getCharSequenceText().toString().isBlank()) {
             Log.d(LogTag.ERROR, "收到语音合成请求, 待合成文本为空");
@@ -108,48 +177,101 @@ public class TTSService extends TextToSpeechService {
             callback.done();
             return;
         }
-        ttsContext.isTTSInterrupted.set(false);
-
         String text = request.getCharSequenceText().toString();
         Log.d(LogTag.INFO, "收到语音合成请求, 待合成文本: " + text + "\n Language: " + request.getLanguage()
                 + ", SpeechRate: " + request.getSpeechRate() + ", Pitch: " + request.getPitch());
 
-        // 如果文本长度超过80个字符，进行拆分处理
-        if (text.length() > 80) {
-            Log.d(LogTag.INFO, "文本长度超过80字符，开始拆分处理");
-            synthesizeLongText(text, request, callback, settings);
-        } else {
-            synthesizeSingleText(text, request, callback, settings);
+        AudioCacheKey cacheKey = new AudioCacheKey(text, settings.getSelectedSpeakerId(),
+                settings.getServiceCluster(), settings.isEmotional(), request.getSpeechRate(), request.getPitch(),
+                config.getSampleRate());
+        // 缓存输出期间同样登记为当前会话, 可被停止请求中断
+        SynthesisSession session = newSession(text.length(), true);
+        ttsContext.currentSession.set(session);
+        long cacheLookupTime = System.currentTimeMillis();
+        if (playFromCache(cacheKey, session, callback)) {
+            ttsContext.currentSession.compareAndSet(session, null);
+            Log.d(LogTag.INFO, "命中音频缓存,耗时: " + (System.currentTimeMillis() - onSynthesizeStartTime) + "毫秒");
+            // 缓存音频在查找命中后立即输出
+            recordStopLatency(cacheLookupTime);
+            metrics.record(PipelineMetrics.Stage.REQUEST, onSynthesizeStartNanos);
+            return;
         }
+        metrics.addCharacters(text.length());
 
-        Log.d(LogTag.INFO, "语音合成任务执行完毕,耗时: " + (System.currentTimeMillis() - onSynthesizeStartTime) / 1000 + "秒");
+        sessionWatchdog.watch(session);
+        CachingSynthesisCallback cachingCallback = new CachingSynthesisCallback(callback, audioBufferPool,
+                config.getAudioCacheMaxEntryBytes());
+        try {
+            // 如果文本长度超过80个字符，进行拆分处理
+            if (text.length() > TextSegmenter.DEFAULT_MAX_LENGTH) {
+                Log.d(LogTag.INFO, "文本长度超过80字符，开始拆分处理");
+                synthesizeLongText(session, text, request, cachingCallback, settings);
+            } else {
+                synthesizeSingleText(session, text, request, cachingCallback, settings);
+            }
+        } finally {
+            sessionWatchdog.unwatch(session);
+            ttsContext.currentSession.compareAndSet(session, null);
+        }
+        if (cachingCallback.getFirstAudioMillis() > 0) {
+            Log.i(LogTag.INFO, "首包音频耗时(TTFA): " + (cachingCallback.getFirstAudioMillis() - onSynthesizeStartTime)
+                    + "毫秒, 文本长度: " + text.length());
+            metrics.histogram(PipelineMetrics.Stage.FIRST_AUDIO_AVAILABLE)
+                    .recordMicros((cachingCallback.getFirstAudioNanos() - onSynthesizeStartNanos) / 1000);
+            recordStopLatency(cachingCallback.getFirstAudioMillis());
+        }
+        metrics.addDeliveredBytes(cachingCallback.getDeliveredBytes());
+        if (cachingCallback.getErrorCode() != TextToSpeech.SUCCESS) {
+            metrics.recordError(PipelineMetrics.ERROR_DOMAIN_TTS, cachingCallback.getErrorCode());
+        }
+        // 被中断的合成只有部分音频, 不写入缓存; 磁盘写入在后台线程执行, 不延迟下一个请求
+        if (!session.isCancelled() && cachingCallback.isCacheable()) {
+            byte[] audio = cachingCallback.getRecordedAudio();
+            memoryAudioCache.put(cacheKey, audio, audio.length);
+            audioCache.putAsync(cacheKey, audio, audio.length);
+        }
+        cachingCallback.recycle();
+
+        metrics.record(PipelineMetrics.Stage.REQUEST, onSynthesizeStartNanos);
+        Log.d(LogTag.INFO, "语音合成任务执行完毕,耗时: " + (System.currentTimeMillis() - onSynthesizeStartTime) + "毫秒");
     }
 
     public static int getIsLanguageAvailable(String lang, String country, String variant) {
-        Locale locale = new Locale(lang, country, variant);
-        boolean isLanguage = false;
-        boolean isCountry = false;
-        for (String lan : Constants.SUPPORTED_LANGUAGES) {
-            String[] temp = lan.split("-");
-            Locale locale1 = new Locale(temp[0], temp[1]);
-            if (locale.getISO3Language().equals(locale1.getISO3Language())) {
-                isLanguage = true;
-            }
-            if (isLanguage && locale.getISO3Country().equals(locale1.getISO3Country())) {
-                isCountry = true;
-            }
-            if (isCountry && locale.getVariant().equals(locale1.getVariant())) {
-                return TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE;
-            }
+        return LanguageIndex.isLanguageAvailable(lang, country, variant);
+    }
 
+    /**
+     * 当前请求紧随停止请求时, 记录停止至首包音频的延迟
+     *
+     * @param firstAudioMillis 首包音频输出时间
+     */
+    private void recordStopLatency(long firstAudioMillis) {
+        long latency = stopLatencyMetric.onFirstAudio(firstAudioMillis);
+        if (latency >= 0) {
+            metrics.recordMillis(PipelineMetrics.Stage.STOP, latency);
+            Log.i(LogTag.INFO, "停止至下一段音频耗时: " + latency + "毫秒, 累计" + stopLatencyMetric.getCount()
+                    + "次, 平均/最大: " + stopLatencyMetric.getAverageMillis() + "/" + stopLatencyMetric.getMaxMillis() + "毫秒");
+        }
+    }
+
+    /**
+     * 按请求指定的声音确定本次合成使用的配置
+     * 指定音色声音时仅替换音色, 语言声音或未指定声音时使用设置中选择的音色
+     */
+    private SettingsData settingsForVoice(SettingsData settings, String voiceName) {
+        if (!voiceCatalog.isSpeaker(voiceName) || voiceName.equals(settings.getSelectedSpeakerId())) {
+            return settings;
         }
-        if (isCountry) {
-            return TextToSpeech.LANG_COUNTRY_AVAILABLE;
+        if (settings != voiceSettingsBase) {
+            voiceSettings.clear();
+            voiceSettingsBase = settings;
         }
-        if (isLanguage) {
-            return TextToSpeech.LANG_AVAILABLE;
+        SettingsData voiceSetting = voiceSettings.get(voiceName);
+        if (voiceSetting == null) {
+            voiceSetting = settings.withSpeaker(voiceName);
+            voiceSettings.put(voiceName, voiceSetting);
         }
-        return TextToSpeech.LANG_NOT_SUPPORTED;
+        return voiceSetting;
     }
 
     /**
@@ -163,242 +285,273 @@ public class TTSService extends TextToSpeechService {
             mainHandler.post(() -> Toast.makeText(getApplicationContext(), "语音引擎未配置", Toast.LENGTH_SHORT).show());
             return false;
         }
-        if (settings.getAppId().isBlank() || settings.getToken().isBlank()
-                || settings.getServiceCluster().isBlank() || settings.getSelectedSpeakerId().isBlank()) {
+        if (!settings.isComplete()) {
             mainHandler.post(() -> Toast.makeText(getApplicationContext(), "语音引擎配置不可用", Toast.LENGTH_SHORT).show());
             return false;
         }
         return true;
     }
 
-    /**
-     * 智能拆分长文本为多个不超过80字符的片段
-     * 优先按句子边界（句号、感叹号、问号等）拆分，其次按逗号，最后按空格
-     *
-     * @param text 原始文本
-     * @return 拆分后的文本片段列表
-     */
-    private List<String> splitLongText(String text) {
-        List<String> segments = new ArrayList<>();
-        if (text == null || text.isEmpty()) {
-            return segments;
-        }
-
-        // 定义句子分隔符（中英文、全角半角）
-        String[] sentenceDelimiters = {".", "。", "!", "！", "?", "？", ";", "；"};
-        String[] clauseDelimiters = {",", "，"};
-
-        int maxLength = 80;
-        int currentPos = 0;
-
-        while (currentPos < text.length()) {
-            int remainingLength = text.length() - currentPos;
-
-            // 如果剩余文本长度小于等于最大长度，直接添加
-            if (remainingLength <= maxLength) {
-                segments.add(text.substring(currentPos));
-                break;
-            }
-
-            // 查找最佳拆分点
-            int splitPos = findBestSplitPoint(text, currentPos, maxLength, sentenceDelimiters, clauseDelimiters);
-
-            // 如果找不到合适的拆分点，按最大长度强制拆分
-            if (splitPos == currentPos) {
-                splitPos = currentPos + maxLength;
-            }
-
-            segments.add(text.substring(currentPos, splitPos).trim());
-            currentPos = splitPos;
-        }
-
-        Log.d(LogTag.INFO, "文本拆分完成，共拆分为 " + segments.size() + " 个片段");
-        return segments;
-    }
-
-    /**
-     * 查找最佳拆分点
-     *
-     * @param text               文本
-     * @param startPos           起始位置
-     * @param maxLength          最大长度
-     * @param sentenceDelimiters 句子分隔符
-     * @param clauseDelimiters   从句分隔符
-     * @return 最佳拆分位置
-     */
-    private int findBestSplitPoint(String text, int startPos, int maxLength,
-                                   String[] sentenceDelimiters, String[] clauseDelimiters) {
-        int endPos = Math.min(startPos + maxLength, text.length());
-
-        // 优先查找句子结束位置
-        for (String delimiter : sentenceDelimiters) {
-            int pos = text.lastIndexOf(delimiter, endPos - 1);
-            if (pos > startPos && pos - startPos <= maxLength) {
-                return pos + delimiter.length(); // 包含分隔符
-            }
-        }
-
-        // 其次查找从句分隔符
-        for (String delimiter : clauseDelimiters) {
-            int pos = text.lastIndexOf(delimiter, endPos - 1);
-            if (pos > startPos && pos - startPos <= maxLength) {
-                return pos + delimiter.length(); // 包含分隔符
-            }
-        }
-
-        // 最后查找空格
-        int spacePos = text.lastIndexOf(' ', endPos - 1);
-        if (spacePos > startPos && spacePos - startPos <= maxLength) {
-            return spacePos + 1; // 包含空格
-        }
-
-        // 如果都找不到，返回起始位置（表示需要强制拆分）
-        return startPos;
-    }
-
     /**
      * 合成单个文本片段（不超过80字符）
      *
+     * @param session  合成会话
      * @param text     待合成文本
      * @param request  原始请求
      * @param callback 合成回调
      * @param settings 配置信息
      */
-    private void synthesizeSingleText(String text, SynthesisRequest request,
+    private void synthesizeSingleText(SynthesisSession session, String text, SynthesisRequest request,
                                       SynthesisCallback callback, SettingsData settings) {
-        synthesisEngine.create(settings.getAppId(), settings.getToken(),
-                settings.getSelectedSpeakerId(), settings.getServiceCluster(), settings.isEmotional());
-        synthesisEngine.startEngine(text, request.getSpeechRate(), null, request.getPitch());
-
+        // 系统TTS服务自行播放回调的音频, 引擎不启用内置播放器, 合成速度仅受网络限制
         try {
-            callback.start(getApplicationContext().getResources().getInteger(R.integer.tts_sample_rate)
-                    , AudioFormat.ENCODING_PCM_16BIT, 1 /* Number of channels. */);
-
-            Log.d(LogTag.INFO, "开始监听语音合成音频回调队列...");
-            do {
-                byte[] chunk = ttsContext.audioDataQueue.take();
-                // 检查是否是控制信号（空字节数组）
-                if (chunk != null && chunk != CONTROL_SIGNAL && chunk.length > 0) {
-                    Log.d(LogTag.INFO, "向系统TTS服务提供音频Callback,数据长度: " + chunk.length);
-                    int offset = 0;
-                    while (offset < chunk.length) {
-                        int chunkSize = Math.min(callback.getMaxBufferSize(), chunk.length - offset);
-                        callback.audioAvailable(chunk, offset, chunkSize);
-                        offset += chunkSize;
-                    }
-                }
-                Log.d(LogTag.INFO, "收到语音合成状态信号: " + ttsContext.isAudioQueueDone.get());
-            } while (!ttsContext.isAudioQueueDone.get() && !ttsContext.isTTSInterrupted.get());
-            if (ttsContext.isTTSEngineError.get()) {
-                throw new RuntimeException(ttsContext.currentEngineMsg.get());
-            }
+            synthesisEngine.create(settings, true);
+            synthesisEngine.startEngine(text, request.getSpeechRate(), null, request.getPitch(), session.getChannel());
+            callback.start(config.getSampleRate(), AudioFormat.ENCODING_PCM_16BIT, 1 /* Number of channels. */);
+            drainSession(session, callback);
             callback.done();
+        } catch (EngineInitException e) {
+            Log.e(LogTag.ERROR, "无法合成文本: " + e.getMessage());
+            callback.error();
+        } catch (SynthesisTimeoutException e) {
+            Log.e(LogTag.ERROR, e.getMessage());
+            callback.error(TextToSpeech.ERROR_NETWORK_TIMEOUT);
         } catch (Exception e) {
             Log.e(LogTag.ERROR, "执行音频Callback发生错误: " + e.getMessage());
             callback.error();
         }
-        synthesisEngine.destroy();
+        synthesisEngine.release();
     }
 
     /**
      * 合成长文本（超过80字符）
+     * 允许并行合成时由有序并行流水线输出, 否则拆分后的全部片段在同一个引擎会话内以连续合成模式依次合成;
+     * 连续合成省去了每个片段的START指令, 但片段之间严格串行, 因此仅在 tts_max_parallel_segments 设为1时使用
      *
+     * @param session  合成会话
      * @param text     待合成文本
      * @param request  原始请求
      * @param callback 合成回调
      * @param settings 配置信息
      */
-    private void synthesizeLongText(String text, SynthesisRequest request,
+    private void synthesizeLongText(SynthesisSession session, String text, SynthesisRequest request,
                                     SynthesisCallback callback, SettingsData settings) {
-        List<String> segments = splitLongText(text);
+        List<String> segments = segmentationPolicy.segment(text,
+                new Locale(Objects.toString(request.getLanguage(), ""), Objects.toString(request.getCountry(), "")));
+        Log.d(LogTag.INFO, "文本拆分完成(" + segmentationPolicy + ")，共拆分为 " + segments.size() + " 个片段, 首段长度: "
+                + (segments.isEmpty() ? 0 : segments.get(0).length()));
 
         if (segments.isEmpty()) {
             callback.error();
             return;
         }
 
-        // 初始化回调
+        int maxParallelSegments = config.getMaxParallelSegments();
+        if (maxParallelSegments > 1) {
+            synthesizeInParallel(session, segments, maxParallelSegments, request, callback, settings);
+            return;
+        }
+
+        try {
+            synthesisEngine.create(settings, true);
+            synthesisEngine.startContinuousEngine(segments, request.getSpeechRate(), null, request.getPitch(),
+                    session.getChannel());
+            callback.start(config.getSampleRate(), AudioFormat.ENCODING_PCM_16BIT, 1 /* Number of channels. */);
+            drainSession(session, callback);
+            callback.done();
+        } catch (EngineInitException e) {
+            Log.e(LogTag.ERROR, "无法连续合成 " + segments.size() + " 个片段: " + e.getMessage());
+            callback.error();
+        } catch (SynthesisTimeoutException e) {
+            Log.e(LogTag.ERROR, "连续合成 " + segments.size() + " 个片段时" + e.getMessage());
+            callback.error(TextToSpeech.ERROR_NETWORK_TIMEOUT);
+        } catch (Exception e) {
+            Log.e(LogTag.ERROR, "连续合成 " + segments.size() + " 个片段时发生错误: " + e.getMessage());
+            callback.error();
+        }
+        synthesisEngine.release();
+    }
+
+    /**
+     * 使用有序并行流水线合成长文本片段
+     * 当前片段输出期间, 后续片段在独立引擎上并行合成并缓存, 按原顺序依次输出
+     *
+     * @param session             合成会话
+     * @param segments            文本片段
+     * @param maxParallelSegments 最大并行合成片段数
+     * @param request             原始请求
+     * @param callback            合成回调
+     * @param settings            配置信息
+     */
+    private void synthesizeInParallel(SynthesisSession session, List<String> segments, int maxParallelSegments, SynthesisRequest request,
+                                      SynthesisCallback callback, SettingsData settings) {
+        int speechRate = request.getSpeechRate();
+        int pitch = request.getPitch();
+        long maxBufferedBytes = config.getMaxBufferedAudioBytes();
+        OrderedSegmentPipeline pipeline = new OrderedSegmentPipeline(
+                (segment, sink) -> synthesisEngine.startSegment(settings, segment, speechRate, null, pitch, sink),
+                session, maxParallelSegments, config.getLookAheadSegments(), maxBufferedBytes);
         try {
-            callback.start(getApplicationContext().getResources().getInteger(R.integer.tts_sample_rate)
-                    , AudioFormat.ENCODING_PCM_16BIT, 1 /* Number of channels. */);
+            callback.start(config.getSampleRate(), AudioFormat.ENCODING_PCM_16BIT, 1 /* Number of channels. */);
+            boolean succeeded = pipeline.run(segments, chunk -> deliverAudio(callback, chunk));
+            checkTimeout(session);
+            if (succeeded) {
+                callback.done();
+            } else {
+                callback.error();
+            }
+        } catch (EngineInitException e) {
+            Log.e(LogTag.ERROR, "无法并行合成 " + segments.size() + " 个片段: " + e.getMessage());
+            callback.error();
+        } catch (SynthesisTimeoutException e) {
+            Log.e(LogTag.ERROR, "并行合成 " + segments.size() + " 个片段时" + e.getMessage());
+            callback.error(TextToSpeech.ERROR_NETWORK_TIMEOUT);
         } catch (Exception e) {
-            Log.e(LogTag.ERROR, "初始化音频回调失败: " + e.getMessage());
+            Log.e(LogTag.ERROR, "并行合成 " + segments.size() + " 个片段时发生错误: " + e.getMessage());
             callback.error();
+        }
+    }
+
+    /**
+     * 持续消费会话音频通道并提供给系统TTS服务, 直至当前合成作业完成或会话被取消
+     *
+     * @param session  合成会话
+     * @param callback 合成回调
+     */
+    private void drainSession(SynthesisSession session, SynthesisCallback callback) throws InterruptedException {
+        Log.d(LogTag.INFO, "开始监听会话(" + session.getId() + ")音频通道...");
+        AudioChannel channel = session.getChannel();
+        if (!channel.drainWhile(chunk -> deliverAudio(callback, chunk))) {
+            // 系统TTS服务拒绝接收音频(通常是请求已被停止), 与onStop相同地取消会话, 不再等待剩余音频
+            Log.w(LogTag.INFO, "系统TTS服务已停止接收音频, 取消会话(" + session.getId() + ")");
+            session.cancel();
+        }
+        Log.d(LogTag.INFO, "会话(" + session.getId() + ")音频通道峰值占用: " + channel.getHighWaterMark()
+                + "/" + channel.getCapacity() + ", 丢弃数据块: " + channel.getDroppedChunks()
+                + ", 数据块池累计分配: " + audioBufferPool.getAllocatedChunks());
+        checkTimeout(session);
+        if (session.isCancelled()) {
+            Log.w(LogTag.INFO, "会话(" + session.getId() + ")已被取消");
             return;
         }
+        if (channel.isError()) {
+            throw new RuntimeException(channel.getErrorMessage());
+        }
+    }
 
-        boolean hasError = false;
+    /**
+     * 会话因超时被看门狗中止时抛出{@link SynthesisTimeoutException}
+     *
+     * @param session 合成会话
+     */
+    private static void checkTimeout(SynthesisSession session) throws SynthesisTimeoutException {
+        SynthesisDeadline.Stage stage = session.getTimeoutStage();
+        if (stage != null) {
+            throw new SynthesisTimeoutException(stage);
+        }
+    }
 
-        for (int i = 0; i < segments.size(); i++) {
-            String segment = segments.get(i);
-            Log.d(LogTag.INFO, "开始合成第 " + (i + 1) + "/" + segments.size() + " 个片段... 长度: " + segment.length());
-            Log.d(LogTag.INFO, "片段内容: " + segment);
-            if (ttsContext.isTTSInterrupted.get()) {
-                Log.w(LogTag.INFO, "收到语音合成作业中断信号. 跳过第 " + (i + 1) + " 个片段以及后续合成作业");
-                break;
-            }
+    /**
+     * 按系统TTS服务允许的最大缓冲区大小分块提供音频数据
+     *
+     * @param callback 合成回调
+     * @param chunk    音频数据
+     */
+    static boolean deliverAudio(SynthesisCallback callback, AudioChunk chunk) {
+        return deliverAudio(callback, chunk.getData(), chunk.getLength());
+    }
 
-            // 为每个片段创建新的合成引擎实例
-            synthesisEngine.create(settings.getAppId(), settings.getToken(),
-                    settings.getSelectedSpeakerId(), settings.getServiceCluster(), settings.isEmotional());
-            synthesisEngine.startEngine(segment, request.getSpeechRate(), null, request.getPitch());
-
-            try {
-                // 处理当前片段的音频数据
-                boolean segmentCompleted = false;
-                ttsContext.isAudioQueueDone.set(false);
-                ttsContext.isTTSEngineError.set(false);
-
-                while (!segmentCompleted) {
-                    if (ttsContext.isTTSInterrupted.get()) {
-                        Log.w(LogTag.INFO, "收到语音合成作业中断信号");
-                        break;
-                    }
-                    
-                    byte[] chunk = ttsContext.audioDataQueue.take();
-                    // 检查是否是控制信号（空字节数组）
-                    if (chunk != null && chunk != CONTROL_SIGNAL && chunk.length > 0) {
-                        Log.d(LogTag.INFO, "向系统TTS服务提供音频Callback,数据长度: " + chunk.length);
-                        int offset = 0;
-                        while (offset < chunk.length) {
-                            int chunkSize = Math.min(callback.getMaxBufferSize(), chunk.length - offset);
-                            callback.audioAvailable(chunk, offset, chunkSize);
-                            offset += chunkSize;
-                        }
-                    }
-
-                    // 检查当前片段是否完成
-                    if (ttsContext.isAudioQueueDone.get()) {
-                        Log.d(LogTag.INFO, "收到语音合成完成信号. 第 " + (i + 1) + " 个片段合成完成");
-                        segmentCompleted = true;
-                        if (ttsContext.isTTSEngineError.get()) {
-                            hasError = true;
-                            Log.e(LogTag.ERROR, "第 " + (i + 1) + " 个片段合成失败");
-                            break;
-                        }
-                    }
-                }
+    /**
+     * 按系统TTS服务允许的最大缓冲区大小分块提供音频数据
+     *
+     * @param callback 合成回调
+     * @param data     音频数据
+     * @param length   有效数据长度
+     * @return 系统TTS服务是否接收了全部数据; 请求已被停止时audioAvailable返回错误, 剩余数据不再提供
+     */
+    static boolean deliverAudio(SynthesisCallback callback, byte[] data, int length) {
+        Log.d(LogTag.INFO, "向系统TTS服务提供音频Callback,数据长度: " + length);
+        int offset = 0;
+        while (offset < length) {
+            int chunkSize = Math.min(callback.getMaxBufferSize(), length - offset);
+            if (callback.audioAvailable(data, offset, chunkSize) == TextToSpeech.ERROR) {
+                return false;
+            }
+            offset += chunkSize;
+        }
+        return true;
+    }
 
-                // 销毁当前片段的引擎
-                synthesisEngine.destroy();
+    /**
+     * 从音频缓存直接输出合成结果, 无需创建引擎或访问云端服务
+     * 依次查询内存缓存与磁盘缓存, 磁盘缓存命中的条目会被提升至内存缓存
+     *
+     * @param cacheKey 缓存键
+     * @param session  当前请求的会话, 被取消后停止输出
+     * @param callback 合成回调
+     * @return 是否命中缓存
+     */
+    private boolean playFromCache(AudioCacheKey cacheKey, SynthesisSession session, SynthesisCallback callback) {
+        ByteBuffer cached = memoryAudioCache.get(cacheKey);
+        if (cached != null) {
+            Log.d(LogTag.INFO, "命中音频内存缓存, 累计命中/未命中: " + memoryAudioCache.getHitCount()
+                    + "/" + memoryAudioCache.getMissCount());
+            metrics.recordMemoryCacheHit();
+        } else {
+            byte[] audio = audioCache.get(cacheKey);
+            if (audio == null) {
+                metrics.recordCacheMiss();
+                return false;
+            }
+            metrics.recordDiskCacheHit();
+            memoryAudioCache.put(cacheKey, audio, audio.length);
+            cached = ByteBuffer.wrap(audio);
+        }
+        callback.start(config.getSampleRate(), AudioFormat.ENCODING_PCM_16BIT, 1 /* Number of channels. */);
+        metrics.addDeliveredBytes(deliverAudio(callback, cached, session));
+        callback.done();
+        return true;
+    }
 
-                // 如果发生错误，停止后续合成
-                if (hasError) {
+    /**
+     * 借用池化的数据块输出缓存中的音频, 不分配新的数组
+     * 会话被取消或系统TTS服务拒绝接收(请求已被停止)时不再输出剩余音频
+     *
+     * @param callback 合成回调
+     * @param audio    音频数据
+     * @param session  当前请求的会话
+     * @return 已输出的字节数
+     */
+    private long deliverAudio(SynthesisCallback callback, ByteBuffer audio, SynthesisSession session) {
+        int start = audio.position();
+        AudioChunk chunk = audioBufferPool.acquire();
+        try {
+            while (audio.hasRemaining() && !session.isCancelled()) {
+                chunk.fill(audio);
+                if (!deliverAudio(callback, chunk)) {
+                    Log.d(LogTag.INFO, "缓存音频输出已被停止");
                     break;
                 }
-            } catch (Exception e) {
-                Log.e(LogTag.ERROR, "处理第 " + (i + 1) + " 个片段时发生错误: " + e.getMessage());
-                hasError = true;
-                synthesisEngine.destroy();
-                break;
             }
+        } finally {
+            audioBufferPool.release(chunk);
         }
+        return audio.position() - start;
+    }
 
-        if (hasError) {
-            callback.error();
-        } else {
-            callback.done();
-        }
+    /**
+     * 按资源配置创建新的合成会话
+     *
+     * @param textLength 待合成文本长度, 用于计算请求总耗时上限
+     * @param isHeadless  引擎是否通过回调输出音频; 使用内置播放器时通道中没有音频数据, 只限制总耗时
+     */
+    private SynthesisSession newSession(int textLength, boolean isHeadless) {
+        long totalBudget = config.totalBudgetMillis(textLength);
+        SynthesisDeadline deadline = isHeadless
+                ? new SynthesisDeadline(config.getFirstByteTimeoutMillis(), config.getStallTimeoutMillis(), totalBudget)
+                : new SynthesisDeadline(totalBudget, totalBudget, totalBudget);
+        return new SynthesisSession(audioBufferPool, config.getAudioChannelCapacity(),
+                AudioChannel.OverflowPolicy.valueOf(config.getAudioOverflowPolicy()), deadline);
     }
 
     /**
@@ -412,13 +565,18 @@ public class TTSService extends TextToSpeechService {
             mainHandler.post(() -> Toast.makeText(getApplicationContext(), "完成配置后可预览声音", Toast.LENGTH_SHORT).show());
             return;
         }
-        synthesisEngine.create(settings.getAppId(), settings.getToken(),
-                settings.getSelectedSpeakerId(), settings.getServiceCluster(), settings.isEmotional());
-        synthesisEngine.startEngine(text, null, null, null);
-        do {
-            ttsContext.audioDataQueue.take();
-            Log.d(LogTag.INFO, "演示音频队列是否消费完成: " + ttsContext.isAudioQueueDone.get());
-        } while (!ttsContext.isAudioQueueDone.get());
-        synthesisEngine.destroy();
+        synthesisEngine.create(settings, false);
+        SynthesisSession session = newSession(text.length(), false);
+        sessionWatchdog.watch(session);
+        synthesisEngine.startEngine(text, null, null, null, session.getChannel());
+        try {
+            session.getChannel().drainTo(chunk -> {
+            });
+            Log.d(LogTag.INFO, "演示音频播放完成, 是否出错: " + session.getChannel().isError()
+                    + ", 超时阶段: " + session.getTimeoutStage());
+        } finally {
+            sessionWatchdog.unwatch(session);
+            synthesisEngine.release();
+        }
     }
 }
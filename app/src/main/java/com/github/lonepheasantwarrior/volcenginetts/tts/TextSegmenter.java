@@ -0,0 +1,166 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 长文本分段器
+ * 单次遍历句子边界, 将相邻句子合并为不超过上限长度的片段; 超长句子依次在从句分隔符、
+ * 词边界(无空格的泰文、日文等同样适用)、字素簇边界处切分, 不会拆开代理对或组合字符.
+ * 遍历过程只记录下标, 每个片段仅在输出时复制一次
+ */
+final class TextSegmenter {
+    /**
+     * 引擎单次合成文本长度上限
+     */
+    static final int DEFAULT_MAX_LENGTH = 80;
+
+    // 从句分隔符(中英文、全角半角)
+    private static final String CLAUSE_DELIMITERS = ",，、;；:：";
+
+    private final int maxLength;
+    private final Locale locale;
+
+    private String text;
+    private BreakIterator wordIterator;
+    private BreakIterator characterIterator;
+
+    TextSegmenter(int maxLength, Locale locale) {
+        this.maxLength = maxLength;
+        this.locale = locale;
+    }
+
+    /**
+     * 拆分文本
+     *
+     * @param input 原始文本
+     * @return 去除首尾空白后的非空片段, 每段长度不超过上限
+     */
+    List<String> split(CharSequence input) {
+        List<String> segments = new ArrayList<>();
+        if (input == null || input.length() == 0) {
+            return segments;
+        }
+        text = input.toString();
+        wordIterator = null;
+        characterIterator = null;
+
+        BreakIterator sentences = BreakIterator.getSentenceInstance(locale);
+        sentences.setText(text);
+        // 当前待输出片段的范围, pendingStart < 0 表示没有待输出片段
+        int pendingStart = -1;
+        int pendingEnd = -1;
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            int s = skipLeadingWhitespace(start, end);
+            int e = skipTrailingWhitespace(s, end);
+            if (s >= e) {
+                continue;
+            }
+            // 相邻句子合并, 直至达到长度上限
+            if (pendingStart >= 0 && e - pendingStart <= maxLength) {
+                pendingEnd = e;
+                continue;
+            }
+            if (pendingStart >= 0) {
+                segments.add(text.substring(pendingStart, pendingEnd));
+                pendingStart = -1;
+            }
+            // 超长句子先切出若干完整片段, 剩余部分留待与后续句子合并
+            while (e - s > maxLength) {
+                int cut = findCut(s, s + maxLength);
+                int segmentEnd = skipTrailingWhitespace(s, cut);
+                if (segmentEnd > s) {
+                    segments.add(text.substring(s, segmentEnd));
+                }
+                s = skipLeadingWhitespace(cut, e);
+            }
+            if (s < e) {
+                pendingStart = s;
+                pendingEnd = e;
+            }
+        }
+        if (pendingStart >= 0) {
+            segments.add(text.substring(pendingStart, pendingEnd));
+        }
+        text = null;
+        return segments;
+    }
+
+    /**
+     * 在 (from, limit] 范围内查找最靠后的切分位置
+     * 优先级: 从句分隔符之后 > 词边界 > 字素簇边界; 分隔符与词边界均不拆开数字(如"10:30"、"1,000")
+     */
+    private int findCut(int from, int limit) {
+        for (int i = limit - 1; i > from; i--) {
+            if (CLAUSE_DELIMITERS.indexOf(text.charAt(i)) >= 0 && !isBetweenDigits(i)) {
+                return i + 1;
+            }
+        }
+        if (wordIterator == null) {
+            wordIterator = BreakIterator.getWordInstance(locale);
+            wordIterator.setText(text);
+        }
+        int boundary = lastBoundary(wordIterator, limit);
+        while (boundary > from && isInsideNumber(boundary)) {
+            boundary = wordIterator.preceding(boundary);
+        }
+        if (boundary > from) {
+            return boundary;
+        }
+        if (characterIterator == null) {
+            characterIterator = BreakIterator.getCharacterInstance(locale);
+            characterIterator.setText(text);
+        }
+        boundary = lastBoundary(characterIterator, limit);
+        if (boundary > from) {
+            return boundary;
+        }
+        // 单个字素簇即超过上限(极少见), 至少保证不拆开代理对
+        if (Character.isLowSurrogate(text.charAt(limit)) && Character.isHighSurrogate(text.charAt(limit - 1))) {
+            return limit - 1;
+        }
+        return limit;
+    }
+
+    /**
+     * 位置 index 处的字符两侧是否均为数字(时间、千位分隔符等)
+     */
+    private boolean isBetweenDigits(int index) {
+        return index > 0 && index + 1 < text.length()
+                && Character.isDigit(text.charAt(index - 1)) && Character.isDigit(text.charAt(index + 1));
+    }
+
+    /**
+     * 在 cut 处切分是否会拆开一个数字(含其中的分隔符)
+     */
+    private boolean isInsideNumber(int cut) {
+        if (cut <= 0 || cut >= text.length()) {
+            return false;
+        }
+        if (Character.isDigit(text.charAt(cut - 1)) && Character.isDigit(text.charAt(cut))) {
+            return true;
+        }
+        return isBetweenDigits(cut) || isBetweenDigits(cut - 1);
+    }
+
+    private static int lastBoundary(BreakIterator iterator, int limit) {
+        return iterator.isBoundary(limit) ? limit : iterator.preceding(limit);
+    }
+
+    private int skipLeadingWhitespace(int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return start;
+    }
+
+    private int skipTrailingWhitespace(int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
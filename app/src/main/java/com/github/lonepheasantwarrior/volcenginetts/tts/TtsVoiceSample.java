@@ -8,39 +8,36 @@ import androidx.annotation.NonNull;
 import com.github.lonepheasantwarrior.volcenginetts.R;
 import com.github.lonepheasantwarrior.volcenginetts.common.LogTag;
 
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 
 public final class TtsVoiceSample {
+    // ISO3语言代码 -> 示例文本
+    private static final Map<String, Integer> SAMPLES = new HashMap<>();
+
+    static {
+        SAMPLES.put("eng", R.string.tts_sample_en);
+        SAMPLES.put("zho", R.string.tts_sample_zh);
+        SAMPLES.put("rus", R.string.tts_sample_ru);
+        SAMPLES.put("tur", R.string.tts_sample_tr);
+        SAMPLES.put("deu", R.string.tts_sample_de);
+        SAMPLES.put("ita", R.string.tts_sample_it);
+        SAMPLES.put("jpn", R.string.tts_sample_ja);
+        SAMPLES.put("fra", R.string.tts_sample_fr);
+        SAMPLES.put("nld", R.string.tts_sample_nl);
+        SAMPLES.put("por", R.string.tts_sample_pt);
+        SAMPLES.put("spa", R.string.tts_sample_es);
+        SAMPLES.put("kor", R.string.tts_sample_ko);
+        SAMPLES.put("ara", R.string.tts_sample_ar);
+    }
 
     public static String getByLocate(@NonNull Context context, @NonNull Locale locale) throws MissingResourceException {
-        String language = locale.getISO3Language();
-        if (language.equals(new Locale("en").getISO3Language())) {
-            return context.getString(R.string.tts_sample_en);
-        } else if (language.equals(new Locale("zh").getISO3Language())) {
-            return context.getString(R.string.tts_sample_zh);
-        } else if (language.equals(new Locale("ru").getISO3Language())) {
-            return context.getString(R.string.tts_sample_ru);
-        } else if (language.equals(new Locale("tr").getISO3Language())) {
-            return context.getString(R.string.tts_sample_tr);
-        } else if (language.equals(new Locale("de").getISO3Language())) {
-            return context.getString(R.string.tts_sample_de);
-        } else if (language.equals(new Locale("it").getISO3Language())) {
-            return context.getString(R.string.tts_sample_it);
-        } else if (language.equals(new Locale("ja").getISO3Language())) {
-            return context.getString(R.string.tts_sample_ja);
-        } else if (language.equals(new Locale("fr").getISO3Language())) {
-            return context.getString(R.string.tts_sample_fr);
-        } else if (language.equals(new Locale("nl").getISO3Language())) {
-            return context.getString(R.string.tts_sample_nl);
-        } else if (language.equals(new Locale("pt").getISO3Language())) {
-            return context.getString(R.string.tts_sample_pt);
-        } else if (language.equals(new Locale("es").getISO3Language())) {
-            return context.getString(R.string.tts_sample_es);
-        } else if (language.equals(new Locale("ko").getISO3Language())) {
-            return context.getString(R.string.tts_sample_ko);
-        } else if (language.equals(new Locale("ar").getISO3Language())) {
-            return context.getString(R.string.tts_sample_ar);
+        String language = LanguageIndex.resolveLanguage(locale.getLanguage());
+        Integer sample = language == null ? null : SAMPLES.get(language);
+        if (sample != null) {
+            return context.getString(sample);
         } else {
             Log.d(LogTag.INFO, "使用默认Locate: " + locale);
             return context.getString(R.string.tts_sample_default);
@@ -0,0 +1,94 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts;
+
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.Voice;
+
+import com.github.lonepheasantwarrior.volcenginetts.common.SpeakerCatalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 系统TTS声音列表
+ * 包含两类声音:
+ * 1. 音色声音: 每个{@link SpeakerCatalog}中的声音对应一个系统声音, 名称即音色ID, 调用方可按请求指定音色;
+ * 2. 语言声音: 每个受支持语言对应一个声音, 名称同{@link LanguageIndex#getSupportedVoices()}中的条目,
+ * 使用设置中选择的音色, 供框架按语言选择默认声音(设置变更后无需重新加载)
+ */
+final class VoiceCatalog {
+    private static final Set<String> FEATURES =
+            Collections.singleton(TextToSpeech.Engine.KEY_FEATURE_NETWORK_SYNTHESIS);
+
+    private final List<Voice> voices;
+    // 音色ID -> 声音
+    private final Map<String, Voice> speakerVoices = new HashMap<>();
+    private final Set<String> languageVoiceNames = new HashSet<>();
+
+    /**
+     * @param speakers 声音目录中的声音
+     */
+    VoiceCatalog(List<SpeakerCatalog.Speaker> speakers) {
+        List<Voice> all = new ArrayList<>();
+        for (SpeakerCatalog.Speaker speaker : speakers) {
+            String speakerId = speaker.id;
+            Voice voice = new Voice(speakerId, speakerLocale(speakerId), speakerQuality(speakerId),
+                    Voice.LATENCY_NORMAL, true, FEATURES);
+            speakerVoices.put(speakerId, voice);
+            all.add(voice);
+        }
+        for (String language : LanguageIndex.getSupportedVoices()) {
+            String[] parts = language.split("-");
+            all.add(new Voice(language, new Locale(parts[0], parts[1]), Voice.QUALITY_HIGH,
+                    Voice.LATENCY_NORMAL, true, FEATURES));
+            languageVoiceNames.add(language);
+        }
+        voices = Collections.unmodifiableList(all);
+    }
+
+    List<Voice> getVoices() {
+        return voices;
+    }
+
+    /**
+     * 声音名称是否为音色声音
+     */
+    boolean isSpeaker(String voiceName) {
+        return voiceName != null && speakerVoices.containsKey(voiceName);
+    }
+
+    boolean isValidVoiceName(String voiceName) {
+        return isSpeaker(voiceName) || languageVoiceNames.contains(voiceName);
+    }
+
+    /**
+     * 给定语言的默认声音(语言声音)
+     *
+     * @return 声音名称; 语言不受支持时返回null
+     */
+    String getDefaultVoiceName(String lang, String country) {
+        return LanguageIndex.resolveSupportedLanguage(lang, country);
+    }
+
+    /**
+     * 按音色ID推断语言, 例如 zh_female_xxx、ICL_zh_male_xxx、en_male_xxx
+     */
+    private static Locale speakerLocale(String speakerId) {
+        for (String token : speakerId.split("_")) {
+            if (token.length() == 2 && LanguageIndex.resolveLanguage(token) != null) {
+                return new Locale(token);
+            }
+        }
+        return Locale.CHINESE;
+    }
+
+    private static int speakerQuality(String speakerId) {
+        // 大模型音色(bigtts)音质优于常规音色
+        return speakerId.endsWith("_bigtts") ? Voice.QUALITY_VERY_HIGH : Voice.QUALITY_HIGH;
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.lonepheasantwarrior.volcenginetts.cache
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.nio.file.Files
+
+/**
+ * 合成音频磁盘缓存测试
+ */
+class DiskAudioCacheTest {
+    private val directory = Files.createTempDirectory("audio_cache").toFile()
+
+    private fun keyOf(text: String, speechRate: Int = 100) =
+        AudioCacheKey(text, "speaker", "cluster", false, speechRate, 100, 24000)
+
+    @Test
+    fun normalizesWhitespaceInKey() {
+        assertEquals(keyOf("返回  上一页"), keyOf(" 返回 上一页\n"))
+        assertNotEquals(keyOf("返回"), keyOf("返回", speechRate = 150))
+    }
+
+    @Test
+    fun storesAndReadsAudio() {
+        val cache = DiskAudioCache(directory, 1024)
+        cache.put(keyOf("返回"), ByteArray(100) { 7 }, 100)
+
+        assertArrayEquals(ByteArray(100) { 7 }, cache.get(keyOf("返回")))
+        assertNull(cache.get(keyOf("双击以激活")))
+    }
+
+    @Test
+    fun writesAsynchronously() {
+        val cache = DiskAudioCache(directory, 1024)
+        cache.putAsync(keyOf("返回"), ByteArray(100) { 3 }, 100)
+        cache.flush()
+
+        assertArrayEquals(ByteArray(100) { 3 }, cache.get(keyOf("返回")))
+        assertArrayEquals(ByteArray(100) { 3 }, DiskAudioCache(directory, 1024).get(keyOf("返回")))
+    }
+
+    @Test
+    fun evictsLeastRecentlyUsedEntries() {
+        val cache = DiskAudioCache(directory, 300)
+        cache.put(keyOf("a"), ByteArray(100), 100)
+        cache.put(keyOf("b"), ByteArray(100), 100)
+        cache.put(keyOf("c"), ByteArray(100), 100)
+        assertNotNull(cache.get(keyOf("a")))
+        cache.put(keyOf("d"), ByteArray(100), 100)
+
+        assertNotNull(cache.get(keyOf("a")))
+        assertNull(cache.get(keyOf("b")))
+        assertEquals(300, cache.totalBytes)
+    }
+
+    @Test
+    fun survivesRestart() {
+        DiskAudioCache(directory, 1024).put(keyOf("返回"), ByteArray(64) { 1 }, 64)
+
+        val reopened = DiskAudioCache(directory, 1024)
+        assertEquals(1, reopened.entryCount)
+        assertArrayEquals(ByteArray(64) { 1 }, reopened.get(keyOf("返回")))
+    }
+
+    @Test
+    fun scansDirectoryInBackgroundOnCreation() {
+        val leftover = java.io.File(directory, "interrupted.pcm.tmp")
+        leftover.writeBytes(ByteArray(8))
+
+        val cache = DiskAudioCache(directory, 1024)
+        cache.flush()
+        assertFalse(leftover.exists())
+    }
+
+    @Test
+    fun concurrentReadsAndWritesKeepIndexConsistent() {
+        val cache = DiskAudioCache(directory, 2000)
+        val threads = (0 until 4).map { worker ->
+            Thread {
+                repeat(200) {
+                    val key = keyOf("条目${(it * 7 + worker) % 40}")
+                    if (it % 3 == 0) {
+                        cache.put(key, ByteArray(100) { 5 }, 100)
+                    } else {
+                        cache.get(key)?.let { data -> assertEquals(100, data.size) }
+                    }
+                }
+            }
+        }
+        threads.forEach { it.start() }
+        threads.forEach { it.join() }
+
+        assertTrue(cache.totalBytes <= 2000)
+        assertEquals(cache.entryCount * 100L, cache.totalBytes)
+    }
+}
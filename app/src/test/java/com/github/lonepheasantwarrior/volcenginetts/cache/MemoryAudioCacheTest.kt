@@ -0,0 +1,58 @@
+package com.github.lonepheasantwarrior.volcenginetts.cache
+
+import android.content.ComponentCallbacks2
+import org.junit.Assert.*
+import org.junit.Test
+
+/**
+ * 合成音频内存缓存测试
+ */
+class MemoryAudioCacheTest {
+
+    private fun keyOf(text: String) = AudioCacheKey(text, "speaker", "cluster", false, 100, 100, 24000)
+
+    @Test
+    fun countsHitsAndMisses() {
+        val cache = MemoryAudioCache(1024, 256)
+        cache.put(keyOf("返回"), ByteArray(100) { 3 }, 100)
+
+        val audio = cache.get(keyOf("返回"))!!
+        assertEquals(100, audio.remaining())
+        assertEquals(3.toByte(), audio.get(0))
+        assertNull(cache.get(keyOf("双击以激活")))
+        assertEquals(1, cache.hitCount)
+        assertEquals(1, cache.missCount)
+    }
+
+    @Test
+    fun evictsByWeightInLruOrder() {
+        val cache = MemoryAudioCache(300, 256)
+        cache.put(keyOf("a"), ByteArray(100), 100)
+        cache.put(keyOf("b"), ByteArray(150), 150)
+        cache.get(keyOf("a"))
+        cache.put(keyOf("c"), ByteArray(100), 100)
+
+        assertNotNull(cache.get(keyOf("a")))
+        assertNull(cache.get(keyOf("b")))
+        assertEquals(200, cache.totalBytes)
+        assertEquals(1, cache.evictionCount)
+    }
+
+    @Test
+    fun skipsOversizedEntries() {
+        val cache = MemoryAudioCache(1024, 64)
+        cache.put(keyOf("长文本"), ByteArray(100), 100)
+        assertEquals(0, cache.entryCount)
+    }
+
+    @Test
+    fun releasesMemoryOnTrim() {
+        val cache = MemoryAudioCache(400, 256)
+        repeat(4) { cache.put(keyOf(it.toString()), ByteArray(100), 100) }
+
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW)
+        assertEquals(200, cache.totalBytes)
+        cache.onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE)
+        assertEquals(0, cache.entryCount)
+    }
+}
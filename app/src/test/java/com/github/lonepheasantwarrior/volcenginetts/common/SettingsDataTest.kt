@@ -0,0 +1,53 @@
+package com.github.lonepheasantwarrior.volcenginetts.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNotEquals
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class SettingsDataTest {
+
+    @Test
+    fun derivedValuesAreComputedFromToken() {
+        val settings = SettingsData("app", "abc", "speaker", "cluster", false)
+        assertEquals("Bearer;abc", settings.bearerToken)
+        assertEquals("900150983cd24fb0d6963f7d28e17f72", settings.uid)
+        assertEquals(DeviceIdentity.deviceId, settings.deviceId)
+        assertTrue(settings.isComplete)
+    }
+
+    @Test
+    fun speakerCopiesShareDerivedValues() {
+        val settings = SettingsData("app", "abc", "speaker", "cluster", false)
+        val uid = settings.uid
+        val copy = settings.withSpeaker("other")
+        assertEquals("other", copy.selectedSpeakerId)
+        assertSame(uid, copy.uid)
+        assertSame(settings.bearerToken, copy.bearerToken)
+        assertSame(settings, settings.withSpeaker("speaker"))
+        assertSame(settings.credentials, copy.credentials)
+    }
+
+    @Test
+    fun credentialsDoNotAffectEquality() {
+        val settings = SettingsData("app", "abc", "speaker", "cluster", false)
+        val other = SettingsData("app", "abc", "speaker", "cluster", false)
+        assertEquals(settings, other)
+        assertEquals(settings.hashCode(), other.hashCode())
+        assertNotEquals(settings, settings.copy(token = "abcd", credentials = SettingsData.Credentials("abcd")))
+    }
+
+    @Test
+    fun rejectsCredentialsOfAnotherToken() {
+        val settings = SettingsData("app", "abc", "speaker", "cluster", false)
+        assertTrue(runCatching { settings.copy(token = "other") }.exceptionOrNull() is IllegalArgumentException)
+    }
+
+    @Test
+    fun blankRequiredFieldMakesSettingsIncomplete() {
+        assertFalse(SettingsData("app", "token", " ", "cluster", true).isComplete)
+        assertFalse(SettingsData("", "", "", "", false).isComplete)
+    }
+}
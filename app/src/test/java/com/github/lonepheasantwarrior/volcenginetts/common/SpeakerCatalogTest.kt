@@ -0,0 +1,29 @@
+package com.github.lonepheasantwarrior.volcenginetts.common
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertSame
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class SpeakerCatalogTest {
+
+    @Test
+    fun indexesEverySpeakerByIdAndScene() {
+        val speakers = SpeakerCatalog.getSpeakers()
+        assertTrue(speakers.isNotEmpty())
+        for (speaker in speakers) {
+            assertSame(speaker, SpeakerCatalog.findById(speaker.id))
+            assertTrue(SpeakerCatalog.getByScene(speaker.scene).contains(speaker))
+        }
+        val scenes = speakers.map { it.scene }.distinct()
+        assertEquals(speakers.size, scenes.sumOf { SpeakerCatalog.getByScene(it).size })
+    }
+
+    @Test
+    fun unknownLookupsAreEmpty() {
+        assertNull(SpeakerCatalog.findById("unknown"))
+        assertNull(SpeakerCatalog.findById(null))
+        assertTrue(SpeakerCatalog.getByScene("unknown").isEmpty())
+    }
+}
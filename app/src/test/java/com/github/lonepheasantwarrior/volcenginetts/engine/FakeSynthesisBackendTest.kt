@@ -0,0 +1,139 @@
+package com.github.lonepheasantwarrior.volcenginetts.engine
+
+import android.app.Application
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class FakeSynthesisBackendTest {
+
+    private class RecordingSink : SynthesisAudioSink {
+        val audio = ByteArrayOutputStream()
+        val finished = CountDownLatch(1)
+        @Volatile
+        var isError = false
+
+        override val isClosed: Boolean get() = finished.count == 0L
+
+        @Synchronized
+        override fun onAudio(data: ByteArray) {
+            audio.write(data)
+        }
+
+        override fun onFinished(isError: Boolean, message: String) {
+            if (finished.count > 0) {
+                this.isError = isError
+                finished.countDown()
+            }
+        }
+    }
+
+    private fun newHeadlessEngine(config: FakeSynthesisBackend.Config, text: String): BackendEngine {
+        val engine = FakeSynthesisBackend(config).createEngine()
+        engine.setOptionInt(
+            SpeechEngineDefines.PARAMS_KEY_TTS_DATA_CALLBACK_MODE_INT, SpeechEngineDefines.TTS_DATA_CALLBACK_MODE_ALL
+        )
+        engine.setOptionBoolean(SpeechEngineDefines.PARAMS_KEY_TTS_ENABLE_PLAYER_BOOL, false)
+        engine.setOptionString(
+            SpeechEngineDefines.PARAMS_KEY_TTS_SCENARIO_STRING, SpeechEngineDefines.TTS_SCENARIO_TYPE_NORMAL
+        )
+        engine.setOptionString(SpeechEngineDefines.PARAMS_KEY_TTS_TEXT_STRING, text)
+        assertEquals(SpeechEngineDefines.ERR_NO_ERROR, engine.initEngine())
+        return engine
+    }
+
+    @Test
+    fun emitsFullCallbackSequence() {
+        val config = FakeSynthesisBackend.Config(
+            startLatencyMillis = 0, firstChunkLatencyMillis = 0, chunkIntervalMillis = 0,
+            chunkSize = 1000, bytesPerChar = 1000
+        )
+        val engine = newHeadlessEngine(config, "你好世界")
+        val types = Collections.synchronizedList(ArrayList<Int>())
+        val stopped = CountDownLatch(1)
+        engine.setListener { type, _, _ ->
+            types.add(type)
+            when (type) {
+                SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START ->
+                    engine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNTHESIS, "")
+                SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP -> stopped.countDown()
+            }
+        }
+
+        assertEquals(SpeechEngineDefines.ERR_NO_ERROR, engine.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, ""))
+        assertTrue(stopped.await(2, TimeUnit.SECONDS))
+        assertEquals(
+            listOf(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START, SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_BEGIN)
+                    + List(4) { SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA }
+                    + listOf(
+                SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END,
+                SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_END,
+                SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP
+            ),
+            types
+        )
+        engine.destroyEngine()
+    }
+
+    @Test
+    fun sessionListenerReceivesAudioThroughFake() {
+        val config = FakeSynthesisBackend.Config(
+            startLatencyMillis = 0, firstChunkLatencyMillis = 5, chunkIntervalMillis = 1,
+            jitterMillis = 2, chunkSize = 700, bytesPerChar = 1000
+        )
+        val engine = newHeadlessEngine(config, "今天天气不错")
+        val sink = RecordingSink()
+        engine.setListener(SynthesisEngineListener(Application()).newSessionListener(1, engine, sink))
+
+        engine.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, "")
+        assertTrue(sink.finished.await(2, TimeUnit.SECONDS))
+        assertFalse(sink.isError)
+        assertEquals(6000, sink.audio.size())
+        engine.destroyEngine()
+    }
+
+    @Test
+    fun failureEndsSessionWithError() {
+        val config = FakeSynthesisBackend.Config(
+            startLatencyMillis = 0, firstChunkLatencyMillis = 0, chunkIntervalMillis = 0, failureRate = 1.0
+        )
+        val engine = newHeadlessEngine(config, "失败")
+        val sink = RecordingSink()
+        engine.setListener(SynthesisEngineListener(Application()).newSessionListener(1, engine, sink))
+
+        engine.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, "")
+        assertTrue(sink.finished.await(2, TimeUnit.SECONDS))
+        assertTrue(sink.isError)
+        engine.destroyEngine()
+    }
+
+    @Test
+    fun syncStopDiscardsPendingCallbacks() {
+        val config = FakeSynthesisBackend.Config(startLatencyMillis = 0, firstChunkLatencyMillis = 10_000)
+        val engine = newHeadlessEngine(config, "停止")
+        val types = Collections.synchronizedList(ArrayList<Int>())
+        val started = CountDownLatch(1)
+        engine.setListener { type, _, _ ->
+            types.add(type)
+            if (type == SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START) {
+                engine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNTHESIS, "")
+                started.countDown()
+            }
+        }
+
+        engine.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, "")
+        assertTrue(started.await(2, TimeUnit.SECONDS))
+        assertEquals(SpeechEngineDefines.ERR_NO_ERROR, engine.sendDirective(SpeechEngineDefines.DIRECTIVE_SYNC_STOP_ENGINE, ""))
+        assertEquals(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP, types.last())
+        assertFalse(types.contains(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA))
+        // 停止后可再次启动
+        assertEquals(SpeechEngineDefines.ERR_NO_ERROR, engine.sendDirective(SpeechEngineDefines.DIRECTIVE_START_ENGINE, ""))
+        engine.destroyEngine()
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.lonepheasantwarrior.volcenginetts.metrics
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class LatencyHistogramTest {
+
+    @Test
+    fun bucketsCoverEveryValueWithBoundedError() {
+        var previousIndex = -1
+        var value = 0L
+        while (value <= LatencyHistogram.MAX_TRACKABLE_MICROS) {
+            val index = LatencyHistogram.indexOf(value)
+            assertTrue(index >= previousIndex)
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value)
+            // 桶上界与记录值的相对误差不超过1/32
+            assertTrue(LatencyHistogram.highestValueOf(index) - value <= value / LatencyHistogram.SUB_BUCKETS)
+            previousIndex = index
+            value = if (value < 1000) value + 1 else value + value / 7
+        }
+        assertEquals(
+            LatencyHistogram.MAX_TRACKABLE_MICROS,
+            LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(LatencyHistogram.MAX_TRACKABLE_MICROS))
+        )
+    }
+
+    @Test
+    fun reportsPercentilesMeanAndMax() {
+        val histogram = LatencyHistogram()
+        (1..1000L).forEach { histogram.recordMicros(it * 1000) }
+        val snapshot = histogram.snapshot()
+        assertEquals(1000, snapshot.count)
+        assertEquals(500_500, snapshot.meanMicros)
+        assertEquals(1_000_000, snapshot.maxMicros)
+        assertEquals(500_000.0, snapshot.getValueAtPercentile(50.0).toDouble(), 500_000.0 / 32)
+        assertEquals(990_000.0, snapshot.getValueAtPercentile(99.0).toDouble(), 990_000.0 / 32)
+        assertEquals(1_000_000, snapshot.getValueAtPercentile(100.0))
+        assertEquals(0, LatencyHistogram().snapshot().getValueAtPercentile(50.0))
+    }
+
+    @Test
+    fun concurrentRecordsAreNotLost() {
+        val histogram = LatencyHistogram()
+        val executor = Executors.newFixedThreadPool(4)
+        repeat(4) { thread ->
+            executor.execute { repeat(10_000) { histogram.recordMicros((thread * 10_000L + it) % 5000) } }
+        }
+        executor.shutdown()
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS))
+        assertEquals(40_000, histogram.snapshot().count)
+        assertEquals(4999, histogram.snapshot().maxMicros)
+    }
+}
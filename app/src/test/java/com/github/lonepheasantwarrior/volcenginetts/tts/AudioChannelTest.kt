@@ -0,0 +1,165 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+/**
+ * 有界音频通道测试
+ */
+class AudioChannelTest {
+
+    private fun chunkOf(value: Int, size: Int = 16) = ByteArray(size) { value.toByte() }
+
+    @Test
+    fun splitsCallbackDataIntoPooledChunks() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 8, AudioChannel.OverflowPolicy.BLOCK)
+        channel.onAudio(chunkOf(1, 40))
+        channel.onFinished(false, "")
+
+        val lengths = ArrayList<Int>()
+        channel.drainTo { lengths.add(it.length) }
+        assertEquals(listOf(16, 16, 8), lengths)
+    }
+
+    @Test
+    fun drainStopsWhenOutputRejectsAudio() {
+        val pool = AudioBufferPool(16, 8)
+        val channel = AudioChannel(pool, 8, AudioChannel.OverflowPolicy.BLOCK)
+        repeat(5) { channel.onAudio(chunkOf(it)) }
+
+        var accepted = 0
+        assertFalse(channel.drainWhile { ++accepted < 2 })
+        assertEquals(2, accepted)
+        // 被拒绝的数据块同样归还, 剩余音频留在通道中
+        assertEquals(3 * 16L, channel.bufferedBytes)
+    }
+
+    @Test
+    fun interruptReleasesBlockedProducer() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 2, AudioChannel.OverflowPolicy.BLOCK)
+        val producer = Thread {
+            repeat(10) { channel.onAudio(chunkOf(it)) }
+        }
+        producer.start()
+        while (channel.bufferedBytes < 2 * 16L) {
+            Thread.sleep(1)
+        }
+
+        channel.interrupt("中断")
+        producer.join(1000)
+        assertFalse(producer.isAlive)
+        assertTrue(channel.isError)
+        assertTrue(channel.isClosed)
+    }
+
+    @Test
+    fun interruptKeepsAudioOfFinishedJob() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 8, AudioChannel.OverflowPolicy.BLOCK)
+        repeat(3) { channel.onAudio(chunkOf(it)) }
+        channel.onFinished(false, "")
+
+        channel.interrupt("中断")
+        var drained = 0
+        channel.drainTo { drained++ }
+        assertEquals(3, drained)
+        assertFalse(channel.isError)
+    }
+
+    @Test
+    fun steadyStreamingReusesPooledChunks() {
+        val pool = AudioBufferPool(16, 8)
+        val channel = AudioChannel(pool, 4, AudioChannel.OverflowPolicy.BLOCK)
+        repeat(1000) {
+            channel.onAudio(chunkOf(it))
+            channel.recycle(channel.poll(0))
+        }
+        assertEquals(1, pool.allocatedChunks)
+        assertEquals(1, channel.highWaterMark)
+    }
+
+    @Test
+    fun blockPolicyAppliesBackpressureWithoutLoss() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 2, AudioChannel.OverflowPolicy.BLOCK)
+        val producer = Thread {
+            repeat(20) { channel.onAudio(chunkOf(it)) }
+            channel.onFinished(false, "")
+        }
+        producer.start()
+
+        val output = ByteArrayOutputStream()
+        channel.drainTo {
+            Thread.sleep(1)
+            output.write(it.data, 0, it.length)
+        }
+        producer.join()
+
+        val expected = (0 until 20).flatMap { index -> List(16) { index.toByte() } }.toByteArray()
+        assertArrayEquals(expected, output.toByteArray())
+        assertEquals(0, channel.droppedChunks)
+        assertTrue(channel.highWaterMark <= 2)
+    }
+
+    @Test
+    fun dropOldestKeepsNewestAudio() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 2, AudioChannel.OverflowPolicy.DROP_OLDEST)
+        repeat(5) { channel.onAudio(chunkOf(it)) }
+        channel.onFinished(false, "")
+
+        val values = ArrayList<Byte>()
+        channel.drainTo { values.add(it.data[0]) }
+        assertEquals(listOf<Byte>(3, 4), values)
+        assertEquals(3, channel.droppedChunks)
+        assertEquals(48, channel.droppedBytes)
+    }
+
+    @Test
+    fun dropNewestKeepsOldestAudio() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 2, AudioChannel.OverflowPolicy.DROP_NEWEST)
+        repeat(5) { channel.onAudio(chunkOf(it)) }
+        channel.onFinished(false, "")
+
+        val values = ArrayList<Byte>()
+        channel.drainTo { values.add(it.data[0]) }
+        assertEquals(listOf<Byte>(0, 1), values)
+        assertEquals(3, channel.droppedChunks)
+    }
+
+    @Test
+    fun errorIsVisibleWhenPollingConsumerSeesEnd() {
+        repeat(500) { iteration ->
+            val channel = AudioChannel(AudioBufferPool(16, 8), 8, AudioChannel.OverflowPolicy.BLOCK)
+            val polling = CountDownLatch(1)
+            var errorSeen = false
+            val consumer = Thread {
+                polling.countDown()
+                channel.drainTo { }
+                errorSeen = channel.isError
+            }
+            consumer.start()
+            polling.await()
+            channel.onFinished(true, "合成失败")
+            consumer.join(2000)
+            assertFalse(consumer.isAlive)
+            assertTrue("第${iteration}次结束时未读到错误状态", errorSeen)
+            assertEquals("合成失败", channel.errorMessage)
+        }
+    }
+
+    @Test
+    fun closeWakesBlockedProducerAndConsumer() {
+        val channel = AudioChannel(AudioBufferPool(16, 8), 1, AudioChannel.OverflowPolicy.BLOCK)
+        val producerDone = CountDownLatch(1)
+        Thread {
+            repeat(3) { channel.onAudio(chunkOf(it)) }
+            producerDone.countDown()
+        }.start()
+        Thread.sleep(50)
+        channel.close()
+
+        assertTrue(producerDone.await(1, TimeUnit.SECONDS))
+        assertTrue(AudioChannel.isEndSignal(channel.poll(1000)))
+    }
+}
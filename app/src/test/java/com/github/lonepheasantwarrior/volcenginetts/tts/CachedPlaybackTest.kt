@@ -0,0 +1,63 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.TextToSpeech
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.nio.file.Files
+import java.util.Locale
+
+class CachedPlaybackTest {
+
+    private val text = "今天天气不错，适合出门散步。"
+
+    private fun newCachingService(): FakeTtsService {
+        val service = FakeTtsService(
+            FakeSynthesisBackend.Config(firstChunkLatencyMillis = 10, chunkIntervalMillis = 1),
+            FakeTtsService.defaultConfig().copy(
+                audioCacheMaxBytes = 8L shl 20, audioCacheMaxEntryBytes = 1 shl 20,
+                memoryCacheMaxBytes = 8L shl 20, memoryCacheMaxEntryBytes = 1 shl 20
+            ),
+            Files.createTempDirectory("cached-playback").toFile()
+        )
+        val first = RecordingSynthesisCallback(1024)
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), first)
+        assertTrue(first.isSucceeded)
+        assertEquals(1, service.application.pipelineMetrics.cacheMisses)
+        return service
+    }
+
+    @Test
+    fun stopInterruptsCachedPlayback() {
+        val service = newCachingService()
+        val callback = object : RecordingSynthesisCallback(1024) {
+            override fun audioAvailable(buffer: ByteArray, offset: Int, length: Int): Int {
+                if (deliveries == 2) {
+                    service.stop()
+                }
+                return super.audioAvailable(buffer, offset, length)
+            }
+        }
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), callback)
+
+        assertEquals(1, service.application.pipelineMetrics.memoryCacheHits)
+        // 停止后最多再输出当前数据块的剩余部分
+        assertTrue(callback.totalBytes < text.length * 9600L / 4)
+        assertTrue(callback.deliveries <= FakeTtsService.defaultConfig().audioChunkSize / 1024 + 2)
+    }
+
+    @Test
+    fun rejectedAudioStopsCachedPlayback() {
+        val service = newCachingService()
+        val callback = object : RecordingSynthesisCallback(1024) {
+            override fun audioAvailable(buffer: ByteArray, offset: Int, length: Int): Int {
+                val result = super.audioAvailable(buffer, offset, length)
+                return if (deliveries >= 3) TextToSpeech.ERROR else result
+            }
+        }
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), callback)
+
+        assertEquals(3, callback.deliveries)
+    }
+}
@@ -0,0 +1,75 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.TextToSpeech
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * 记录音频数据的合成回调测试
+ */
+class CachingSynthesisCallbackTest {
+
+    private fun audioOf(size: Int, seed: Int) = ByteArray(size) { (it * 31 + seed).toByte() }
+
+    private fun feed(callback: CachingSynthesisCallback, vararg parts: ByteArray) {
+        callback.start(24000, 2, 1)
+        for (part in parts) {
+            callback.audioAvailable(part, 0, part.size)
+        }
+        callback.done()
+    }
+
+    @Test
+    fun recordsAudioAcrossPooledChunks() {
+        val pool = AudioBufferPool(16, 8)
+        val callback = CachingSynthesisCallback(RecordingSynthesisCallback(1024), pool, 100)
+        val parts = arrayOf(audioOf(10, 1), audioOf(25, 2), audioOf(7, 3))
+        feed(callback, *parts)
+
+        assertTrue(callback.isCacheable)
+        assertArrayEquals(parts.reduce { a, b -> a + b }, callback.recordedAudio)
+        assertEquals(3, pool.allocatedChunks)
+    }
+
+    @Test
+    fun reusesPooledChunksAcrossRequests() {
+        val pool = AudioBufferPool(16, 8)
+        repeat(20) {
+            val callback = CachingSynthesisCallback(RecordingSynthesisCallback(1024), pool, 100)
+            feed(callback, audioOf(40, it))
+            assertArrayEquals(audioOf(40, it), callback.recordedAudio)
+            callback.recycle()
+        }
+        assertEquals(3, pool.allocatedChunks)
+    }
+
+    @Test
+    fun stopsRecordingBeyondLimit() {
+        val pool = AudioBufferPool(16, 8)
+        val callback = CachingSynthesisCallback(RecordingSynthesisCallback(1024), pool, 32)
+        feed(callback, audioOf(20, 1), audioOf(20, 2), audioOf(20, 3))
+
+        assertFalse(callback.isCacheable)
+        assertEquals(60L, callback.deliveredBytes)
+        assertEquals(0, callback.recordedAudio.size)
+    }
+
+    @Test
+    fun dropsRecordingOnceAudioIsRejected() {
+        val pool = AudioBufferPool(16, 8)
+        val delegate = object : RecordingSynthesisCallback(1024) {
+            override fun audioAvailable(buffer: ByteArray, offset: Int, length: Int): Int {
+                super.audioAvailable(buffer, offset, length)
+                return if (deliveries >= 2) TextToSpeech.ERROR else TextToSpeech.SUCCESS
+            }
+        }
+        val callback = CachingSynthesisCallback(delegate, pool, 100)
+        feed(callback, audioOf(20, 1), audioOf(20, 2), audioOf(20, 3))
+
+        assertFalse(callback.isCacheable)
+        assertEquals(0, callback.recordedAudio.size)
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import com.bytedance.speech.speechengine.SpeechEngineDefines
+import com.github.lonepheasantwarrior.volcenginetts.engine.CallbackTrace
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisBackend
+import com.github.lonepheasantwarrior.volcenginetts.engine.TraceReplayBackend
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.nio.file.Files
+import java.util.Locale
+
+class CallbackTraceReplayTest {
+
+    private val text = "今天天气不错，适合出门散步。"
+
+    private fun newService(backend: SynthesisBackend, capture: Boolean = false) = FakeTtsService(
+        backend, FakeTtsService.defaultConfig().copy(captureCallbackTraces = capture),
+        Files.createTempDirectory("callback-trace").toFile()
+    )
+
+    private fun synthesize(service: FakeTtsService): RecordingSynthesisCallback {
+        val callback = RecordingSynthesisCallback(8192)
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), callback)
+        return callback
+    }
+
+    private fun event(type: Int, offsetMillis: Long, length: Int = 0, payload: String? = null) =
+        CallbackTrace.Event(type, offsetMillis * 1000, length, payload?.toByteArray())
+
+    @Test
+    fun binaryFormatRoundTrips() {
+        val trace = CallbackTrace(
+            1_700_000_000_000, 3, listOf(
+                event(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START, 40, 2, "{}"),
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA, 190, 4800),
+                event(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_ERROR, 5000, 30, "{\"err_code\":-1,\"err_msg\":\"x\"}")
+            )
+        )
+        val output = ByteArrayOutputStream()
+        trace.writeTo(output)
+        // 每个事件仅占数个字节(控制消息另加原文)
+        assertTrue(output.size() < 80)
+
+        val read = CallbackTrace.readFrom(ByteArrayInputStream(output.toByteArray()))
+        assertEquals(trace.startedAtMillis, read.startedAtMillis)
+        assertEquals(3, read.segmentCount)
+        assertEquals(trace.events.map { it.type }, read.events.map { it.type })
+        assertEquals(trace.events.map { it.offsetMicros }, read.events.map { it.offsetMicros })
+        assertEquals(trace.events.map { it.length }, read.events.map { it.length })
+        assertEquals(null, read.events[1].payload)
+        assertArrayEquals(trace.events[2].payload, read.events[2].payload)
+    }
+
+    @Test
+    fun capturedSessionReplaysIntoService() {
+        val backendConfig = FakeSynthesisBackend.Config(
+            startLatencyMillis = 10, firstChunkLatencyMillis = 60, chunkIntervalMillis = 5, bytesPerChar = 2000
+        )
+        val recording = newService(FakeSynthesisBackend(backendConfig), capture = true)
+        val original = synthesize(recording)
+        assertTrue(original.isSucceeded)
+
+        // 轨迹在收到ENGINE_STOP后异步写入
+        val writer = recording.application.synthesisEngineListener.traceWriter!!
+        var files: List<File> = emptyList()
+        for (i in 0 until 100) {
+            writer.flush()
+            files = writer.listTraces()
+            if (files.isNotEmpty()) break
+            Thread.sleep(20)
+        }
+        assertEquals(1, files.size)
+        val trace = CallbackTrace.read(files[0])
+        val types = trace.events.map { it.type }
+        assertEquals(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START, types.first())
+        assertEquals(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP, types.last())
+        assertEquals(
+            original.totalBytes,
+            trace.events.filter { it.type == SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA }.sumOf { it.length.toLong() }
+        )
+
+        val replayService = newService(TraceReplayBackend(listOf(trace), 1.0))
+        val start = System.nanoTime()
+        val replayed = synthesize(replayService)
+        assertTrue(replayed.isSucceeded)
+        assertEquals(original.totalBytes, replayed.totalBytes)
+        assertEquals(original.deliveries, replayed.deliveries)
+        // 原始时序下首包音频不早于录制时的首个音频回调
+        val firstAudioMicros = trace.events.first { it.type == SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA }.offsetMicros
+        assertTrue(firstAudioMicros >= 70_000)
+        assertTrue(replayed.getDeliveryNanos(0) - start >= firstAudioMicros * 1000)
+    }
+
+    @Test
+    fun errorMidStreamFailsRequest() {
+        val progressFlood = (1..200).map { event(SpeechEngineDefines.MESSAGE_TYPE_TTS_PLAYBACK_PROGRESS, 20 + it / 10L, 16, "{\"progress\":0.1}") }
+        val trace = CallbackTrace(
+            0, 1, listOf(
+                event(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START, 5),
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_BEGIN, 10)
+            ) + progressFlood + listOf(
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA, 50, 4800),
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA, 60, 4800),
+                event(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_ERROR, 70, 40, "{\"err_code\":-2,\"err_msg\":\"connection reset\"}")
+            )
+        )
+        val backend = TraceReplayBackend(listOf(trace), 0.0)
+        val callback = synthesize(newService(backend))
+        assertFalse(callback.isSucceeded)
+        assertEquals(9600L, callback.totalBytes)
+        assertEquals(1, backend.startCount)
+    }
+
+    @Test
+    fun lateEngineStopDoesNotDelayRequest() {
+        val trace = CallbackTrace(
+            0, 1, listOf(
+                event(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_START, 5),
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA, 30, 4800),
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_AUDIO_DATA_END, 40),
+                event(SpeechEngineDefines.MESSAGE_TYPE_TTS_SYNTHESIS_END, 41),
+                event(SpeechEngineDefines.MESSAGE_TYPE_ENGINE_STOP, 3000)
+            )
+        )
+        val service = newService(TraceReplayBackend(listOf(trace), 1.0))
+        val start = System.nanoTime()
+        val callback = synthesize(service)
+        assertTrue(callback.isSucceeded)
+        assertEquals(4800L, callback.totalBytes)
+        assertTrue(System.nanoTime() - start < 1_000_000_000L)
+        // 引擎归还后可立即用于下一次请求(轨迹循环使用)
+        assertTrue(synthesize(service).isSucceeded)
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import org.junit.Assert.assertArrayEquals
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.nio.file.Files
+import java.util.Locale
+
+/**
+ * 长文本的连续合成模式(tts_max_parallel_segments = 1)经由onSynthesizeText的端到端测试
+ */
+class ContinuousSynthesisTest {
+
+    // 每句以不同的数字开头, 水印音频据此标识所属片段
+    private val text = (1..6).joinToString("") { "${it}号段落，今天天气不错，适合出门散步，也适合在家看书。" }
+
+    private class Run(val audio: ByteArray, val metrics: PipelineMetrics, val isSucceeded: Boolean)
+
+    private fun synthesize(maxParallelSegments: Int): Run {
+        val service = FakeTtsService(
+            FakeSynthesisBackend.Config(firstChunkLatencyMillis = 10, chunkIntervalMillis = 1, watermark = true),
+            FakeTtsService.defaultConfig(maxParallelSegments),
+            Files.createTempDirectory("continuous").toFile()
+        )
+        val audio = ByteArrayOutputStream()
+        val callback = object : RecordingSynthesisCallback(4096) {
+            override fun audioAvailable(buffer: ByteArray, offset: Int, length: Int): Int {
+                audio.write(buffer, offset, length)
+                return super.audioAvailable(buffer, offset, length)
+            }
+        }
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), callback)
+        return Run(audio.toByteArray(), service.application.pipelineMetrics, callback.isSucceeded)
+    }
+
+    @Test
+    fun synthesizesAllSegmentsInOneEngineSession() {
+        val run = synthesize(1)
+
+        assertTrue(run.isSucceeded)
+        val segments = run.metrics.histogram(PipelineMetrics.Stage.SEGMENT).snapshot().count
+        assertTrue("segments=$segments", segments > 1)
+        // 全部片段共用一次START指令
+        assertEquals(1L, run.metrics.histogram(PipelineMetrics.Stage.ENGINE_START).snapshot().count)
+    }
+
+    @Test
+    fun deliversSameAudioAsParallelPipeline() {
+        val continuous = synthesize(1)
+        val parallel = synthesize(2)
+
+        assertTrue(parallel.isSucceeded)
+        assertTrue(parallel.metrics.histogram(PipelineMetrics.Stage.ENGINE_START).snapshot().count > 1)
+        assertTrue(continuous.audio.isNotEmpty())
+        assertArrayEquals(parallel.audio, continuous.audio)
+    }
+}
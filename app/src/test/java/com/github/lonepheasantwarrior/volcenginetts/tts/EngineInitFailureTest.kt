@@ -0,0 +1,51 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.TextToSpeech
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.nio.file.Files
+import java.util.Locale
+
+/**
+ * 引擎初始化失败时请求应以错误结束, 失败的引擎被销毁而不进入引擎池, 后续请求可正常合成
+ */
+class EngineInitFailureTest {
+
+    private fun assertFailsThenRecovers(maxParallelSegments: Int, text: String) {
+        val service = FakeTtsService(
+            FakeSynthesisBackend.Config(firstChunkLatencyMillis = 10, chunkIntervalMillis = 1, initFailures = 1),
+            FakeTtsService.defaultConfig(maxParallelSegments),
+            Files.createTempDirectory("engine-init").toFile()
+        )
+        val failed = RecordingSynthesisCallback(1024)
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), failed)
+
+        assertEquals(TextToSpeech.ERROR, failed.errorCode)
+        assertEquals(0, failed.deliveries)
+        val metrics = service.application.pipelineMetrics
+        assertEquals(1L, metrics.errorCounts["${PipelineMetrics.ERROR_DOMAIN_SDK}:${FakeSynthesisBackend.ERR_FAKE_INIT_FAILURE}"])
+
+        val next = RecordingSynthesisCallback(1024)
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), next)
+        assertTrue(next.isSucceeded)
+        assertTrue(next.totalBytes > 0)
+    }
+
+    @Test
+    fun failsShortTextRequest() {
+        assertFailsThenRecovers(2, "今天天气不错，适合出门散步。")
+    }
+
+    @Test
+    fun failsParallelPipelineRequest() {
+        assertFailsThenRecovers(2, "今天天气不错，适合出门散步。".repeat(8))
+    }
+
+    @Test
+    fun failsContinuousSynthesisRequest() {
+        assertFailsThenRecovers(1, "今天天气不错，适合出门散步。".repeat(8))
+    }
+}
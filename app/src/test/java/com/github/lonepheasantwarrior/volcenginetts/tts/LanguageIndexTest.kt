@@ -0,0 +1,38 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.TextToSpeech
+import com.github.lonepheasantwarrior.volcenginetts.common.Constants
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Test
+
+class LanguageIndexTest {
+
+    @Test
+    fun everySupportedLanguageIsFullyAvailable() {
+        for (language in Constants.SUPPORTED_LANGUAGES) {
+            val (lang, country) = language.split("-")
+            assertEquals(language, TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE,
+                LanguageIndex.isLanguageAvailable(lang, country, ""))
+        }
+    }
+
+    @Test
+    fun acceptsTwoLetterAndMixedCaseCodes() {
+        assertEquals(TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE, LanguageIndex.isLanguageAvailable("en", "US", ""))
+        assertEquals(TextToSpeech.LANG_COUNTRY_VAR_AVAILABLE, LanguageIndex.isLanguageAvailable("ZH", "cn", null))
+        assertEquals("zho", LanguageIndex.resolveLanguage("zh"))
+        assertEquals("heb", LanguageIndex.resolveLanguage("iw"))
+    }
+
+    @Test
+    fun fallsBackByLanguageAndCountry() {
+        assertEquals(TextToSpeech.LANG_COUNTRY_AVAILABLE, LanguageIndex.isLanguageAvailable("eng", "USA", "POSIX"))
+        assertEquals(TextToSpeech.LANG_AVAILABLE, LanguageIndex.isLanguageAvailable("eng", "", ""))
+        // 国家只在其他语言下受支持时不视为国家可用
+        assertEquals(TextToSpeech.LANG_AVAILABLE, LanguageIndex.isLanguageAvailable("eng", "ESP", ""))
+        assertEquals(TextToSpeech.LANG_NOT_SUPPORTED, LanguageIndex.isLanguageAvailable("xyz", "USA", ""))
+        assertEquals(TextToSpeech.LANG_NOT_SUPPORTED, LanguageIndex.isLanguageAvailable("", "", ""))
+        assertNull(LanguageIndex.resolveLanguage("fas"))
+    }
+}
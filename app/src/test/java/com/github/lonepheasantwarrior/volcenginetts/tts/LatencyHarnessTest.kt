@@ -0,0 +1,60 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.nio.file.Files
+import java.util.Locale
+
+class LatencyHarnessTest {
+
+    private fun fastOptions() = LatencyHarness.Options().apply {
+        rttMillis = 5
+        msPerChar = 1.0
+        jitterMillis = 0
+        iterations = 3
+        warmup = 0
+    }
+
+    @Test
+    fun serviceDeliversAllAudioThroughFakeBackend() {
+        val options = fastOptions()
+        val service = FakeTtsService(
+            options.toBackendConfig(), FakeTtsService.defaultConfig(),
+            Files.createTempDirectory("tts-service").toFile()
+        )
+        val text = BenchmarkCorpus.ZH_NOVEL.load().replace(Regex("\\s+"), "")
+
+        val short = RecordingSynthesisCallback(8192)
+        service.synthesize(FakeSynthesisRequest(text.substring(0, 20), Locale.CHINA), short)
+        assertTrue(short.isSucceeded)
+        assertEquals(24000, short.sampleRate)
+        assertEquals(20L * options.bytesPerChar, short.totalBytes)
+
+        // 长文本经并行流水线分段合成, 分段时去除的标点与空白不产生音频
+        val long = RecordingSynthesisCallback(8192)
+        service.synthesize(FakeSynthesisRequest(text.substring(0, 300), Locale.CHINA), long)
+        assertTrue(long.isSucceeded)
+        assertTrue(long.totalBytes > 250L * options.bytesPerChar)
+        assertTrue(long.deliveries > 1)
+    }
+
+    @Test
+    fun reportsPercentilesForEachTextSize() {
+        val json = LatencyHarness.run(fastOptions())
+        LatencyHarness.TextSize.entries.forEach {
+            assertTrue(json.contains("\"name\":\"${it.name.lowercase()}\",\"textLength\":${it.length},\"errors\":0,"))
+        }
+        assertTrue(json.contains("\"ttfaMillis\":{\"count\":3,"))
+    }
+
+    @Test
+    fun percentilesUseNearestRank() {
+        val samples = DoubleArray(100) { (it + 1).toDouble() }
+        val percentiles = Percentiles(samples, samples.size)
+        assertEquals(50.0, percentiles.get(50.0), 0.0)
+        assertEquals(99.0, percentiles.get(99.0), 0.0)
+        assertEquals(100.0, percentiles.max, 0.0)
+        assertEquals(0.0, Percentiles(samples, 0).get(50.0), 0.0)
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.Locale
+
+/**
+ * 低首包延迟分段策略测试
+ */
+class LatencyShapedSegmentationPolicyTest {
+    private val policy = LatencyShapedSegmentationPolicy()
+
+    @Test
+    fun firstSegmentIsShortestNaturalClause() {
+        val text = "天色渐渐暗了下来，街上的行人越来越少。" + "远处传来一阵阵钟声，回荡在空旷的广场上。".repeat(6)
+        val segments = policy.segment(text, Locale.CHINA)
+
+        assertEquals("天色渐渐暗了下来，", segments.first())
+        assertTrue(segments.drop(1).all { it.length <= TextSegmenter.DEFAULT_MAX_LENGTH })
+        // 后续片段合并至接近上限, 请求次数少于按从句逐一发送
+        assertTrue(segments.size < text.count { it == '，' || it == '。' })
+        assertEquals(text, segments.joinToString(""))
+    }
+
+    @Test
+    fun firstSegmentFallsBackToWordBoundary() {
+        val text = "The quick brown fox jumps over the lazy dog and keeps running without any punctuation at all today"
+        val segments = policy.segment(text, Locale.US)
+
+        assertTrue(segments.first().length <= 30)
+        assertTrue(text.startsWith(segments.first() + " "))
+        assertEquals(text, segments.joinToString(" "))
+    }
+
+    @Test
+    fun rebalancesShortTrailingFragment() {
+        // 紧凑分段会留下仅4个字符的结尾"word"
+        val text = "Hello there, " + "word ".repeat(17).trim()
+        val segments = policy.segment(text, Locale.US)
+
+        assertEquals(3, segments.size)
+        assertEquals("Hello there,", segments.first())
+        assertTrue(segments.last().length >= 10)
+        assertTrue(segments.all { it.length <= TextSegmenter.DEFAULT_MAX_LENGTH })
+        assertEquals(text, segments.joinToString(" "))
+    }
+
+    @Test
+    fun firstClauseDoesNotSplitDecimalsAbbreviationsOrTimes() {
+        val tail = " The rest of this text is long enough to need further segments after the first one."
+        val cases = mapOf(
+            "Version 3.14 adds new voices," to "Version 3.14 adds new voices, and more.",
+            "Prof. Smith reads aloud," to "Prof. Smith reads aloud, then leaves.",
+            "At 10:30 we leave home," to "At 10:30 we leave home, then walk.",
+            "Use e.g. apples or pears," to "Use e.g. apples or pears, not nuts.",
+            // 网址中的句点后没有空白, 不作为从句结尾
+            "Visit example.com/a.b today," to "Visit example.com/a.b today, then rest."
+        )
+        cases.forEach { (head, text) ->
+            val segments = policy.segment(text + tail, Locale.US)
+            assertEquals(head, segments.first())
+            assertEquals(text + tail, segments.joinToString(" "))
+        }
+    }
+
+    @Test
+    fun fallbackWindowDoesNotCutInsideSurrogatePairs() {
+        // 无标点的表情符号序列, 截取窗口的固定下标恰好位于代理对中间
+        val text = "a" + "\uD83D\uDE00".repeat(60)
+        val segments = policy.segment(text, Locale.US)
+        segments.forEach { segment ->
+            assertFalse(Character.isHighSurrogate(segment.last()))
+            assertFalse(Character.isLowSurrogate(segment.first()))
+        }
+        assertEquals(text, segments.joinToString(""))
+    }
+
+    @Test
+    fun packedPolicyFillsFirstSegment() {
+        val text = "天色渐渐暗了下来，街上的行人越来越少。" + "远处传来一阵阵钟声，回荡在空旷的广场上。".repeat(6)
+        val segments = PackedSegmentationPolicy().segment(text, Locale.CHINA)
+        assertTrue(segments.first().length > 30)
+    }
+}
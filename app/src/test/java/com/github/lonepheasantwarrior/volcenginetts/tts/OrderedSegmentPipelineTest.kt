@@ -0,0 +1,198 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import com.github.lonepheasantwarrior.volcenginetts.engine.SegmentJob
+import com.github.lonepheasantwarrior.volcenginetts.engine.SegmentSynthesizer
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisAudioSink
+import org.junit.Assert.*
+import org.junit.Test
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.random.Random
+
+/**
+ * 有序并行片段合成流水线测试(使用本地模拟引擎, 无需云端服务)
+ */
+class OrderedSegmentPipelineTest {
+
+    /**
+     * 本地模拟片段合成器: 每个片段在独立线程中经过随机延迟后分块输出音频,
+     * 每块音频的内容均为片段序号, 用于校验输出顺序
+     */
+    private class FakeSynthesizer(
+        private val latencyMillis: LongRange,
+        private val chunksPerSegment: Int = 4,
+        private val failingSegment: String? = null
+    ) : SegmentSynthesizer {
+        val active = AtomicInteger()
+        val maxActive = AtomicInteger()
+        private val random = Random(42)
+
+        override fun start(text: String, sink: SynthesisAudioSink): SegmentJob {
+            val released = AtomicBoolean(false)
+            val running = AtomicBoolean(true)
+            maxActive.accumulateAndGet(active.incrementAndGet()) { a, b -> maxOf(a, b) }
+            val latency = synchronized(random) { random.nextLong(latencyMillis.first, latencyMillis.last + 1) }
+            // 先计为结束再通知接收端, 保证流水线观察到片段结束时模拟引擎已不再占用并行名额
+            val finish = { isError: Boolean ->
+                if (running.compareAndSet(true, false)) active.decrementAndGet()
+                sink.onFinished(isError, if (isError) "模拟合成失败" else "")
+            }
+            val thread = Thread {
+                try {
+                    Thread.sleep(latency)
+                    if (text == failingSegment) {
+                        finish(true)
+                        return@Thread
+                    }
+                    repeat(chunksPerSegment) {
+                        if (released.get()) return@Thread
+                        sink.onAudio(ByteArray(16) { text.toInt().toByte() })
+                        Thread.sleep(1)
+                    }
+                    finish(false)
+                } catch (_: InterruptedException) {
+                } finally {
+                    if (running.compareAndSet(true, false)) active.decrementAndGet()
+                }
+            }
+            thread.start()
+            return SegmentJob {
+                released.set(true)
+                thread.join()
+            }
+        }
+    }
+
+    private fun segments(count: Int) = (0 until count).map { it.toString() }
+
+    private fun runPipeline(
+        synthesizer: SegmentSynthesizer,
+        segments: List<String>,
+        maxParallelSegments: Int,
+        maxBufferedBytes: Long = Long.MAX_VALUE,
+        lookAheadSegments: Int = OrderedSegmentPipeline.MAX_LOOK_AHEAD_SEGMENTS
+    ): Pair<Boolean, ByteArray> {
+        val pipeline = OrderedSegmentPipeline(
+            synthesizer, SynthesisSession(), maxParallelSegments, lookAheadSegments, maxBufferedBytes
+        )
+        val output = ByteArrayOutputStream()
+        val result = pipeline.run(segments) { chunk ->
+            output.write(chunk.data, 0, chunk.length)
+            true
+        }
+        return Pair(result, output.toByteArray())
+    }
+
+    @Test
+    fun deliversSegmentsStrictlyInOrder() {
+        val synthesizer = FakeSynthesizer(latencyMillis = 5L..60L)
+        val (result, audio) = runPipeline(synthesizer, segments(20), maxParallelSegments = 4)
+
+        assertTrue(result)
+        val expected = (0 until 20).flatMap { index -> List(4 * 16) { index.toByte() } }.toByteArray()
+        assertArrayEquals(expected, audio)
+    }
+
+    @Test
+    fun neverExceedsParallelLimit() {
+        val synthesizer = FakeSynthesizer(latencyMillis = 10L..30L)
+        runPipeline(synthesizer, segments(16), maxParallelSegments = 3)
+
+        assertTrue(synthesizer.maxActive.get() <= 3)
+        assertEquals(0, synthesizer.active.get())
+    }
+
+    /**
+     * 记录每个片段启动时正在输出的片段序号, 用于校验预合成深度
+     */
+    private class LookAheadProbe : SegmentSynthesizer {
+        val started = AtomicInteger()
+        val delivered = AtomicInteger()
+        val maxLead = AtomicInteger()
+
+        override fun start(text: String, sink: SynthesisAudioSink): SegmentJob {
+            val lead = text.toInt() - delivered.get()
+            maxLead.accumulateAndGet(lead) { a, b -> maxOf(a, b) }
+            started.incrementAndGet()
+            // 立即合成完毕, 只受预合成深度与缓冲上限约束
+            sink.onAudio(ByteArray(16) { text.toInt().toByte() })
+            sink.onFinished(false, "")
+            return SegmentJob {}
+        }
+    }
+
+    @Test
+    fun lookAheadBoundsSegmentsStartedBeyondTheHead() {
+        for (depth in 1..OrderedSegmentPipeline.MAX_LOOK_AHEAD_SEGMENTS) {
+            val probe = LookAheadProbe()
+            val pipeline = OrderedSegmentPipeline(probe, SynthesisSession(), 4, depth, Long.MAX_VALUE)
+            val result = pipeline.run(segments(12)) { chunk ->
+                Thread.sleep(2)
+                probe.delivered.set(chunk.data[0] + 1)
+                true
+            }
+
+            assertTrue(result)
+            assertEquals(12, probe.started.get())
+            assertEquals("depth=$depth", depth, probe.maxLead.get())
+        }
+    }
+
+    @Test
+    fun lookAheadIsClampedToSupportedRange() {
+        val probe = LookAheadProbe()
+        OrderedSegmentPipeline(probe, SynthesisSession(), 8, 10, Long.MAX_VALUE).run(segments(12)) { chunk ->
+            probe.delivered.set(chunk.data[0] + 1)
+            true
+        }
+        assertEquals(OrderedSegmentPipeline.MAX_LOOK_AHEAD_SEGMENTS, probe.maxLead.get())
+    }
+
+    @Test
+    fun bufferLimitFallsBackToSerialSynthesis() {
+        val synthesizer = FakeSynthesizer(latencyMillis = 1L..5L)
+        val (result, _) = runPipeline(synthesizer, segments(8), maxParallelSegments = 4, maxBufferedBytes = 0)
+
+        assertTrue(result)
+        assertTrue(synthesizer.maxActive.get() <= 2)
+    }
+
+    @Test
+    fun parallelSynthesisReducesTotalTime() {
+        val segments = segments(8)
+        val serialStart = System.nanoTime()
+        runPipeline(FakeSynthesizer(latencyMillis = 100L..100L), segments, maxParallelSegments = 1)
+        val serialMillis = (System.nanoTime() - serialStart) / 1_000_000
+
+        val parallelStart = System.nanoTime()
+        runPipeline(FakeSynthesizer(latencyMillis = 100L..100L), segments, maxParallelSegments = 4)
+        val parallelMillis = (System.nanoTime() - parallelStart) / 1_000_000
+
+        assertTrue("serial=${serialMillis}ms parallel=${parallelMillis}ms", parallelMillis * 2 < serialMillis)
+    }
+
+    @Test
+    fun failedSegmentStopsPipeline() {
+        val synthesizer = FakeSynthesizer(latencyMillis = 1L..10L, failingSegment = "3")
+        val (result, audio) = runPipeline(synthesizer, segments(10), maxParallelSegments = 3)
+
+        assertFalse(result)
+        assertEquals(3 * 4 * 16, audio.size)
+        assertEquals(0, synthesizer.active.get())
+    }
+
+    @Test
+    fun rejectedOutputCancelsSessionAndStopsPipeline() {
+        val synthesizer = FakeSynthesizer(latencyMillis = 1L..10L)
+        val session = SynthesisSession()
+        val pipeline = OrderedSegmentPipeline(synthesizer, session, 3, 2, Long.MAX_VALUE)
+        var accepted = 0
+        val result = pipeline.run(segments(10)) { ++accepted < 6 }
+
+        assertTrue(result)
+        assertEquals(6, accepted)
+        assertTrue(session.isCancelled)
+        assertEquals(0, synthesizer.active.get())
+    }
+}
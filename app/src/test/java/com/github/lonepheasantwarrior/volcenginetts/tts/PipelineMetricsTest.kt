@@ -0,0 +1,76 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.TextToSpeech
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics.Stage
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.PrintWriter
+import java.io.StringWriter
+import java.nio.file.Files
+import java.util.Locale
+
+class PipelineMetricsTest {
+
+    private val backendConfig = FakeSynthesisBackend.Config(
+        startLatencyMillis = 10, firstChunkLatencyMillis = 30, chunkIntervalMillis = 2, bytesPerChar = 1000
+    )
+
+    private fun count(metrics: PipelineMetrics, stage: Stage) = metrics.histogram(stage).snapshot().count
+
+    @Test
+    fun serviceRecordsEveryStage() {
+        val service = FakeTtsService(backendConfig, FakeTtsService.defaultConfig(), Files.createTempDirectory("metrics").toFile())
+        val metrics = service.application.pipelineMetrics
+        val text = "今天天气不错，适合出门散步。"
+        val callback = RecordingSynthesisCallback(8192)
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), callback)
+        assertTrue(callback.isSucceeded)
+
+        assertEquals(1, count(metrics, Stage.SETTINGS_LOAD))
+        assertEquals(1, count(metrics, Stage.ENGINE_CREATE))
+        assertEquals(1, count(metrics, Stage.ENGINE_INIT))
+        assertEquals(1, count(metrics, Stage.ENGINE_START))
+        assertEquals(1, count(metrics, Stage.FIRST_AUDIO_BYTE))
+        assertEquals(1, count(metrics, Stage.FIRST_AUDIO_AVAILABLE))
+        assertEquals(1, count(metrics, Stage.SEGMENT))
+        assertEquals(1, count(metrics, Stage.REQUEST))
+        // START指令至首个音频数据至少包含模拟的启动与首包延迟
+        assertTrue(metrics.histogram(Stage.FIRST_AUDIO_BYTE).snapshot().maxMicros >= 40_000)
+        assertEquals(text.length.toLong(), metrics.charactersSynthesized)
+        assertEquals(callback.totalBytes, metrics.bytesDelivered)
+        assertEquals(1, metrics.cacheMisses)
+        assertEquals(0.0, metrics.cacheHitRate, 0.0)
+
+        // 引擎在独立线程中停止并归还至引擎池
+        for (i in 0 until 100) {
+            if (count(metrics, Stage.TEARDOWN) > 0) break
+            Thread.sleep(10)
+        }
+        assertEquals(1, count(metrics, Stage.TEARDOWN))
+
+        val output = StringWriter()
+        metrics.dump(PrintWriter(output))
+        Stage.entries.forEach { assertTrue(output.toString().contains(it.name)) }
+    }
+
+    @Test
+    fun countsErrorsByCode() {
+        val service = FakeTtsService(
+            backendConfig.copy(failureRate = 1.0), FakeTtsService.defaultConfig(),
+            Files.createTempDirectory("metrics").toFile()
+        )
+        val metrics = service.application.pipelineMetrics
+        repeat(2) {
+            val callback = RecordingSynthesisCallback(8192)
+            service.synthesize(FakeSynthesisRequest("失败的请求", Locale.CHINA), callback)
+            assertTrue(!callback.isSucceeded)
+        }
+        val errors = metrics.errorCounts
+        assertEquals(2L, errors["${PipelineMetrics.ERROR_DOMAIN_TTS}:${TextToSpeech.ERROR}"])
+        // 单元测试中的org.json为空实现, SDK错误码无法解析, 只检查按来源的合计
+        assertEquals(2L, errors.filterKeys { it.startsWith(PipelineMetrics.ERROR_DOMAIN_SDK) }.values.sum())
+    }
+}
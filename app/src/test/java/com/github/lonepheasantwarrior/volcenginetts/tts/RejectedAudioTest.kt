@@ -0,0 +1,87 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.TextToSpeech
+import com.github.lonepheasantwarrior.volcenginetts.engine.FakeSynthesisBackend
+import com.github.lonepheasantwarrior.volcenginetts.metrics.PipelineMetrics
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.nio.file.Files
+import java.util.Locale
+
+/**
+ * 系统TTS服务拒绝接收音频(audioAvailable返回ERROR)时应立即结束请求, 不再等待剩余音频合成完毕
+ */
+class RejectedAudioTest {
+
+    // 每个字符约40毫秒音频数据, 完整合成需数秒
+    private val longText = "今天天气不错，适合出门散步。".repeat(8)
+
+    private fun newService(maxParallelSegments: Int) = FakeTtsService(
+        FakeSynthesisBackend.Config(firstChunkLatencyMillis = 10, chunkIntervalMillis = 20),
+        FakeTtsService.defaultConfig(maxParallelSegments),
+        Files.createTempDirectory("rejected-audio").toFile()
+    )
+
+    private fun assertStopsPromptly(service: FakeTtsService, text: String) {
+        val callback = object : RecordingSynthesisCallback(1024) {
+            override fun audioAvailable(buffer: ByteArray, offset: Int, length: Int): Int {
+                val result = super.audioAvailable(buffer, offset, length)
+                return if (deliveries >= 3) TextToSpeech.ERROR else result
+            }
+        }
+        val start = System.nanoTime()
+        service.synthesize(FakeSynthesisRequest(text, Locale.CHINA), callback)
+        val elapsedMillis = (System.nanoTime() - start) / 1_000_000
+
+        assertEquals(3, callback.deliveries)
+        assertTrue("elapsed=${elapsedMillis}ms", elapsedMillis < text.length * 40L / 2)
+
+        // 被取消的会话不影响后续请求
+        val next = RecordingSynthesisCallback(1024)
+        service.synthesize(FakeSynthesisRequest("你好。", Locale.CHINA), next)
+        assertTrue(next.isSucceeded)
+    }
+
+    @Test
+    fun rejectedAudioStopsShortText() {
+        assertStopsPromptly(newService(2), "今天天气不错，适合出门散步，也适合在家看书。")
+    }
+
+    @Test
+    fun rejectedAudioStopsParallelPipeline() {
+        assertStopsPromptly(newService(2), longText)
+    }
+
+    @Test
+    fun rejectedAudioStopsContinuousSynthesis() {
+        assertStopsPromptly(newService(1), longText)
+    }
+
+    @Test
+    fun failingAudioOutputDoesNotHangEngineTeardown() {
+        // 通道容量很小且满时阻塞, 输出出错后SDK回调线程停在已满的通道上
+        val service = FakeTtsService(
+            FakeSynthesisBackend.Config(firstChunkLatencyMillis = 10, chunkIntervalMillis = 1),
+            FakeTtsService.defaultConfig(2).copy(audioChannelCapacity = 2),
+            Files.createTempDirectory("rejected-audio").toFile()
+        )
+        val callback = object : RecordingSynthesisCallback(1024) {
+            override fun audioAvailable(buffer: ByteArray, offset: Int, length: Int): Int {
+                Thread.sleep(50)
+                throw IllegalStateException("模拟音频输出失败")
+            }
+        }
+        service.synthesize(FakeSynthesisRequest("今天天气不错，适合出门散步，也适合在家看书。", Locale.CHINA), callback)
+        assertFalse(callback.isSucceeded)
+
+        // 引擎归还时的SYNC_STOP须在回调线程被唤醒后返回
+        val teardown = service.application.pipelineMetrics.histogram(PipelineMetrics.Stage.TEARDOWN)
+        val deadline = System.nanoTime() + 2_000_000_000L
+        while (teardown.snapshot().count == 0L && System.nanoTime() < deadline) {
+            Thread.sleep(10)
+        }
+        assertEquals(1L, teardown.snapshot().count)
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import com.github.lonepheasantwarrior.volcenginetts.engine.SynthesisEnginePool
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class ScreenReaderStormTest {
+
+    private fun fastOptions(parallelSegments: Int) = ScreenReaderStorm.Options().apply {
+        rttMillis = 5
+        msPerChar = 2.0
+        jitterMillis = 2
+        speed = 2.0
+        this.parallelSegments = parallelSegments
+        timeoutMillis = 10_000
+    }
+
+    private fun assertHealthy(options: ScreenReaderStorm.Options, result: ScreenReaderStorm.Result) {
+        val summary = result.toJson()
+        assertFalse(result.threadDump, result.deadlocked)
+        assertEquals(summary, 0L, result.foreignBytes)
+        assertEquals(summary, 0L, result.lateBytes)
+        assertEquals(summary, 0, result.unfinished)
+        assertEquals(summary, 0, result.errors)
+        assertEquals(summary, 0, result.incomplete)
+        assertEquals(summary, 0, result.overrun)
+        assertEquals(summary, 0, result.watchedSessions)
+        assertFalse(summary, result.sessionLeft)
+        // 每个会话的主通道与并行预合成片段的通道各自至多占满容量, 被打断会话的数据块均已归还
+        val config = FakeTtsService.defaultConfig(options.parallelSegments)
+        assertTrue(summary, result.allocatedChunks <= config.audioChannelCapacity * (options.parallelSegments + 1L))
+        assertTrue(
+            summary,
+            result.peakLiveEngines <= SynthesisEnginePool.DEFAULT_MAX_IDLE_PER_KEY + options.parallelSegments + 1
+        )
+        assertTrue(summary, result.completed > 0)
+        assertTrue(summary, result.stopToNextAudioMillis.count > 0)
+    }
+
+    @Test
+    fun randomInterleavingsWithParallelPipeline() {
+        val options = fastOptions(2).apply { seed = 7; events = 120 }
+        assertHealthy(options, ScreenReaderStorm.run(options, ScreenReaderStorm.randomEvents(options.seed, options.events)))
+    }
+
+    @Test
+    fun randomInterleavingsWithContinuousSynthesis() {
+        val options = fastOptions(1).apply { seed = 11; events = 120 }
+        assertHealthy(options, ScreenReaderStorm.run(options, ScreenReaderStorm.randomEvents(options.seed, options.events)))
+    }
+
+    @Test
+    fun recordedTalkBackSwipeTrace() {
+        val options = fastOptions(2).apply { speed = 4.0 }
+        assertHealthy(options, ScreenReaderStorm.run(options, ScreenReaderStorm.loadTrace("talkback_swipe")))
+    }
+
+    @Test
+    fun stampKeepsPunctuationAndReplacesText() {
+        assertEquals("甲甲，甲甲甲。", ScreenReaderStorm.stamp("你好， 世界1。", '甲'))
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class SessionWatchdogTest {
+
+    @Test
+    fun deadlineReportsStalledStage() {
+        val deadline = SynthesisDeadline(100, 50, 1_000, 0)
+        assertNull(deadline.check(100))
+        assertEquals(SynthesisDeadline.Stage.FIRST_BYTE, deadline.check(101))
+
+        deadline.onAudioProduced(80)
+        assertNull(deadline.check(130))
+        assertEquals(SynthesisDeadline.Stage.STALL, deadline.check(131))
+        deadline.onAudioConsumed(500)
+        assertNull(deadline.check(540))
+        assertEquals(SynthesisDeadline.Stage.TOTAL, deadline.check(1_001))
+    }
+
+    @Test
+    fun abortsStuckSessionAndWakesConsumer() {
+        val watchdog = SessionWatchdog(10)
+        val session = SynthesisSession(AudioBufferPool(1024, 4), 4, AudioChannel.OverflowPolicy.BLOCK,
+            SynthesisDeadline(50, 50, 10_000))
+        watchdog.watch(session)
+
+        val drained = CountDownLatch(1)
+        Thread {
+            session.channel.drainTo { }
+            drained.countDown()
+        }.start()
+
+        assertTrue(drained.await(2, TimeUnit.SECONDS))
+        assertTrue(session.isCancelled)
+        assertEquals(SynthesisDeadline.Stage.FIRST_BYTE, session.timeoutStage)
+        assertEquals(0, watchdog.watchedCount)
+    }
+
+    @Test
+    fun progressingAndCancelledSessionsAreNotAborted() {
+        val watchdog = SessionWatchdog(10_000)
+        val session = SynthesisSession(AudioBufferPool(1024, 4), 4, AudioChannel.OverflowPolicy.BLOCK,
+            SynthesisDeadline(50, 50, 10_000))
+        watchdog.watch(session)
+        session.channel.onAudio(ByteArray(16))
+        watchdog.check(SynthesisDeadline.now())
+        assertFalse(session.isCancelled)
+        assertEquals(1, watchdog.watchedCount)
+
+        session.cancel()
+        watchdog.check(SynthesisDeadline.now() + 1_000)
+        assertNull(session.timeoutStage)
+        assertEquals(0, watchdog.watchedCount)
+    }
+}
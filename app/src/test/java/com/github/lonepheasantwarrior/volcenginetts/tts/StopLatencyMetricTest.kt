@@ -0,0 +1,36 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class StopLatencyMetricTest {
+
+    @Test
+    fun measuresFromStopToFirstAudioOfFollowingRequest() {
+        val metric = StopLatencyMetric()
+        metric.onStop(1_000)
+        metric.onRequestStart(1_010)
+        assertEquals(150, metric.onFirstAudio(1_150))
+        // 同一请求的后续音频不重复计入
+        assertEquals(-1, metric.onFirstAudio(1_200))
+
+        metric.onStop(2_000)
+        metric.onRequestStart(2_005)
+        assertEquals(50, metric.onFirstAudio(2_050))
+        assertEquals(2, metric.count)
+        assertEquals(100, metric.averageMillis)
+        assertEquals(150, metric.maxMillis)
+    }
+
+    @Test
+    fun ignoresRequestsNotFollowingAStop() {
+        val metric = StopLatencyMetric()
+        metric.onRequestStart(1_000)
+        assertEquals(-1, metric.onFirstAudio(1_100))
+
+        metric.onStop(2_000)
+        metric.onRequestStart(2_000 + StopLatencyMetric.FOLLOW_UP_WINDOW_MILLIS + 1)
+        assertEquals(-1, metric.onFirstAudio(5_000))
+        assertEquals(0, metric.count)
+    }
+}
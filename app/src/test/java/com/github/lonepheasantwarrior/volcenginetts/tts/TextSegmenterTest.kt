@@ -0,0 +1,117 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import org.junit.Assert.*
+import org.junit.Test
+import java.util.Locale
+
+/**
+ * 长文本分段器测试
+ */
+class TextSegmenterTest {
+
+    private fun split(text: String, locale: Locale = Locale.CHINA, maxLength: Int = 80) =
+        TextSegmenter(maxLength, locale).split(text)
+
+    /**
+     * 校验每段长度不超过上限、两端无空白、未拆开代理对, 且拼接后与原文去除空白后一致
+     */
+    private fun assertWellFormed(text: String, segments: List<String>, maxLength: Int = 80) {
+        for (segment in segments) {
+            assertTrue("片段过长: ${segment.length}", segment.length <= maxLength)
+            assertEquals(segment.trim(), segment)
+            assertFalse(Character.isLowSurrogate(segment.first()))
+            assertFalse(Character.isHighSurrogate(segment.last()))
+        }
+        val whitespace = Regex("\\s+")
+        assertEquals(text.replace(whitespace, ""), segments.joinToString("").replace(whitespace, ""))
+    }
+
+    @Test
+    fun mergesSentencesUpToLimit() {
+        val text = "第一句话。第二句话！第三句话？"
+        assertEquals(listOf(text), split(text))
+        assertEquals(listOf("第一句话。", "第二句话！", "第三句话？"), split(text, maxLength = 6))
+    }
+
+    @Test
+    fun prefersClauseDelimitersInsideLongSentences() {
+        val text = "这是一个很长的从句，" + "后面还有更多内容".repeat(12) + "。"
+        val segments = split(text)
+        assertEquals("这是一个很长的从句，", segments.first())
+        assertWellFormed(text, segments)
+    }
+
+    @Test
+    fun neverSplitsSurrogatePairs() {
+        val text = "😀".repeat(100) + "𠀀".repeat(100)
+        assertWellFormed(text, split(text))
+    }
+
+    @Test
+    fun splitsTextWithoutSpacesAtWordBoundaries() {
+        val thai = "ภาษาไทยเป็นภาษาที่ไม่มีการเว้นวรรคระหว่างคำ".repeat(5)
+        assertWellFormed(thai, split(thai, Locale.forLanguageTag("th-TH")))
+
+        val japanese = "日本語の文章には単語の間にスペースがありません".repeat(6)
+        assertWellFormed(japanese, split(japanese, Locale.JAPAN))
+    }
+
+    /**
+     * 校验相邻片段的接缝处没有拆开数字
+     */
+    private fun assertNumbersIntact(segments: List<String>) {
+        for ((a, b) in segments.zipWithNext()) {
+            val seam = a.takeLast(2) + "|" + b.take(2)
+            assertFalse(seam, a.last().isDigit() && b.first().isDigit())
+            assertFalse(seam, a.length > 1 && a.last() in ",:" && a[a.length - 2].isDigit() && b.first().isDigit())
+            assertFalse(seam, a.last().isDigit() && b.length > 1 && b.first() in ",:" && b[1].isDigit())
+        }
+    }
+
+    @Test
+    fun doesNotSplitTimesOrThousandsSeparators() {
+        val filler = "会议室里大家正在认真地讨论下一季度的工作安排"
+        val times = filler.repeat(3) + "会议将于10:30开始" + filler.repeat(2) + "。"
+        val timeSegments = split(times)
+        assertWellFormed(times, timeSegments)
+        assertNumbersIntact(timeSegments)
+        assertTrue(timeSegments.any { it.contains("10:30") })
+
+        val amounts = filler.repeat(3) + "本次预算共计1,000,000元" + filler.repeat(2) + "。"
+        val amountSegments = split(amounts)
+        assertWellFormed(amounts, amountSegments)
+        assertNumbersIntact(amountSegments)
+        assertTrue(amountSegments.any { it.contains("1,000,000") })
+    }
+
+    @Test
+    fun stillSplitsAtDelimitersNextToDigits() {
+        val text = "第一组共有3,第二组共有5," + "后面还有更多内容".repeat(12) + "。"
+        val segments = split(text, maxLength = 12)
+        assertWellFormed(text, segments, maxLength = 12)
+        assertEquals("第一组共有3,", segments.first())
+    }
+
+    @Test
+    fun splitsLatinTextAtSpaces() {
+        val text = "The quick brown fox jumps over the lazy dog and keeps running without any punctuation at all today"
+        val segments = split(text, Locale.US)
+        assertWellFormed(text, segments)
+        assertTrue(segments.all { text.contains("$it ") || text.endsWith(it) })
+    }
+
+    @Test
+    fun segmentsLargeChapterQuickly() {
+        val chapter = buildString {
+            while (length < 100 * 1024) append("他慢慢地走进房间，看了看四周。The light was dim, and nobody answered! ")
+        }
+        // 预热, 排除首次加载分词规则与JIT编译的耗时
+        repeat(10) { split(chapter) }
+        val start = System.nanoTime()
+        val segments = split(chapter)
+        val elapsedMillis = (System.nanoTime() - start) / 1_000_000
+
+        assertWellFormed(chapter, segments)
+        assertTrue("耗时 ${elapsedMillis}ms", elapsedMillis < 50)
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.lonepheasantwarrior.volcenginetts.tts
+
+import android.speech.tts.Voice
+import com.github.lonepheasantwarrior.volcenginetts.common.Constants
+import com.github.lonepheasantwarrior.volcenginetts.common.SpeakerCatalog
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Locale
+
+class VoiceCatalogTest {
+    private val catalog = VoiceCatalog(
+        listOf(
+            SpeakerCatalog.Speaker("通用场景", "甜美桃子", "zh_female_tianmeitaozi_mars_bigtts"),
+            SpeakerCatalog.Speaker("通用场景", "知性温婉", "ICL_zh_female_zhixingwenwan_tob"),
+            SpeakerCatalog.Speaker("通用场景", "开朗学长", "en_male_jason_conversation_wvae_bigtts")
+        )
+    )
+
+    @Test
+    fun mapsEverySpeakerToANetworkVoice() {
+        val speakers = catalog.voices.filter { catalog.isSpeaker(it.name) }
+        assertEquals(3, speakers.size)
+        assertTrue(speakers.all { it.isNetworkConnectionRequired })
+        assertEquals(Locale("en"), speakers.first { it.name.startsWith("en_") }.locale)
+        assertEquals(Locale("zh"), speakers.first { it.name.startsWith("ICL_") }.locale)
+        assertEquals(Voice.QUALITY_VERY_HIGH, speakers.first().quality)
+        assertEquals(Voice.QUALITY_HIGH, speakers.first { it.name.startsWith("ICL_") }.quality)
+    }
+
+    @Test
+    fun defaultVoiceIsAListedLanguageVoice() {
+        assertEquals(3 + Constants.SUPPORTED_LANGUAGES.size, catalog.voices.size)
+        for (request in listOf(arrayOf("zho", "CHN"), arrayOf("zh", "TW"), arrayOf("eng", ""), arrayOf("en", "US"))) {
+            val name = catalog.getDefaultVoiceName(request[0], request[1])
+            assertTrue(name, catalog.isValidVoiceName(name))
+            assertFalse(catalog.isSpeaker(name))
+            assertTrue(catalog.voices.any { it.name == name })
+        }
+        assertEquals("zho-TWN", catalog.getDefaultVoiceName("zh", "TW"))
+        assertEquals("eng-USA", catalog.getDefaultVoiceName("en", "US"))
+        assertNull(catalog.getDefaultVoiceName("xyz", ""))
+        assertFalse(catalog.isValidVoiceName("unknown"))
+        assertFalse(catalog.isValidVoiceName(null))
+    }
+}